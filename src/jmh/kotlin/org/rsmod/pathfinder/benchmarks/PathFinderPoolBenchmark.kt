@@ -0,0 +1,73 @@
+package org.rsmod.pathfinder.benchmarks
+
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Threads
+import org.openjdk.jmh.annotations.Warmup
+import org.rsmod.pathfinder.PathFinderPool
+import org.rsmod.pathfinder.Route
+import org.rsmod.pathfinder.SmartPathFinder
+import java.util.concurrent.TimeUnit
+
+/* More threads than most machines have cores, so that stripes are shared. */
+private const val BENCHMARK_THREADS = 8
+
+/*
+ * Searches the medium length route of the game click benchmarks from several
+ * threads at once, with a `SmartPathFinder` per call, per thread through a
+ * `ThreadLocal`, and borrowed from a shared `PathFinderPool`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1)
+@Threads(BENCHMARK_THREADS)
+open class PathFinderPoolBenchmark {
+
+    private var srcX = 0
+    private var srcY = 0
+    private var destX = 0
+    private var destY = 0
+    private lateinit var flags: IntArray
+
+    private val threadLocal = ThreadLocal.withInitial { SmartPathFinder(resetOnSearch = true) }
+    private val pool = PathFinderPool()
+
+    @Setup
+    fun setup() {
+        val stream = Route::class.java.getResourceAsStream("med-path.json")
+        val mapper = ObjectMapper(JsonFactory())
+        val params = stream.use { mapper.readTree(it) }
+        srcX = params["srcX"].asInt()
+        srcY = params["srcY"].asInt()
+        destX = params["destX"].asInt()
+        destY = params["destY"].asInt()
+        flags = IntArray(params["flags"].size()) { params["flags"][it].asInt() }
+    }
+
+    @Benchmark
+    fun constructPerCall(): Route {
+        return SmartPathFinder().findPath(flags, srcX, srcY, destX, destY)
+    }
+
+    @Benchmark
+    fun threadLocal(): Route {
+        return threadLocal.get().findPath(flags, srcX, srcY, destX, destY)
+    }
+
+    @Benchmark
+    fun pool(): Route {
+        return pool.use { it.findPath(flags, srcX, srcY, destX, destY) }
+    }
+}
@@ -16,11 +16,28 @@ import org.openjdk.jmh.annotations.Scope
 import org.openjdk.jmh.annotations.Setup
 import org.openjdk.jmh.annotations.State
 import org.openjdk.jmh.annotations.Warmup
+import org.rsmod.pathfinder.AStarPathFinder
+import org.rsmod.pathfinder.BatchPathFinder
+import org.rsmod.pathfinder.ClearanceMap
+import org.rsmod.pathfinder.ComponentMap
+import org.rsmod.pathfinder.ExitMaskMap
+import org.rsmod.pathfinder.JumpPointPathFinder
+import org.rsmod.pathfinder.PathRequestBatch
 import org.rsmod.pathfinder.Route
+import org.rsmod.pathfinder.RouteBuffer
 import org.rsmod.pathfinder.SmartPathFinder
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.OffsetFlagView
 import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.TimeUnit
 
+private const val SEARCH_SIZE = 128
+private const val WORLD_FLAGS_SIZE = SEARCH_SIZE * 3
+private const val WORLD_FLAGS_OFFSET = SEARCH_SIZE
+
+/* Size of the entity searched for by the large entity benchmarks, such as a boss NPC. */
+private const val LARGE_ENTITY_SIZE = 4
+
 open class GameClickShortPath : SmartPathFinderBenchmark("short-path.json")
 open class GameClickMedPath : SmartPathFinderBenchmark("med-path.json")
 open class GameClickLongPath : SmartPathFinderBenchmark("long-path.json")
@@ -39,6 +56,13 @@ abstract class SmartPathFinderBenchmark(
 
     private lateinit var params: PathFinderParameter
     private lateinit var scope: CoroutineScope
+    private lateinit var worldFlags: IntArray
+    private lateinit var collisionMap: CollisionMap
+    private lateinit var components: ComponentMap
+    private lateinit var exits: ExitMaskMap
+    private lateinit var clearance: ClearanceMap
+    private lateinit var batchPathFinder: BatchPathFinder
+    private val batch = PathRequestBatch()
 
     @Setup
     fun setup() {
@@ -50,6 +74,21 @@ abstract class SmartPathFinderBenchmark(
         val dispatcher = executor.asCoroutineDispatcher()
         scope = CoroutineScope(dispatcher)
 
+        val half = SEARCH_SIZE / 2
+        worldFlags = IntArray(WORLD_FLAGS_SIZE * WORLD_FLAGS_SIZE)
+        collisionMap = CollisionMap()
+        for (y in 0 until SEARCH_SIZE) {
+            for (x in 0 until SEARCH_SIZE) {
+                val flag = params.flags[(y * SEARCH_SIZE) + x]
+                worldFlags[((WORLD_FLAGS_OFFSET + y) * WORLD_FLAGS_SIZE) + WORLD_FLAGS_OFFSET + x] = flag
+                collisionMap[params.srcX - half + x, params.srcY - half + y, 0] = flag
+            }
+        }
+        components = ComponentMap(collisionMap, 0, params.srcX - half, params.srcY - half, SEARCH_SIZE, SEARCH_SIZE)
+        exits = ExitMaskMap(collisionMap, 0, params.srcX - half, params.srcY - half, SEARCH_SIZE, SEARCH_SIZE)
+        clearance = ClearanceMap(collisionMap, 0, params.srcX - half, params.srcY - half, SEARCH_SIZE, SEARCH_SIZE)
+        batchPathFinder = BatchPathFinder(collisionMap, executor = executor)
+
         val mapSize = ClientPathfinder.SIZE
         for (i in ClientPathfinder.scene.indices) {
             ClientPathfinder.scene[i] = ClientMapArea(mapSize, mapSize)
@@ -91,6 +130,140 @@ abstract class SmartPathFinderBenchmark(
         }
     }
 
+    @Benchmark
+    fun serverPathRouteBuffer() {
+        val (srcX, srcY, destX, destY, flags) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        val buffer = RouteBuffer()
+        repeat(pathRequests) {
+            pf.findPath(buffer, flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathBitboards() {
+        val (srcX, srcY, destX, destY, flags) = params
+        val pf = SmartPathFinder(resetOnSearch = true, useBitboards = true)
+        val buffer = RouteBuffer()
+        repeat(pathRequests) {
+            pf.findPath(buffer, flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathAStar() {
+        val (srcX, srcY, destX, destY, flags) = params
+        val pf = AStarPathFinder()
+        val buffer = RouteBuffer()
+        repeat(pathRequests) {
+            pf.findPath(buffer, flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathJumpPoint() {
+        val (srcX, srcY, destX, destY, flags) = params
+        val pf = JumpPointPathFinder()
+        val buffer = RouteBuffer()
+        repeat(pathRequests) {
+            pf.findPath(buffer, flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathOffsetFlagView() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        val flags = OffsetFlagView(worldFlags, WORLD_FLAGS_SIZE, WORLD_FLAGS_OFFSET, WORLD_FLAGS_OFFSET)
+        repeat(pathRequests) {
+            pf.findPath(flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathCollisionMap() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY)
+        }
+    }
+
+    /*
+     * Copies the search map out of the [CollisionMap] before every search, as
+     * callers had to before [SmartPathFinder] could read from it directly.
+     */
+    @Benchmark
+    fun serverPathCollisionMapCopy() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        val flags = IntArray(SEARCH_SIZE * SEARCH_SIZE)
+        val half = SEARCH_SIZE / 2
+        repeat(pathRequests) {
+            for (y in 0 until SEARCH_SIZE) {
+                for (x in 0 until SEARCH_SIZE) {
+                    flags[(y * SEARCH_SIZE) + x] = collisionMap[srcX - half + x, srcY - half + y, 0]
+                }
+            }
+            pf.findPath(flags, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathCollisionMapBitboards() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true, useBitboards = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY)
+        }
+    }
+
+    @Benchmark
+    fun serverPathComponentMap() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY, components = components)
+        }
+    }
+
+    @Benchmark
+    fun serverPathExitMask() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY, exits = exits)
+        }
+    }
+
+    @Benchmark
+    fun serverPathLargeEntity() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY, srcSize = LARGE_ENTITY_SIZE)
+        }
+    }
+
+    @Benchmark
+    fun serverPathLargeEntityClearance() {
+        val (srcX, srcY, destX, destY) = params
+        val pf = SmartPathFinder(resetOnSearch = true)
+        repeat(pathRequests) {
+            pf.findPath(collisionMap, 0, srcX, srcY, destX, destY, srcSize = LARGE_ENTITY_SIZE, clearance = clearance)
+        }
+    }
+
+    @Benchmark
+    fun serverPathBatch() {
+        val (srcX, srcY, destX, destY) = params
+        batch.clear()
+        repeat(pathRequests) {
+            batch.add(0, srcX, srcY, destX, destY)
+        }
+        batchPathFinder.findPaths(batch)
+    }
+
     @Benchmark
     fun serverPathCoroutineDispatcherThreadLocal() = runBlocking {
         val (srcX, srcY, destX, destY, flags) = params
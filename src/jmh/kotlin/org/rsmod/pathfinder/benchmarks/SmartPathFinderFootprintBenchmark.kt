@@ -0,0 +1,31 @@
+package org.rsmod.pathfinder.benchmarks
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.rsmod.pathfinder.SmartPathFinder
+import java.util.concurrent.TimeUnit
+
+/*
+ * Run with `-prof gc`: the normalized allocation rate (gc.alloc.rate.norm)
+ * is the scratch memory footprint of a single SmartPathFinder instance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1)
+open class SmartPathFinderFootprintBenchmark {
+
+    @Benchmark
+    fun construct(): SmartPathFinder {
+        return SmartPathFinder()
+    }
+}
@@ -0,0 +1,542 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.collision.IntArrayFlagView
+import java.util.Arrays
+
+/*
+ * Every step costs one, so the estimate of a successor is at most two more
+ * than the estimate of the tile it was reached from; four buckets indexed by
+ * `estimate & BUCKET_MASK` therefore never hold two different estimates.
+ */
+private const val BUCKET_COUNT = 4
+private const val BUCKET_MASK = BUCKET_COUNT - 1
+
+/**
+ * A* counterpart of [SmartPathFinder] that follows the same collision and
+ * reach rules but expands tiles in order of estimated route length, so it
+ * only explores the part of the search map between the source and the
+ * destination. Routes found are as short as the ones [SmartPathFinder]
+ * finds, though they may take a different but equally long set of tiles.
+ *
+ * Entities move one tile per step diagonally as well, so the heuristic is
+ * the octile distance with a diagonal cost of one (the Chebyshev distance)
+ * to the area the destination can be reached from.
+ */
+public class AStarPathFinder(
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    private val tiles: IntArray = IntArray(searchMapSize * searchMapSize),
+    private var epoch: Int = 1,
+    /*
+     * A tile is only queued again when its distance improves, which moves it
+     * to a lower estimate, so each bucket holds every tile at most once.
+     */
+    private val buckets: CharArray = CharArray(BUCKET_COUNT * searchMapSize * searchMapSize),
+    private val bucketSizes: IntArray = IntArray(BUCKET_COUNT),
+    private var currLocalX: Int = 0,
+    private var currLocalY: Int = 0
+) {
+
+    private val arrayFlags = IntArrayFlagView(IntArray(0), searchMapSize)
+    private var mapFlags: CollisionMapFlagView? = null
+    private var routeBuffer: RouteBuffer? = null
+
+    private val reachArea = ReachArea()
+
+    internal var expandedNodes: Int = 0
+        private set
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+    }
+
+    public fun findPath(
+        flags: IntArray,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        return findPath(
+            mapFlags(collisionMap, level, srcX, srcY),
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    /**
+     * Calculates a route by reading the collision flags through [flags], which
+     * must be positioned with its local origin at `(srcX - searchMapSize / 2, srcY - searchMapSize / 2)`.
+     */
+    public fun findPath(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        val buffer = routeBuffer ?: RouteBuffer().also { routeBuffer = it }
+        findPath(
+            buffer,
+            flags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        return buffer.toRoute()
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: IntArray,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            buffer,
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        return findPath(
+            buffer,
+            mapFlags(collisionMap, level, srcX, srcY),
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        buffer.clear()
+        buffer.srcX = srcX
+        buffer.srcY = srcY
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val localSrcX = srcX - baseX
+        val localSrcY = srcY - baseY
+        val localDestX = destX - baseX
+        val localDestY = destY - baseY
+        val pathFound = search(
+            flags,
+            localSrcX,
+            localSrcY,
+            localDestX,
+            localDestY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        if (!pathFound) {
+            if (!moveNear) {
+                return buffer
+            }
+            val closest = findClosestApproachPoint(
+                tiles,
+                searchMapSize,
+                epoch,
+                localSrcX,
+                localSrcY,
+                localDestX,
+                localDestY
+            )
+            if (closest == -1) {
+                return buffer
+            }
+            currLocalX = closest and QUEUE_COORD_MASK
+            currLocalY = closest shr QUEUE_COORD_SHIFT
+        }
+        writeRoute(tiles, searchMapSize, buffer, currLocalX, currLocalY, baseX, baseY, maxTurns)
+        buffer.alternative = !pathFound
+        buffer.success = true
+        return buffer
+    }
+
+    /*
+     * Routes a size 1 source to the same tile [findClosestApproachPoint] picks
+     * after a search that visited every reachable tile, without having to
+     * visit them all: tiles are expanded towards the area around the
+     * destination it picks from, until the [candidates] tiles of that area
+     * the source may reach have all been expanded, or no tile left can be
+     * reached in fewer steps than it looks at.
+     */
+    internal fun findClosestApproach(
+        buffer: RouteBuffer,
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        candidates: Int,
+        maxTurns: Int,
+        collision: CollisionStrategy
+    ): RouteBuffer {
+        buffer.clear()
+        buffer.srcX = srcX
+        buffer.srcY = srcY
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val localSrcX = srcX - baseX
+        val localSrcY = srcY - baseY
+        val localDestX = destX - baseX
+        val localDestY = destY - baseY
+        approach(flags, localSrcX, localSrcY, localDestX, localDestY, candidates, collision)
+        val closest = findClosestApproachPoint(
+            tiles,
+            searchMapSize,
+            epoch,
+            localSrcX,
+            localSrcY,
+            localDestX,
+            localDestY
+        )
+        if (closest == -1) {
+            return buffer
+        }
+        val localX = closest and QUEUE_COORD_MASK
+        val localY = closest shr QUEUE_COORD_SHIFT
+        writeRoute(tiles, searchMapSize, buffer, localX, localY, baseX, baseY, maxTurns)
+        buffer.alternative = true
+        buffer.success = true
+        return buffer
+    }
+
+    private fun mapFlags(collisionMap: CollisionMap, level: Int, srcX: Int, srcY: Int): FlagView {
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val flags = mapFlags ?: CollisionMapFlagView(collisionMap, level, baseX, baseY).also { mapFlags = it }
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        return flags
+    }
+
+    private fun search(
+        flags: FlagView,
+        localSrcX: Int,
+        localSrcY: Int,
+        localDestX: Int,
+        localDestY: Int,
+        srcSize: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        reset()
+        reachArea.set(localDestX, localDestY, srcSize, destWidth, destHeight, objShape)
+        var estimate = reachArea.distance(localSrcX, localSrcY)
+        setNextValidLocalCoords(localSrcX, localSrcY, DEFAULT_SRC_DIRECTION_VALUE, 0, estimate)
+        var queued = 1
+        val bucketLength = searchMapSize * searchMapSize
+        while (queued > 0) {
+            val bucket = estimate and BUCKET_MASK
+            val size = bucketSizes[bucket]
+            if (size == 0) {
+                estimate++
+                continue
+            }
+            bucketSizes[bucket] = size - 1
+            queued--
+            val coords = buckets[(bucket * bucketLength) + size - 1].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
+
+            val distance = distance(currLocalX, currLocalY)
+            if (distance + reachArea.distance(currLocalX, currLocalY) != estimate) {
+                /* tile was queued again with a shorter distance and has already been expanded */
+                continue
+            }
+            expandedNodes++
+
+            if (reached(
+                    flags,
+                    currLocalX,
+                    currLocalY,
+                    localDestX,
+                    localDestY,
+                    destWidth,
+                    destHeight,
+                    srcSize,
+                    objRot,
+                    objShape,
+                    accessBitMask
+                )
+            ) {
+                return true
+            }
+
+            val moves = moveMask(flags, currLocalX, currLocalY, srcSize, searchMapSize, collision)
+            val nextDistance = distance + 1
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                if ((moves and (1 shl i)) == 0) {
+                    continue
+                }
+                val x = currLocalX + MOVE_OFFSET_X[i]
+                val y = currLocalY + MOVE_OFFSET_Y[i]
+                if (visited(x, y) && distance(x, y) <= nextDistance) {
+                    continue
+                }
+                val nextEstimate = nextDistance + reachArea.distance(x, y)
+                setNextValidLocalCoords(x, y, MOVE_DIRECTION_FLAG[i], nextDistance, nextEstimate)
+                queued++
+            }
+        }
+        return false
+    }
+
+    /*
+     * Tiles leave the queue in order of estimated route length, so the distance
+     * of a tile is final once it has been expanded, and any tile left in the
+     * queue is at least as far away as the estimate the search stopped at.
+     */
+    private fun approach(
+        flags: FlagView,
+        localSrcX: Int,
+        localSrcY: Int,
+        localDestX: Int,
+        localDestY: Int,
+        candidates: Int,
+        collision: CollisionStrategy
+    ) {
+        reset()
+        val range = MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION
+        reachArea.set(localDestX - range, localDestX + range, localDestY - range, localDestY + range)
+        var remaining = candidates
+        var estimate = reachArea.distance(localSrcX, localSrcY)
+        setNextValidLocalCoords(localSrcX, localSrcY, DEFAULT_SRC_DIRECTION_VALUE, 0, estimate)
+        var queued = 1
+        val bucketLength = searchMapSize * searchMapSize
+        while (queued > 0 && remaining > 0 && estimate < MAX_ALTERNATIVE_ROUTE_SEEK_RANGE) {
+            val bucket = estimate and BUCKET_MASK
+            val size = bucketSizes[bucket]
+            if (size == 0) {
+                estimate++
+                continue
+            }
+            bucketSizes[bucket] = size - 1
+            queued--
+            val coords = buckets[(bucket * bucketLength) + size - 1].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
+
+            val distance = distance(currLocalX, currLocalY)
+            val remainingDistance = reachArea.distance(currLocalX, currLocalY)
+            if (distance + remainingDistance != estimate) {
+                continue
+            }
+            expandedNodes++
+            if (remainingDistance == 0) {
+                remaining--
+            }
+
+            val moves = moveMask(flags, currLocalX, currLocalY, 1, searchMapSize, collision)
+            val nextDistance = distance + 1
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                if ((moves and (1 shl i)) == 0) {
+                    continue
+                }
+                val x = currLocalX + MOVE_OFFSET_X[i]
+                val y = currLocalY + MOVE_OFFSET_Y[i]
+                if (visited(x, y) && distance(x, y) <= nextDistance) {
+                    continue
+                }
+                val nextEstimate = nextDistance + reachArea.distance(x, y)
+                setNextValidLocalCoords(x, y, MOVE_DIRECTION_FLAG[i], nextDistance, nextEstimate)
+                queued++
+            }
+        }
+    }
+
+    private fun reset() {
+        if (epoch == MAX_EPOCH) {
+            Arrays.fill(tiles, 0)
+            epoch = 0
+        }
+        epoch++
+        Arrays.fill(bucketSizes, 0)
+        expandedNodes = 0
+    }
+
+    private fun setNextValidLocalCoords(x: Int, y: Int, direction: Int, distance: Int, estimate: Int) {
+        val pathIndex = (y * searchMapSize) + x
+        tiles[pathIndex] = (epoch shl EPOCH_SHIFT) or (distance shl DISTANCE_SHIFT) or direction
+        val bucket = estimate and BUCKET_MASK
+        val index = (bucket * searchMapSize * searchMapSize) + bucketSizes[bucket]++
+        buckets[index] = (x or (y shl QUEUE_COORD_SHIFT)).toChar()
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun visited(x: Int, y: Int): Boolean {
+        return (tiles[(y * searchMapSize) + x] ushr EPOCH_SHIFT) == epoch
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun distance(x: Int, y: Int): Int {
+        return (tiles[(y * searchMapSize) + x] ushr DISTANCE_SHIFT) and DISTANCE_MASK
+    }
+}
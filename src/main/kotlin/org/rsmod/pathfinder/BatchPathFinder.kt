@@ -0,0 +1,131 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import java.util.Arrays
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+
+/* Requests are grouped by the region of 32x32 tiles their source is in. */
+private const val REGION_SHIFT = 5
+private const val REGION_AXIS_BITS = 14 - REGION_SHIFT
+
+/*
+ * Requests of a region are split into chunks of at most this many requests,
+ * so that a busy region is still spread across workers.
+ */
+private const val MAX_CHUNK_REQUESTS = 16
+
+/**
+ * Solves a whole [PathRequestBatch] at once, spread across the workers of
+ * [executor], with the same routes [SmartPathFinder] finds for each request
+ * on its own.
+ *
+ * Requests are grouped by the region of 32x32 tiles their source is in, so
+ * that the searches of a group, which read their flags straight from
+ * [collisionMap], run one after another over mostly the same zones. Each
+ * worker thread keeps a [SmartPathFinder] of its own.
+ *
+ * Flags must not be changed through [collisionMap] while [findPaths] runs,
+ * and a batch path finder solves one batch at a time.
+ */
+public class BatchPathFinder(
+    private val collisionMap: CollisionMap,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    private val executor: ForkJoinPool = ForkJoinPool.commonPool(),
+    private val collision: CollisionStrategy = CollisionStrategies.Normal
+) {
+
+    private val finders = ThreadLocal.withInitial { SmartPathFinder(searchMapSize = searchMapSize) }
+
+    /* Requests sorted by region, packed as `region << 32 | index`, and the first of each chunk. */
+    private var order = LongArray(0)
+    private var chunkStarts = IntArray(0)
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+    }
+
+    /**
+     * Finds the route of every request of [batch] into its [PathRequestBatch.route],
+     * and returns once all of them have been found.
+     */
+    public fun findPaths(batch: PathRequestBatch) {
+        val size = batch.size
+        if (size == 0) {
+            return
+        }
+        if (order.size < size) {
+            order = LongArray(size)
+            chunkStarts = IntArray(size + 1)
+        }
+        for (i in 0 until size) {
+            order[i] = (region(batch, i).toLong() shl Int.SIZE_BITS) or i.toLong()
+        }
+        Arrays.sort(order, 0, size)
+
+        var chunkCount = 0
+        var start = 0
+        for (i in 1..size) {
+            if (i == size || region(i) != region(start) || i - start == MAX_CHUNK_REQUESTS) {
+                chunkStarts[chunkCount++] = start
+                start = i
+            }
+        }
+        chunkStarts[chunkCount] = size
+        executor.invoke(ChunkTask(batch, 0, chunkCount))
+    }
+
+    private fun solve(batch: PathRequestBatch, chunk: Int) {
+        val pf = finders.get()
+        for (k in chunkStarts[chunk] until chunkStarts[chunk + 1]) {
+            val i = order[k].toInt()
+            pf.findPath(
+                batch.routeBuffer(i),
+                collisionMap,
+                batch.level[i],
+                batch.srcX[i],
+                batch.srcY[i],
+                batch.destX[i],
+                batch.destY[i],
+                batch.srcSize[i],
+                batch.destWidth[i],
+                batch.destHeight[i],
+                batch.objRot[i],
+                batch.objShape[i],
+                batch.moveNear[i],
+                batch.accessBitMask[i],
+                batch.maxTurns[i],
+                collision
+            )
+        }
+    }
+
+    private fun region(index: Int): Int = (order[index] ushr Int.SIZE_BITS).toInt()
+
+    private fun region(batch: PathRequestBatch, index: Int): Int {
+        val regionX = (batch.srcX[index] shr REGION_SHIFT) and ((1 shl REGION_AXIS_BITS) - 1)
+        val regionY = (batch.srcY[index] shr REGION_SHIFT) and ((1 shl REGION_AXIS_BITS) - 1)
+        return (batch.level[index] shl (REGION_AXIS_BITS * 2)) or (regionX shl REGION_AXIS_BITS) or regionY
+    }
+
+    /* Splits the chunks from [from] until [to] in halves until each task is left with a single chunk. */
+    private inner class ChunkTask(
+        private val batch: PathRequestBatch,
+        private val from: Int,
+        private val to: Int
+    ) : RecursiveAction() {
+
+        override fun compute() {
+            if (to - from == 1) {
+                solve(batch, from)
+                return
+            }
+            val mid = (from + to) ushr 1
+            invokeAll(ChunkTask(batch, from, mid), ChunkTask(batch, mid, to))
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.flag.CollisionFlag
+import java.util.Arrays
+
+/* Tiles are packed 64 to a word, the lowest x in the lowest bit. */
+private const val WORD_SHIFT = 6
+private const val WORD_MASK = Long.SIZE_BITS - 1
+
+/*
+ * The flag a tile is entered with per `MOVE_` direction of a size 1 entity;
+ * size 2 entities only enter tiles with the diagonal ones.
+ */
+private val ENTER_FLAG = intArrayOf(
+    CollisionFlag.BLOCK_WEST,
+    CollisionFlag.BLOCK_EAST,
+    CollisionFlag.BLOCK_SOUTH,
+    CollisionFlag.BLOCK_NORTH,
+    CollisionFlag.BLOCK_SOUTH_WEST,
+    CollisionFlag.BLOCK_SOUTH_EAST,
+    CollisionFlag.BLOCK_NORTH_WEST,
+    CollisionFlag.BLOCK_NORTH_EAST
+)
+
+/* Bit index of each `MOVE_` direction, which [ENTER_FLAG] and the passable tiles are indexed by. */
+private const val WEST = 0
+private const val EAST = 1
+private const val SOUTH = 2
+private const val NORTH = 3
+private const val SOUTH_WEST = 4
+private const val SOUTH_EAST = 5
+private const val NORTH_WEST = 6
+private const val NORTH_EAST = 7
+
+/* Masks of the flags of [ENTER_FLAG] size 1 and size 2 entities enter tiles with. */
+private const val ENTER_ANY = 0xFF
+private const val ENTER_DIAGONAL = 0xF0
+
+/* Tiles are ordered within a wavefront by `(rank of the tile stepped from << 3) | direction`. */
+private const val RANK_SHIFT = 3
+private const val RANK_MOVE_MASK = 0x7
+
+/**
+ * Breadth-first search of a [searchMapSize] search map for size 1 and size 2
+ * entities, which keeps every row of the map in bitboards and expands whole
+ * wavefronts with shifts and masks instead of one tile at a time.
+ *
+ * Every tile of a wavefront is one step further from the source than the
+ * tiles of the one before, the same distances the queue of `SmartPathFinder`
+ * visits tiles at. Tiles within a wavefront are queued in the order of the
+ * tiles they were reached from, so the order of the tiles that matter to
+ * the route is worked out afterwards, from the end of the route back to the
+ * source; routes come out the same as the ones the queue finds.
+ */
+internal class BitboardSearch(private val searchMapSize: Int) {
+
+    private val words = (searchMapSize + WORD_MASK) ushr WORD_SHIFT
+    private val boardSize = searchMapSize * words
+    private val tileCount = searchMapSize * searchMapSize
+
+    /* Bits past the end of a row in its last word, which no tile can ever be moved onto. */
+    private val lastWordMask = if ((searchMapSize and WORD_MASK) == 0) -1L else (1L shl searchMapSize) - 1
+
+    /* Tiles that can be entered with each flag of [ENTER_FLAG]. */
+    private val enter = Array(MOVE_DIRECTION_COUNT) { LongArray(boardSize) }
+
+    /* Tiles an entity can take a step from, per `MOVE_` direction. */
+    private val passable = Array(MOVE_DIRECTION_COUNT) { LongArray(boardSize) }
+
+    private var frontier = LongArray(boardSize)
+    private var next = LongArray(boardSize)
+    private val visited = LongArray(boardSize)
+
+    /*
+     * The words of [frontier] that hold any tiles, and the words of [next]
+     * moved into; a wavefront is usually a thin ring that only crosses a few
+     * words of every row, so only those are ever looked at.
+     */
+    private var frontierWords = IntArray(boardSize)
+    private var nextWords = IntArray(boardSize)
+    private var frontierWordCount = 0
+    private var nextWordCount = 0
+    private val wordStamps = IntArray(boardSize)
+    private var stamp = 0
+
+    /* The flags of the row of tiles [enter] is being filled in for. */
+    private val rowFlags = IntArray(searchMapSize)
+
+    /* The flags of [ENTER_FLAG] a tile without any flags can be entered with. */
+    private var emptyEntries = 0
+
+    /* Tiles the route can pass through, listed from the end of the route back to the source. */
+    private val cone = LongArray(boardSize)
+    private val coneTiles = IntArray(tileCount)
+    private val segmentStarts = IntArray(tileCount + 2)
+    private val ranks = IntArray(tileCount)
+    private val order = LongArray(tileCount)
+
+    private val area = ReachArea()
+
+    private lateinit var flags: FlagView
+    private lateinit var collision: CollisionStrategy
+    private var srcSize = 1
+
+    /* Rows of [enter] and [passable] filled in for the current search. */
+    private var enterMinY = 0
+    private var enterMaxY = -1
+    private var passableMinY = 0
+    private var passableMaxY = -1
+
+    /**
+     * Searches from local [srcX], [srcY] until the wavefront reaches the
+     * destination or runs out of tiles, filling in the distance of every tile
+     * it visits in [tiles] and the direction of every tile of the route to
+     * the destination.
+     *
+     * Returns the tile the destination was reached from packed as
+     * `x | (y << 8)`, or -1 if it could not be reached.
+     */
+    fun search(
+        tiles: IntArray,
+        epoch: Int,
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Int {
+        prepare(flags, srcSize, collision, srcY)
+        Arrays.fill(visited, 0)
+        val srcIndex = (srcY * words) + (srcX ushr WORD_SHIFT)
+        frontier[srcIndex] = 1L shl srcX
+        visited[srcIndex] = 1L shl srcX
+        frontierWords[0] = srcIndex
+        frontierWordCount = 1
+        if (reached(flags, srcX, srcY, destX, destY, destWidth, destHeight, srcSize, objRot, objShape, accessBitMask)) {
+            return srcX or (srcY shl QUEUE_COORD_SHIFT)
+        }
+
+        area.set(destX, destY, srcSize, destWidth, destHeight, objShape)
+        val reachMinX = maxOf(area.minX, 0)
+        val reachMaxX = minOf(area.maxX, searchMapSize - 1)
+        val reachMinY = maxOf(area.minY, 0)
+        val reachMaxY = minOf(area.maxY, searchMapSize - 1)
+
+        var minY = srcY
+        var maxY = srcY
+        var distance = 0
+        while (true) {
+            distance++
+            ensureRows(minY, maxY)
+            expand()
+
+            /* keep the tiles not visited before, and record their distance */
+            minY = searchMapSize
+            maxY = -1
+            var wordCount = 0
+            var reachedCount = 0
+            val entry = (epoch shl EPOCH_SHIFT) or (distance shl DISTANCE_SHIFT)
+            for (k in 0 until nextWordCount) {
+                val index = nextWords[k]
+                var bits = next[index] and visited[index].inv()
+                if (bits == 0L) {
+                    continue
+                }
+                next[index] = bits
+                visited[index] = visited[index] or bits
+                nextWords[wordCount++] = index
+                val y = index / words
+                minY = minOf(minY, y)
+                maxY = maxOf(maxY, y)
+                val start = (index - (y * words)) shl WORD_SHIFT
+                val reachRow = y in reachMinY..reachMaxY
+                while (bits != 0L) {
+                    val x = start + bits.countTrailingZeroBits()
+                    bits = bits and (bits - 1)
+                    tiles[(y * searchMapSize) + x] = entry
+                    if (reachRow && x in reachMinX..reachMaxX && reached(
+                            flags,
+                            x,
+                            y,
+                            destX,
+                            destY,
+                            destWidth,
+                            destHeight,
+                            srcSize,
+                            objRot,
+                            objShape,
+                            accessBitMask
+                        )
+                    ) {
+                        coneTiles[reachedCount++] = x or (y shl QUEUE_COORD_SHIFT)
+                    }
+                }
+            }
+            if (reachedCount > 0) {
+                return trace(tiles, epoch, reachedCount)
+            }
+            if (wordCount == 0) {
+                return -1
+            }
+            val swap = frontier
+            frontier = next
+            next = swap
+            val swapWords = frontierWords
+            frontierWords = nextWords
+            nextWords = swapWords
+            frontierWordCount = wordCount
+        }
+    }
+
+    /**
+     * Fills in the direction of every tile of the route from the source of
+     * the last search to local [x], [y], a tile it visited.
+     */
+    fun trace(tiles: IntArray, epoch: Int, x: Int, y: Int) {
+        coneTiles[0] = x or (y shl QUEUE_COORD_SHIFT)
+        trace(tiles, epoch, 1)
+    }
+
+    /**
+     * Returns the `MOVE_` directions a [srcSize] entity with its south-west
+     * tile on local [x], [y] can step towards; the rows around [y] have to
+     * be filled in with [ensureRows] first.
+     */
+    fun moves(x: Int, y: Int): Int {
+        var mask = 0
+        for (i in 0 until MOVE_DIRECTION_COUNT) {
+            if (passable[i].contains(x, y)) {
+                mask = mask or (1 shl i)
+            }
+        }
+        return mask
+    }
+
+    fun prepare(flags: FlagView, srcSize: Int, collision: CollisionStrategy, srcY: Int) {
+        this.flags = flags
+        this.srcSize = srcSize
+        this.collision = collision
+        emptyEntries = entries(0)
+        enterMinY = srcY
+        enterMaxY = srcY - 1
+        passableMinY = srcY
+        passableMaxY = srcY - 1
+    }
+
+    /*
+     * Fills in the rows of [passable] from [minY] to [maxY], and the rows of
+     * [enter] they are worked out from. Flags are only read for the rows the
+     * wavefront gets close to, which grow by a row at most per wavefront.
+     */
+    fun ensureRows(minY: Int, maxY: Int) {
+        if (minY >= passableMinY && maxY <= passableMaxY) {
+            return
+        }
+        val enterMinY = maxOf(minY - 1, 0)
+        val enterMaxY = minOf(maxY + 2, searchMapSize - 1)
+        for (y in enterMinY..enterMaxY) {
+            if (y !in this.enterMinY..this.enterMaxY) {
+                fillEnterRow(y)
+            }
+        }
+        this.enterMinY = minOf(this.enterMinY, enterMinY)
+        this.enterMaxY = maxOf(this.enterMaxY, enterMaxY)
+        for (y in minY..maxY) {
+            if (y !in passableMinY..passableMaxY) {
+                if (srcSize == 1) fillPassableRow1(y) else fillPassableRow2(y)
+            }
+        }
+        passableMinY = minOf(passableMinY, minY)
+        passableMaxY = maxOf(passableMaxY, maxY)
+    }
+
+    /*
+     * Most words of a row hold no flags at all, which can be entered with
+     * the same flags of [ENTER_FLAG] throughout. The tiles of the others
+     * mostly share a handful of flags, so the flags a tile can be entered
+     * with are only worked out again when the flag changes, and only the
+     * tiles that block some of them are touched.
+     */
+    private fun fillEnterRow(y: Int) {
+        val row = y * words
+        val required = if (srcSize == 1) ENTER_ANY else ENTER_DIAGONAL
+        val flags = rowFlags
+        this.flags.copyRow(y, searchMapSize, flags)
+        var lastFlag = 0
+        var lastEntries = emptyEntries
+        for (w in 0 until words) {
+            val index = row + w
+            val start = w shl WORD_SHIFT
+            val end = minOf(start + Long.SIZE_BITS, searchMapSize)
+            val tiles = if (w == words - 1) lastWordMask else -1L
+            var any = 0
+            for (x in start until end) {
+                any = any or flags[x]
+            }
+            if (any == 0) {
+                for (i in 0 until MOVE_DIRECTION_COUNT) {
+                    val entered = (required and (1 shl i)) == 0 || (emptyEntries and (1 shl i)) != 0
+                    enter[i][index] = if (entered) tiles else 0L
+                }
+                continue
+            }
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                enter[i][index] = tiles
+            }
+            for (x in start until end) {
+                val flag = flags[x]
+                if (flag != lastFlag) {
+                    lastFlag = flag
+                    lastEntries = entries(flag)
+                }
+                var blocked = lastEntries.inv() and required
+                while (blocked != 0) {
+                    val i = blocked.countTrailingZeroBits()
+                    blocked = blocked and (blocked - 1)
+                    enter[i][index] = enter[i][index] and (1L shl x).inv()
+                }
+            }
+        }
+    }
+
+    /* Returns a mask of the flags of [ENTER_FLAG] a tile with [flag] can be entered with. */
+    private fun entries(flag: Int): Int {
+        var mask = 0
+        for (i in 0 until MOVE_DIRECTION_COUNT) {
+            if (collision.canMove(flag, ENTER_FLAG[i])) {
+                mask = mask or (1 shl i)
+            }
+        }
+        return mask
+    }
+
+    /* The same rules as the size 1 kernel of `SmartPathFinder`, a row of tiles at a time. */
+    private fun fillPassableRow1(y: Int) {
+        val row = y * words
+        for (w in 0 until words) {
+            val mask = if (w == words - 1) lastWordMask else -1L
+            val west = enter[WEST].bits(y, w, -1) and mask
+            val east = enter[EAST].bits(y, w, 1) and mask
+            val south = enter[SOUTH].bits(y - 1, w, 0)
+            val north = enter[NORTH].bits(y + 1, w, 0)
+            passable[WEST][row + w] = west
+            passable[EAST][row + w] = east
+            passable[SOUTH][row + w] = south
+            passable[NORTH][row + w] = north
+            passable[SOUTH_WEST][row + w] = west and south and enter[SOUTH_WEST].bits(y - 1, w, -1)
+            passable[SOUTH_EAST][row + w] = east and south and enter[SOUTH_EAST].bits(y - 1, w, 1)
+            passable[NORTH_WEST][row + w] = west and north and enter[NORTH_WEST].bits(y + 1, w, -1)
+            passable[NORTH_EAST][row + w] = east and north and enter[NORTH_EAST].bits(y + 1, w, 1)
+        }
+    }
+
+    /* The same rules as the size 2 kernel of `SmartPathFinder`, a row of tiles at a time. */
+    private fun fillPassableRow2(y: Int) {
+        val row = y * words
+        val southWest = enter[SOUTH_WEST]
+        val southEast = enter[SOUTH_EAST]
+        val northWest = enter[NORTH_WEST]
+        val northEast = enter[NORTH_EAST]
+        for (w in 0 until words) {
+            val mask = if (w == words - 1) lastWordMask else -1L
+            passable[WEST][row + w] = southWest.bits(y, w, -1) and northWest.bits(y + 1, w, -1) and mask
+            passable[EAST][row + w] = southEast.bits(y, w, 2) and northEast.bits(y + 1, w, 2)
+            passable[SOUTH][row + w] = southWest.bits(y - 1, w, 0) and southEast.bits(y - 1, w, 1)
+            passable[NORTH][row + w] = northWest.bits(y + 2, w, 0) and northEast.bits(y + 2, w, 1)
+            passable[SOUTH_WEST][row + w] = northWest.bits(y, w, -1) and
+                southWest.bits(y - 1, w, -1) and southEast.bits(y - 1, w, 0) and mask
+            passable[SOUTH_EAST][row + w] = southWest.bits(y - 1, w, 1) and
+                southEast.bits(y - 1, w, 2) and northEast.bits(y, w, 2)
+            passable[NORTH_WEST][row + w] = southWest.bits(y + 1, w, -1) and
+                northWest.bits(y + 2, w, -1) and northEast.bits(y + 2, w, 0) and mask
+            passable[NORTH_EAST][row + w] = northWest.bits(y + 2, w, 1) and
+                northEast.bits(y + 2, w, 2) and southEast.bits(y + 1, w, 2)
+        }
+    }
+
+    /* Moves every tile of the frontier one step in every direction it can take. */
+    private fun expand() {
+        if (stamp == Int.MAX_VALUE) {
+            Arrays.fill(wordStamps, 0)
+            stamp = 0
+        }
+        stamp++
+        nextWordCount = 0
+        val frontier = frontier
+        val passableWest = passable[WEST]
+        val passableEast = passable[EAST]
+        val passableSouth = passable[SOUTH]
+        val passableNorth = passable[NORTH]
+        val passableSouthWest = passable[SOUTH_WEST]
+        val passableSouthEast = passable[SOUTH_EAST]
+        val passableNorthWest = passable[NORTH_WEST]
+        val passableNorthEast = passable[NORTH_EAST]
+        for (k in 0 until frontierWordCount) {
+            val index = frontierWords[k]
+            val tiles = frontier[index]
+            val w = index % words
+            val first = w == 0
+            val last = w == words - 1
+
+            /* tiles are only ever moved across words, or rows, where the move stays within the map */
+            val west = tiles and passableWest[index]
+            val east = tiles and passableEast[index]
+            move(index, (west ushr 1) or (east shl 1))
+            if (!first) move(index - 1, west shl WORD_MASK)
+            if (!last) move(index + 1, east ushr WORD_MASK)
+
+            val south = tiles and passableSouth[index]
+            val southWest = tiles and passableSouthWest[index]
+            val southEast = tiles and passableSouthEast[index]
+            if ((south or southWest or southEast) != 0L) {
+                val below = index - words
+                move(below, south or (southWest ushr 1) or (southEast shl 1))
+                if (!first) move(below - 1, southWest shl WORD_MASK)
+                if (!last) move(below + 1, southEast ushr WORD_MASK)
+            }
+
+            val north = tiles and passableNorth[index]
+            val northWest = tiles and passableNorthWest[index]
+            val northEast = tiles and passableNorthEast[index]
+            if ((north or northWest or northEast) != 0L) {
+                val above = index + words
+                move(above, north or (northWest ushr 1) or (northEast shl 1))
+                if (!first) move(above - 1, northWest shl WORD_MASK)
+                if (!last) move(above + 1, northEast ushr WORD_MASK)
+            }
+        }
+    }
+
+    /* Adds [tiles] to word [index] of the next wavefront, which starts out empty the first time it is moved into. */
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun move(index: Int, tiles: Long) {
+        if (tiles == 0L) {
+            return
+        }
+        if (wordStamps[index] != stamp) {
+            wordStamps[index] = stamp
+            next[index] = tiles
+            nextWords[nextWordCount++] = index
+        } else {
+            next[index] = next[index] or tiles
+        }
+    }
+
+    /*
+     * The queue of `SmartPathFinder` visits every tile from the first tile
+     * of the wavefront before it that can step onto it, trying directions in
+     * `MOVE_` order; tiles then sit in the queue in that same order. Only the
+     * order of the tiles a route to the first [count] entries of [coneTiles]
+     * can pass through matters, so those are collected wavefront by wavefront
+     * towards the source, and then put in queue order from the source back
+     * out to the end of the route, the earliest of the entries.
+     */
+    private fun trace(tiles: IntArray, epoch: Int, count: Int): Int {
+        Arrays.fill(cone, 0)
+        for (k in 0 until count) {
+            cone.add(coneTiles[k] and QUEUE_COORD_MASK, coneTiles[k] shr QUEUE_COORD_SHIFT)
+        }
+        val length = tiles.distance(coneTiles[0] and QUEUE_COORD_MASK, coneTiles[0] shr QUEUE_COORD_SHIFT)
+
+        /* segment `s` of the list holds the tiles `length - s` steps away from the source */
+        var end = count
+        segmentStarts[0] = 0
+        for (segment in 0 until length) {
+            val segmentEnd = end
+            for (k in segmentStarts[segment] until segmentEnd) {
+                val x = coneTiles[k] and QUEUE_COORD_MASK
+                val y = coneTiles[k] shr QUEUE_COORD_SHIFT
+                for (i in 0 until MOVE_DIRECTION_COUNT) {
+                    val fromX = x - MOVE_OFFSET_X[i]
+                    val fromY = y - MOVE_OFFSET_Y[i]
+                    if (steppedFrom(tiles, epoch, fromX, fromY, i, length - segment - 1) &&
+                        !cone.contains(fromX, fromY)
+                    ) {
+                        cone.add(fromX, fromY)
+                        coneTiles[end++] = fromX or (fromY shl QUEUE_COORD_SHIFT)
+                    }
+                }
+            }
+            segmentStarts[segment + 1] = segmentEnd
+        }
+        segmentStarts[length + 1] = end
+
+        val src = coneTiles[segmentStarts[length]]
+        ranks[((src shr QUEUE_COORD_SHIFT) * searchMapSize) + (src and QUEUE_COORD_MASK)] = 0
+        for (segment in length - 1 downTo 0) {
+            val distance = length - segment
+            val from = segmentStarts[segment]
+            val to = segmentStarts[segment + 1]
+            for (k in from until to) {
+                val x = coneTiles[k] and QUEUE_COORD_MASK
+                val y = coneTiles[k] shr QUEUE_COORD_SHIFT
+                var key = Int.MAX_VALUE
+                for (i in 0 until MOVE_DIRECTION_COUNT) {
+                    val fromX = x - MOVE_OFFSET_X[i]
+                    val fromY = y - MOVE_OFFSET_Y[i]
+                    if (steppedFrom(tiles, epoch, fromX, fromY, i, distance - 1)) {
+                        key = minOf(key, (ranks[(fromY * searchMapSize) + fromX] shl RANK_SHIFT) or i)
+                    }
+                }
+                val index = (y * searchMapSize) + x
+                tiles[index] = (tiles[index] and DIRECTION_MASK.inv()) or MOVE_DIRECTION_FLAG[key and RANK_MOVE_MASK]
+                order[k - from] = (key.toLong() shl Int.SIZE_BITS) or index.toLong()
+            }
+            Arrays.sort(order, 0, to - from)
+            for (k in 0 until to - from) {
+                ranks[order[k].toInt()] = k
+            }
+        }
+        /* the last segment sorted holds the entries, the earliest of which is where the route ends */
+        val index = order[0].toInt()
+        return (index % searchMapSize) or ((index / searchMapSize) shl QUEUE_COORD_SHIFT)
+    }
+
+    private fun steppedFrom(tiles: IntArray, epoch: Int, x: Int, y: Int, move: Int, distance: Int): Boolean {
+        if (x !in 0 until searchMapSize || y !in 0 until searchMapSize) {
+            return false
+        }
+        val tile = tiles[(y * searchMapSize) + x]
+        return (tile ushr EPOCH_SHIFT) == epoch && ((tile ushr DISTANCE_SHIFT) and DISTANCE_MASK) == distance &&
+            passable[move].contains(x, y)
+    }
+
+    private fun IntArray.distance(x: Int, y: Int): Int {
+        return (this[(y * searchMapSize) + x] ushr DISTANCE_SHIFT) and DISTANCE_MASK
+    }
+
+    private fun LongArray.contains(x: Int, y: Int): Boolean {
+        return ((this[(y * words) + (x ushr WORD_SHIFT)] ushr x) and 1L) != 0L
+    }
+
+    private fun LongArray.add(x: Int, y: Int) {
+        val index = (y * words) + (x ushr WORD_SHIFT)
+        this[index] = this[index] or (1L shl x)
+    }
+
+    /*
+     * Returns the tiles of word [w] of row [y], each bit holding the one [dx]
+     * tiles east of it; rows outside of the search map hold no tiles.
+     */
+    private fun LongArray.bits(y: Int, w: Int, dx: Int): Long {
+        if (y !in 0 until searchMapSize) {
+            return 0
+        }
+        val index = (y * words) + w
+        return when {
+            dx > 0 -> {
+                val high = if (w + 1 < words) this[index + 1] shl (Long.SIZE_BITS - dx) else 0L
+                (this[index] ushr dx) or high
+            }
+            dx < 0 -> {
+                val low = if (w > 0) this[index - 1] ushr (Long.SIZE_BITS + dx) else 0L
+                (this[index] shl -dx) or low
+            }
+            else -> this[index]
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.flag.CollisionFlag
+
+/* Clearances are stored in a byte each, which is plenty for any entity size. */
+private const val MAX_CLEARANCE = 0xFF
+
+/**
+ * Holds, for every tile of an area on one level of a [CollisionMap], how
+ * many tiles in a row to the north of it, and to the east of it, can be
+ * crossed by the inner tiles of an edge of a larger entity under [collision].
+ *
+ * Entities larger than two tiles check every tile along their leading edge
+ * on every step they take. Each kind of edge comes with its own wall flags,
+ * so a clearance is kept per kind of edge, and the whole inner edge of any
+ * size of entity is checked by comparing a single clearance against it.
+ *
+ * Clearances are computed for the whole area up front, and recomputed along
+ * the row and column of any flag that changes through [collisionMap]
+ * afterwards; [close] stops listening for those changes.
+ */
+public class ClearanceMap(
+    private val collisionMap: CollisionMap,
+    public val level: Int,
+    public val baseX: Int,
+    public val baseY: Int,
+    public val width: Int,
+    public val height: Int,
+    public val collision: CollisionStrategy = CollisionStrategies.Normal
+) : AutoCloseable {
+
+    /* Northward clearances of the edges entities move west, east and south-west with. */
+    private val westColumns = ByteArray(width * height)
+    private val eastColumns = ByteArray(width * height)
+    private val southWestColumns = ByteArray(width * height)
+
+    /* Eastward clearances of the edges entities move south and north with. */
+    private val southRows = ByteArray(width * height)
+    private val northRows = ByteArray(width * height)
+
+    private val listener = CollisionMapListener { x, y, level -> update(x, y, level) }
+
+    init {
+        require(width > 0 && height > 0) {
+            "Area must be at least one tile wide and high"
+        }
+        for (x in 0 until width) {
+            updateColumn(x, height - 1, stopWhenUnchanged = false)
+        }
+        for (y in 0 until height) {
+            updateRow(width - 1, y, stopWhenUnchanged = false)
+        }
+        collisionMap.addListener(listener)
+    }
+
+    /**
+     * Returns how many tiles, starting at [x], [y] and going north, can all be
+     * moved through with [clipFlag]; [clipFlag] has to be one of the flags the
+     * inner column of an entity edge is checked with.
+     */
+    internal fun column(clipFlag: Int, x: Int, y: Int): Int {
+        val clearances = when (clipFlag) {
+            CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST -> westColumns
+            CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST -> eastColumns
+            else -> southWestColumns
+        }
+        return clearances[((y - baseY) * width) + x - baseX].toInt() and MAX_CLEARANCE
+    }
+
+    /**
+     * Returns how many tiles, starting at [x], [y] and going east, can all be
+     * moved through with [clipFlag]; [clipFlag] has to be one of the flags the
+     * inner row of an entity edge is checked with.
+     */
+    internal fun row(clipFlag: Int, x: Int, y: Int): Int {
+        val clearances = when (clipFlag) {
+            CollisionFlag.BLOCK_NORTH_EAST_AND_WEST -> southRows
+            else -> northRows
+        }
+        return clearances[((y - baseY) * width) + x - baseX].toInt() and MAX_CLEARANCE
+    }
+
+    /**
+     * Returns true if the clearances of this map were computed from
+     * [collisionMap] with [collision] on [level], and cover every tile from
+     * [minX], [minY] to [maxX], [maxY].
+     */
+    internal fun covers(
+        collisionMap: CollisionMap,
+        level: Int,
+        collision: CollisionStrategy,
+        minX: Int,
+        minY: Int,
+        maxX: Int,
+        maxY: Int
+    ): Boolean {
+        return collisionMap === this.collisionMap && level == this.level && collision == this.collision &&
+            minX >= baseX && minY >= baseY && maxX < baseX + width && maxY < baseY + height
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private fun update(x: Int, y: Int, level: Int) {
+        val localX = x - baseX
+        val localY = y - baseY
+        if (level != this.level || localX !in 0 until width || localY !in 0 until height) {
+            return
+        }
+        updateColumn(localX, localY, stopWhenUnchanged = true)
+        updateRow(localX, localY, stopWhenUnchanged = true)
+    }
+
+    /*
+     * A clearance only depends on the tiles north of it, so the column is
+     * recomputed from the changed tile southwards, up to the first clearance
+     * that stays the same; the rows work the same way from east to west.
+     */
+    private fun updateColumn(localX: Int, localY: Int, stopWhenUnchanged: Boolean) {
+        var westClearance = if (localY + 1 < height) westColumns.clearance(localX, localY + 1) else 0
+        var eastClearance = if (localY + 1 < height) eastColumns.clearance(localX, localY + 1) else 0
+        var southWestClearance = if (localY + 1 < height) southWestColumns.clearance(localX, localY + 1) else 0
+        for (y in localY downTo 0) {
+            val flag = collisionMap[baseX + localX, baseY + y, level]
+            westClearance = nextClearance(flag, CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST, westClearance)
+            eastClearance = nextClearance(flag, CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST, eastClearance)
+            southWestClearance = nextClearance(flag, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, southWestClearance)
+            val index = (y * width) + localX
+            if (stopWhenUnchanged && y < localY && westColumns[index] == westClearance.toByte() &&
+                eastColumns[index] == eastClearance.toByte() &&
+                southWestColumns[index] == southWestClearance.toByte()
+            ) {
+                break
+            }
+            westColumns[index] = westClearance.toByte()
+            eastColumns[index] = eastClearance.toByte()
+            southWestColumns[index] = southWestClearance.toByte()
+        }
+    }
+
+    private fun updateRow(localX: Int, localY: Int, stopWhenUnchanged: Boolean) {
+        var southClearance = if (localX + 1 < width) southRows.clearance(localX + 1, localY) else 0
+        var northClearance = if (localX + 1 < width) northRows.clearance(localX + 1, localY) else 0
+        for (x in localX downTo 0) {
+            val flag = collisionMap[baseX + x, baseY + localY, level]
+            southClearance = nextClearance(flag, CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, southClearance)
+            northClearance = nextClearance(flag, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, northClearance)
+            val index = (localY * width) + x
+            if (stopWhenUnchanged && x < localX && southRows[index] == southClearance.toByte() &&
+                northRows[index] == northClearance.toByte()
+            ) {
+                break
+            }
+            southRows[index] = southClearance.toByte()
+            northRows[index] = northClearance.toByte()
+        }
+    }
+
+    private fun nextClearance(flag: Int, clipFlag: Int, clearance: Int): Int {
+        return if (collision.canMove(flag, clipFlag)) minOf(clearance + 1, MAX_CLEARANCE) else 0
+    }
+
+    private fun ByteArray.clearance(localX: Int, localY: Int): Int {
+        return this[(localY * width) + localX].toInt() and MAX_CLEARANCE
+    }
+}
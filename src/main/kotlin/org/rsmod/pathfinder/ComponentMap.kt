@@ -0,0 +1,349 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+
+private const val CHUNK_SIZE = 64
+private const val CHUNK_TILE_COUNT = CHUNK_SIZE * CHUNK_SIZE
+
+/* Border unions keep each side as `(chunk << 12) | label`; chunks never have more labels than tiles. */
+private const val UNION_CHUNK_SHIFT = 12
+private const val UNION_LABEL_MASK = (1 shl UNION_CHUNK_SHIFT) - 1
+private const val DEFAULT_BORDER_UNION_CAPACITY = 64
+
+/**
+ * Labels the tiles of an area on one level of a [CollisionMap] with the
+ * connected component they belong to for size 1 entities, so that a path
+ * finder can tell straight away that a destination can not be reached.
+ *
+ * Two neighbouring tiles share a component when a step from one onto the
+ * other is possible, in either direction. Tiles that can not be stepped onto
+ * from any of their neighbours, such as the tiles under a wall, are left out
+ * of every component, as nothing can walk onto them to step off of them.
+ * Tiles in different components can therefore never be walked between, while
+ * tiles in the same component usually, but not always, can.
+ *
+ * The area is labelled in chunks of 64x64 tiles, which are joined up with a
+ * union-find over the components of every chunk. After flags change through
+ * [collisionMap], only the chunks they are in are labelled again, and only
+ * the borders of those chunks are checked again, the next time a component is
+ * looked up; [close] stops listening for those changes.
+ */
+public class ComponentMap(
+    private val collisionMap: CollisionMap,
+    public val level: Int,
+    public val baseX: Int,
+    public val baseY: Int,
+    public val width: Int,
+    public val height: Int,
+    public val collision: CollisionStrategy = CollisionStrategies.Normal
+) : AutoCloseable {
+
+    private val chunkColumns = (width + CHUNK_SIZE - 1) / CHUNK_SIZE
+    private val chunkRows = (height + CHUNK_SIZE - 1) / CHUNK_SIZE
+    private val chunkLabels = Array(chunkColumns * chunkRows) { IntArray(CHUNK_TILE_COUNT) }
+    private val chunkLabelCounts = IntArray(chunkColumns * chunkRows)
+    private val chunkLabelOffsets = IntArray(chunkColumns * chunkRows)
+    private val dirtyChunks = BooleanArray(chunkColumns * chunkRows) { true }
+    private var dirty = true
+
+    /* Union-find over the components of every chunk, indexed by offset of the chunk plus its own label. */
+    private var parents = IntArray(0)
+
+    /*
+     * Pairs of components joined across the east and north borders of every
+     * chunk, kept until a chunk on either side of the border is labelled again
+     * so that the union-find can be rebuilt without checking every border.
+     */
+    private val borderUnions = Array(chunkColumns * chunkRows) { IntArray(DEFAULT_BORDER_UNION_CAPACITY) }
+    private val borderUnionCounts = IntArray(chunkColumns * chunkRows)
+    private val staleBorders = BooleanArray(chunkColumns * chunkRows)
+    private val chunkParents = IntArray(CHUNK_TILE_COUNT)
+    private val chunkSealed = BooleanArray(CHUNK_TILE_COUNT)
+
+    private val chunkFlags = CollisionMapFlagView(collisionMap, level, 0, 0)
+    private val crossFlags = CollisionMapFlagView(collisionMap, level, 0, 0)
+    private val listener = CollisionMapListener { x, y, level -> invalidate(x, y, level) }
+
+    init {
+        require(width > 0 && height > 0) {
+            "Area must be at least one tile wide and high"
+        }
+        collisionMap.addListener(listener)
+    }
+
+    /**
+     * Returns the component of the tile at [x], [y], or -1 if it lies outside
+     * of the area or can not be stepped onto. Component numbers are only
+     * meaningful compared to one another, and may change whenever flags inside
+     * of the area change.
+     */
+    public fun component(x: Int, y: Int): Int {
+        val localX = x - baseX
+        val localY = y - baseY
+        if (localX !in 0 until width || localY !in 0 until height) {
+            return -1
+        }
+        if (dirty) {
+            rebuild()
+        }
+        val label = label(localX, localY)
+        return if (label == -1) -1 else parents.root(label)
+    }
+
+    /**
+     * Returns true if the tiles of this map were labelled from [collisionMap]
+     * with [collision] on [level], and cover every tile from [minX], [minY]
+     * to [maxX], [maxY].
+     */
+    internal fun covers(
+        collisionMap: CollisionMap,
+        level: Int,
+        collision: CollisionStrategy,
+        minX: Int,
+        minY: Int,
+        maxX: Int,
+        maxY: Int
+    ): Boolean {
+        return collisionMap === this.collisionMap && level == this.level && collision == this.collision &&
+            minX >= baseX && minY >= baseY && maxX < baseX + width && maxY < baseY + height
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private fun invalidate(x: Int, y: Int, level: Int) {
+        val localX = x - baseX
+        val localY = y - baseY
+        if (level != this.level || localX !in 0 until width || localY !in 0 until height) {
+            return
+        }
+        /*
+         * The flags of a tile decide whether its neighbours can be stepped onto
+         * diagonally, so the chunks they are in are labelled again as well.
+         */
+        for (tileX in maxOf(localX - 1, 0)..minOf(localX + 1, width - 1)) {
+            for (tileY in maxOf(localY - 1, 0)..minOf(localY + 1, height - 1)) {
+                dirtyChunks[chunkIndex(tileX, tileY)] = true
+            }
+        }
+        dirty = true
+    }
+
+    private fun rebuild() {
+        var count = 0
+        for (chunk in chunkLabels.indices) {
+            if (dirtyChunks[chunk]) {
+                labelChunk(chunk)
+            }
+            chunkLabelOffsets[chunk] = count
+            count += chunkLabelCounts[chunk]
+        }
+        /*
+         * Borders joined by a chunk reach into the chunks around it, so every
+         * chunk next to one labelled again has its borders checked again.
+         */
+        for (chunk in chunkLabels.indices) {
+            if (!dirtyChunks[chunk]) {
+                continue
+            }
+            dirtyChunks[chunk] = false
+            val column = chunk % chunkColumns
+            val row = chunk / chunkColumns
+            for (neighbourColumn in maxOf(column - 1, 0)..minOf(column + 1, chunkColumns - 1)) {
+                for (neighbourRow in maxOf(row - 1, 0)..minOf(row + 1, chunkRows - 1)) {
+                    staleBorders[(neighbourRow * chunkColumns) + neighbourColumn] = true
+                }
+            }
+        }
+        if (parents.size < count) {
+            parents = IntArray(count)
+        }
+        for (i in 0 until count) {
+            parents[i] = i
+        }
+        for (chunk in chunkLabels.indices) {
+            if (staleBorders[chunk]) {
+                joinChunk(chunk)
+                staleBorders[chunk] = false
+            }
+            val unions = borderUnions[chunk]
+            for (i in 0 until borderUnionCounts[chunk] step 2) {
+                parents.union(componentIndex(unions[i]), componentIndex(unions[i + 1]))
+            }
+        }
+        dirty = false
+    }
+
+    private fun labelChunk(chunk: Int) {
+        val originX = (chunk % chunkColumns) * CHUNK_SIZE
+        val originY = (chunk / chunkColumns) * CHUNK_SIZE
+        val chunkWidth = minOf(CHUNK_SIZE, width - originX)
+        val chunkHeight = minOf(CHUNK_SIZE, height - originY)
+        chunkFlags.baseX = baseX + originX
+        chunkFlags.baseY = baseY + originY
+        for (i in chunkParents.indices) {
+            chunkParents[i] = i
+        }
+        for (y in 0 until chunkHeight) {
+            for (x in 0 until chunkWidth) {
+                chunkSealed[(y * CHUNK_SIZE) + x] = sealed(originX + x, originY + y)
+            }
+        }
+        for (y in 0 until chunkHeight) {
+            for (x in 0 until chunkWidth) {
+                val index = (y * CHUNK_SIZE) + x
+                if (x + 1 < chunkWidth) {
+                    joinChunkTiles(x, y, 1, 0, index, index + 1)
+                }
+                if (y + 1 == chunkHeight) {
+                    continue
+                }
+                joinChunkTiles(x, y, 0, 1, index, index + CHUNK_SIZE)
+                if (x + 1 < chunkWidth) {
+                    joinChunkTiles(x, y, 1, 1, index, index + CHUNK_SIZE + 1)
+                }
+                if (x > 0) {
+                    joinChunkTiles(x, y, -1, 1, index, index + CHUNK_SIZE - 1)
+                }
+            }
+        }
+        /* roots are numbered first, as a root may come after the tiles that point at it */
+        val labels = chunkLabels[chunk]
+        var count = 0
+        for (y in 0 until chunkHeight) {
+            for (x in 0 until chunkWidth) {
+                val index = (y * CHUNK_SIZE) + x
+                if (!chunkSealed[index] && chunkParents.root(index) == index) {
+                    labels[index] = count++
+                }
+            }
+        }
+        for (y in 0 until chunkHeight) {
+            for (x in 0 until chunkWidth) {
+                val index = (y * CHUNK_SIZE) + x
+                labels[index] = if (chunkSealed[index]) -1 else labels[chunkParents.root(index)]
+            }
+        }
+        chunkLabelCounts[chunk] = count
+    }
+
+    /*
+     * Finds the components of a chunk that join the ones of the chunks east
+     * and north of it; the chunks west and south of it join up with it in turn.
+     */
+    private fun joinChunk(chunk: Int) {
+        borderUnionCounts[chunk] = 0
+        val originX = (chunk % chunkColumns) * CHUNK_SIZE
+        val originY = (chunk / chunkColumns) * CHUNK_SIZE
+        val endX = minOf(originX + CHUNK_SIZE, width)
+        val endY = minOf(originY + CHUNK_SIZE, height)
+        if (endX < width) {
+            for (y in originY until endY) {
+                for (dy in -1..1) {
+                    if (y + dy in 0 until height) {
+                        joinTiles(chunk, endX - 1, y, 1, dy)
+                    }
+                }
+            }
+        }
+        if (endY < height) {
+            for (x in originX until endX) {
+                for (dx in -1..1) {
+                    if (x + dx in 0 until width) {
+                        joinTiles(chunk, x, endY - 1, dx, 1)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun joinChunkTiles(x: Int, y: Int, dx: Int, dy: Int, index: Int, nextIndex: Int) {
+        if ((!chunkSealed[index] && canStep1(chunkFlags, x, y, dx, dy, CHUNK_SIZE, collision)) ||
+            (!chunkSealed[nextIndex] && canStep1(chunkFlags, x + dx, y + dy, -dx, -dy, CHUNK_SIZE, collision))
+        ) {
+            chunkParents.union(index, nextIndex)
+        }
+    }
+
+    private fun joinTiles(chunk: Int, x: Int, y: Int, dx: Int, dy: Int) {
+        val label = borderLabel(x, y)
+        val nextLabel = borderLabel(x + dx, y + dy)
+        crossFlags.baseX = baseX + x - 1
+        crossFlags.baseY = baseY + y - 1
+        if ((label != -1 && canStep1(crossFlags, 1, 1, dx, dy, 3, collision)) ||
+            (nextLabel != -1 && canStep1(crossFlags, 1 + dx, 1 + dy, -dx, -dy, 3, collision))
+        ) {
+            var unions = borderUnions[chunk]
+            val count = borderUnionCounts[chunk]
+            if (count + 2 > unions.size) {
+                unions = unions.copyOf(unions.size * 2)
+                borderUnions[chunk] = unions
+            }
+            unions[count] = label
+            unions[count + 1] = nextLabel
+            borderUnionCounts[chunk] = count + 2
+        }
+    }
+
+    /* Returns true if the tile can not be stepped onto from any of its neighbours. */
+    private fun sealed(localX: Int, localY: Int): Boolean {
+        crossFlags.baseX = baseX + localX - 1
+        crossFlags.baseY = baseY + localY - 1
+        for (dx in -1..1) {
+            for (dy in -1..1) {
+                if ((dx != 0 || dy != 0) && canStep1(crossFlags, 1 + dx, 1 + dy, -dx, -dy, 3, collision)) {
+                    return false
+                }
+            }
+        }
+        return true
+    }
+
+    private fun label(localX: Int, localY: Int): Int {
+        val chunk = chunkIndex(localX, localY)
+        val index = ((localY % CHUNK_SIZE) * CHUNK_SIZE) + (localX % CHUNK_SIZE)
+        val label = chunkLabels[chunk][index]
+        return if (label == -1) -1 else chunkLabelOffsets[chunk] + label
+    }
+
+    /* Returns the label of a tile packed together with its chunk, or -1 if it is in no component. */
+    private fun borderLabel(localX: Int, localY: Int): Int {
+        val chunk = chunkIndex(localX, localY)
+        val index = ((localY % CHUNK_SIZE) * CHUNK_SIZE) + (localX % CHUNK_SIZE)
+        val label = chunkLabels[chunk][index]
+        return if (label == -1) -1 else (chunk shl UNION_CHUNK_SHIFT) or label
+    }
+
+    private fun componentIndex(borderLabel: Int): Int {
+        return chunkLabelOffsets[borderLabel ushr UNION_CHUNK_SHIFT] + (borderLabel and UNION_LABEL_MASK)
+    }
+
+    private fun chunkIndex(localX: Int, localY: Int): Int {
+        return ((localY / CHUNK_SIZE) * chunkColumns) + (localX / CHUNK_SIZE)
+    }
+}
+
+private fun IntArray.root(index: Int): Int {
+    var i = index
+    while (this[i] != i) {
+        /* path halving: point every other node on the way at its grandparent */
+        this[i] = this[this[i]]
+        i = this[i]
+    }
+    return i
+}
+
+private fun IntArray.union(a: Int, b: Int) {
+    val rootA = root(a)
+    val rootB = root(b)
+    if (rootA < rootB) {
+        this[rootB] = rootA
+    } else if (rootB < rootA) {
+        this[rootA] = rootB
+    }
+}
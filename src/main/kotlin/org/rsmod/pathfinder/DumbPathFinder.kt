@@ -1,12 +1,19 @@
 package org.rsmod.pathfinder
 
 import org.rsmod.pathfinder.bound.reachRectangle
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
 import org.rsmod.pathfinder.collision.CollisionStrategies
 import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.collision.IntArrayFlagView
 import org.rsmod.pathfinder.flag.CollisionFlag
 
 public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE) {
 
+    private val arrayFlags = IntArrayFlagView(IntArray(0), searchMapSize)
+    private var mapFlags: CollisionMapFlagView? = null
+
     public fun findPath(
         flags: IntArray,
         srcX: Int,
@@ -17,6 +24,48 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
         destWidth: Int = 0,
         destHeight: Int = 0,
         collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        arrayFlags.flags = flags
+        return findPath(arrayFlags, srcX, srcY, destX, destY, srcSize, destWidth, destHeight, collision)
+    }
+
+    public fun findPath(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        val flags = mapFlags(collisionMap, level, srcX, srcY)
+        return findPath(flags, srcX, srcY, destX, destY, srcSize, destWidth, destHeight, collision)
+    }
+
+    private fun mapFlags(collisionMap: CollisionMap, level: Int, srcX: Int, srcY: Int): FlagView {
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val flags = mapFlags ?: CollisionMapFlagView(collisionMap, level, baseX, baseY).also { mapFlags = it }
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        return flags
+    }
+
+    public fun findPath(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        collision: CollisionStrategy = CollisionStrategies.Normal
     ): Route {
         val baseX = srcX - (searchMapSize / 2)
         val baseY = srcY - (searchMapSize / 2)
@@ -100,7 +149,7 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     }
 
     private fun reached(
-        flags: IntArray,
+        flags: FlagView,
         localSrcX: Int,
         localSrcY: Int,
         localDestX: Int,
@@ -111,7 +160,6 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     ): Boolean = if (destWidth != 0 || destHeight != 0) {
         reachRectangle(
             flags = flags,
-            mapSize = searchMapSize,
             accessBitMask = 0,
             srcX = localSrcX,
             srcY = localSrcY,
@@ -126,7 +174,7 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     }
 
     private fun Direction.isBlocked(
-        flags: IntArray,
+        flags: FlagView,
         x: Int,
         y: Int,
         srcSize: Int,
@@ -138,7 +186,7 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     }
 
     private fun Direction.isBlocked1(
-        flags: IntArray,
+        flags: FlagView,
         x: Int,
         y: Int,
         collision: CollisionStrategy
@@ -162,7 +210,7 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     }
 
     private fun Direction.isBlocked2(
-        flags: IntArray,
+        flags: FlagView,
         x: Int,
         y: Int,
         collision: CollisionStrategy
@@ -190,7 +238,7 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
     }
 
     private fun Direction.isBlockedN(
-        flags: IntArray,
+        flags: FlagView,
         x: Int,
         y: Int,
         srcSize: Int,
@@ -200,32 +248,28 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
             if (collision.canMove(flags[x, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[x + srcSize - 1, y - 1], CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
-                val clipFlag = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                (1 until srcSize - 1).any { !collision.canMove(flags[x + it, y], clipFlag) }
+                !clearRow(flags, x + 1, y, srcSize - 2, CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, collision)
             } else true
         }
         North -> {
             if (collision.canMove(flags[x, y + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
                 collision.canMove(flags[x + srcSize - 1, y + srcSize], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
-                val clipFlag = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
-                (1 until srcSize - 1).any { !collision.canMove(flags[x + it, y], clipFlag) }
+                !clearRow(flags, x + 1, y, srcSize - 2, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, collision)
             } else true
         }
         West -> {
             if (collision.canMove(flags[x - 1, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[x - 1, y + srcSize - 1], CollisionFlag.BLOCK_NORTH_WEST)
             ) {
-                val clipFlag = CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST
-                (1 until srcSize - 1).any { !collision.canMove(flags[x + it, y], clipFlag) }
+                !clearRow(flags, x + 1, y, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST, collision)
             } else true
         }
         East -> {
             if (collision.canMove(flags[x + srcSize, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
                 collision.canMove(flags[x + srcSize, y + srcSize - 1], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
-                val clipFlag = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
-                (1 until srcSize - 1).any { !collision.canMove(flags[x + it, y], clipFlag) }
+                !clearRow(flags, x + 1, y, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST, collision)
             } else true
         }
         SouthWest -> {
@@ -235,10 +279,8 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x - 1, y + it - 1], clipFlag1) ||
-                        !collision.canMove(flags[x + it - 1, y - 1], clipFlag2)
-                }
+                !clearColumn(flags, x - 1, y, srcSize - 2, clipFlag1, collision) ||
+                    !clearRow(flags, x, y - 1, srcSize - 2, clipFlag2, collision)
             } else true
         }
         NorthWest -> {
@@ -248,10 +290,8 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST
                 val clipFlag2 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
-                (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x - 1, y + it - 1], clipFlag1) ||
-                        !collision.canMove(flags[x + it - 1, y + srcSize], clipFlag2)
-                }
+                !clearColumn(flags, x - 1, y, srcSize - 2, clipFlag1, collision) ||
+                    !clearRow(flags, x, y + srcSize, srcSize - 2, clipFlag2, collision)
             } else true
         }
         SouthEast -> {
@@ -261,10 +301,8 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x + srcSize, y + it - 1], clipFlag1) ||
-                        !collision.canMove(flags[x + it + 1, y - 1], clipFlag2)
-                }
+                !clearColumn(flags, x + srcSize, y, srcSize - 2, clipFlag1, collision) ||
+                    !clearRow(flags, x + 2, y - 1, srcSize - 2, clipFlag2, collision)
             } else true
         }
         NorthEast -> {
@@ -274,10 +312,8 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
-                (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x + it + 1, y + srcSize], clipFlag1) ||
-                        !collision.canMove(flags[x + srcSize, y + it + 1], clipFlag2)
-                }
+                !clearRow(flags, x + 2, y + srcSize, srcSize - 2, clipFlag1, collision) ||
+                    !clearColumn(flags, x + srcSize, y + 2, srcSize - 2, clipFlag2, collision)
             } else true
         }
     }
@@ -308,10 +344,4 @@ public class DumbPathFinder(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_S
         }
         return null
     }
-
-    @Suppress("NOTHING_TO_INLINE")
-    private inline operator fun IntArray.get(x: Int, y: Int): Int {
-        val index = (y * searchMapSize) + x
-        return this[index]
-    }
 }
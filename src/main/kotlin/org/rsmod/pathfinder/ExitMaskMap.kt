@@ -0,0 +1,113 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+
+/**
+ * Holds, for every tile of an area on one level of a [CollisionMap], a byte
+ * with the directions a [srcSize] entity standing on it can step towards
+ * under [collision]. A search over the area then looks up one byte per tile
+ * it expands instead of checking up to a dozen flags per direction.
+ *
+ * Masks are computed for the whole area up front, and recomputed for the
+ * tiles around any flag that changes through [collisionMap] afterwards;
+ * [close] stops listening for those changes.
+ */
+public class ExitMaskMap(
+    private val collisionMap: CollisionMap,
+    public val level: Int,
+    public val baseX: Int,
+    public val baseY: Int,
+    public val width: Int,
+    public val height: Int,
+    public val srcSize: Int = 1,
+    public val collision: CollisionStrategy = CollisionStrategies.Normal
+) : AutoCloseable {
+
+    internal val masks = ByteArray(width * height)
+
+    private val tileFlags = CollisionMapFlagView(collisionMap, level, 0, 0)
+    private val listener = CollisionMapListener { x, y, level -> update(x, y, level) }
+
+    init {
+        require(width > 0 && height > 0) {
+            "Area must be at least one tile wide and high"
+        }
+        require(srcSize > 0) {
+            "Source size must be at least one"
+        }
+        for (y in 0 until height) {
+            for (x in 0 until width) {
+                computeMask(x, y)
+            }
+        }
+        collisionMap.addListener(listener)
+    }
+
+    /**
+     * Returns the `MOVE_` directions a [srcSize] entity with its south-west
+     * tile on [x], [y] can step towards, or 0 if the tile lies outside of
+     * the area.
+     */
+    internal operator fun get(x: Int, y: Int): Int {
+        val localX = x - baseX
+        val localY = y - baseY
+        if (localX !in 0 until width || localY !in 0 until height) {
+            return 0
+        }
+        return masks[(localY * width) + localX].toInt() and 0xFF
+    }
+
+    /**
+     * Returns true if the masks of this map were computed from [collisionMap]
+     * for [srcSize] and [collision] on [level], and cover every tile from
+     * [minX], [minY] to [maxX], [maxY].
+     */
+    internal fun covers(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcSize: Int,
+        collision: CollisionStrategy,
+        minX: Int,
+        minY: Int,
+        maxX: Int,
+        maxY: Int
+    ): Boolean {
+        return collisionMap === this.collisionMap && level == this.level && srcSize == this.srcSize &&
+            collision == this.collision &&
+            minX >= baseX && minY >= baseY && maxX < baseX + width && maxY < baseY + height
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    /*
+     * The moves of an entity read the flags from one tile south-west of it up
+     * to one tile north-east of it, so a flag affects the masks of every tile
+     * up to [srcSize] tiles south-west of it and one tile north-east of it.
+     */
+    private fun update(x: Int, y: Int, level: Int) {
+        if (level != this.level) {
+            return
+        }
+        val localX = x - baseX
+        val localY = y - baseY
+        for (tileY in maxOf(localY - srcSize, 0)..minOf(localY + 1, height - 1)) {
+            for (tileX in maxOf(localX - srcSize, 0)..minOf(localX + 1, width - 1)) {
+                computeMask(tileX, tileY)
+            }
+        }
+    }
+
+    private fun computeMask(localX: Int, localY: Int) {
+        /* a window just large enough to hold the moves of the entity never cuts any of them off */
+        tileFlags.baseX = baseX + localX - 1
+        tileFlags.baseY = baseY + localY - 1
+        val mask = moveMask(tileFlags, 1, 1, srcSize, srcSize + 2, collision)
+        masks[(localY * width) + localX] = mask.toByte()
+    }
+}
@@ -0,0 +1,246 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.flag.DirectionFlag
+
+/* Tiles hold `distance << STEP_SHIFT | move`, where move is the index of the `MOVE_` bit to take next. */
+private const val STEP_SHIFT = 4
+private const val STEP_MOVE_MASK = 0xF
+private const val UNREACHED = -1
+private const val NO_MOVE = STEP_MOVE_MASK
+private const val NO_MASK = -1
+
+/* The [DirectionFlag] a step is taken towards, per bit of a move mask. */
+private val MOVE_STEP_DIRECTION = intArrayOf(
+    DirectionFlag.WEST,
+    DirectionFlag.EAST,
+    DirectionFlag.SOUTH,
+    DirectionFlag.NORTH,
+    DirectionFlag.SOUTH_WEST,
+    DirectionFlag.SOUTH_EAST,
+    DirectionFlag.NORTH_WEST,
+    DirectionFlag.NORTH_EAST
+)
+
+/**
+ * The next step towards a single destination from every tile around it, for
+ * [srcSize] entities moving under [collision]; made for many entities going
+ * after the same target, such as NPCs chasing a player, which would each
+ * otherwise search for a route of their own every tick.
+ *
+ * [update] runs a single search backwards from the tiles the destination is
+ * reached from, over a [searchMapSize] window centred on it, following the
+ * same rules of movement and reach as [SmartPathFinder]. Afterwards, the
+ * [direction] and [distance] of any tile in the window are looked up in
+ * constant time. An entity that keeps following [direction] takes one of
+ * the shortest routes within the window; when several exist, it may not be
+ * the one [SmartPathFinder] finds. Routes never leave the window, so tiles
+ * near its edge may be further away than a route [SmartPathFinder] finds
+ * around the outside of the window, or not reached at all.
+ *
+ * The field stays valid until the destination moves or flags within the
+ * window change through [collisionMap], which [update] then recomputes it
+ * for; [close] stops listening for those changes.
+ */
+public class FlowField(
+    private val collisionMap: CollisionMap,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    public val srcSize: Int = 1,
+    public val collision: CollisionStrategy = CollisionStrategies.Normal
+) : AutoCloseable {
+
+    private val tiles = IntArray(searchMapSize * searchMapSize)
+    private val masks = IntArray(searchMapSize * searchMapSize)
+    private val queue = IntArray(searchMapSize * searchMapSize)
+    private val flags = CollisionMapFlagView(collisionMap, 0, 0, 0)
+    private val reachArea = ReachArea()
+
+    private val listener = CollisionMapListener { x, y, level -> flagsChanged(x, y, level) }
+
+    private var computed = false
+    private var level = 0
+    private var destX = 0
+    private var destY = 0
+    private var destWidth = 0
+    private var destHeight = 0
+    private var objRot = 0
+    private var objShape = -1
+    private var accessBitMask = 0
+
+    /** Set once flags within the window change after the field was computed. */
+    public var stale: Boolean = false
+        private set
+
+    public val baseX: Int
+        get() = destX - (searchMapSize / 2)
+
+    public val baseY: Int
+        get() = destY - (searchMapSize / 2)
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        require(srcSize > 0) {
+            "Source size must be at least one"
+        }
+        collisionMap.addListener(listener)
+    }
+
+    /**
+     * Points the field at a destination with the same parameters as
+     * [SmartPathFinder.findPath], and recomputes it unless it already points
+     * there and is not [stale]. Returns true if the field was recomputed.
+     */
+    public fun update(
+        level: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        accessBitMask: Int = 0
+    ): Boolean {
+        if (computed && !stale && level == this.level && destX == this.destX && destY == this.destY &&
+            destWidth == this.destWidth && destHeight == this.destHeight && objRot == this.objRot &&
+            objShape == this.objShape && accessBitMask == this.accessBitMask
+        ) {
+            return false
+        }
+        this.level = level
+        this.destX = destX
+        this.destY = destY
+        this.destWidth = destWidth
+        this.destHeight = destHeight
+        this.objRot = objRot
+        this.objShape = objShape
+        this.accessBitMask = accessBitMask
+        compute()
+        computed = true
+        stale = false
+        return true
+    }
+
+    /**
+     * Returns the [DirectionFlag] of the step an entity with its south-west
+     * tile on [x], [y] takes next, or 0 if it has reached the destination,
+     * cannot reach it, or is outside of the window.
+     */
+    public fun direction(x: Int, y: Int): Int {
+        val tile = tile(x, y)
+        if (tile == UNREACHED || (tile and STEP_MOVE_MASK) == NO_MOVE) {
+            return 0
+        }
+        return MOVE_STEP_DIRECTION[tile and STEP_MOVE_MASK]
+    }
+
+    /**
+     * Returns the number of steps an entity with its south-west tile on [x],
+     * [y] is away from reaching the destination, or -1 if it cannot reach it
+     * or is outside of the window.
+     */
+    public fun distance(x: Int, y: Int): Int {
+        val tile = tile(x, y)
+        return if (tile == UNREACHED) -1 else tile ushr STEP_SHIFT
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private fun tile(x: Int, y: Int): Int {
+        if (!computed) {
+            return UNREACHED
+        }
+        val localX = x - baseX
+        val localY = y - baseY
+        if (localX !in 0 until searchMapSize || localY !in 0 until searchMapSize) {
+            return UNREACHED
+        }
+        return tiles[(localY * searchMapSize) + localX]
+    }
+
+    private fun compute() {
+        tiles.fill(UNREACHED)
+        masks.fill(NO_MASK)
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        val localDestX = destX - baseX
+        val localDestY = destY - baseY
+
+        /* every tile the destination is reached from lies within its reach area */
+        var writerIndex = 0
+        reachArea.set(localDestX, localDestY, srcSize, destWidth, destHeight, objShape)
+        val maxX = minOf(reachArea.maxX, searchMapSize - srcSize)
+        val maxY = minOf(reachArea.maxY, searchMapSize - srcSize)
+        for (y in maxOf(reachArea.minY, 0)..maxY) {
+            for (x in maxOf(reachArea.minX, 0)..maxX) {
+                if (reached(
+                        flags,
+                        x,
+                        y,
+                        localDestX,
+                        localDestY,
+                        destWidth,
+                        destHeight,
+                        srcSize,
+                        objRot,
+                        objShape,
+                        accessBitMask
+                    )
+                ) {
+                    tiles[(y * searchMapSize) + x] = NO_MOVE
+                    queue[writerIndex++] = (y * searchMapSize) + x
+                }
+            }
+        }
+
+        /* expand backwards: a tile is reached from every neighbour that can step onto it */
+        var readerIndex = 0
+        while (readerIndex != writerIndex) {
+            val index = queue[readerIndex++]
+            val x = index % searchMapSize
+            val y = index / searchMapSize
+            val nextDistance = (tiles[index] ushr STEP_SHIFT) + 1
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                val fromX = x - MOVE_OFFSET_X[i]
+                val fromY = y - MOVE_OFFSET_Y[i]
+                if (fromX !in 0 until searchMapSize || fromY !in 0 until searchMapSize) {
+                    continue
+                }
+                val from = (fromY * searchMapSize) + fromX
+                if (tiles[from] != UNREACHED || (moveMask(from, fromX, fromY) and (1 shl i)) == 0) {
+                    continue
+                }
+                tiles[from] = (nextDistance shl STEP_SHIFT) or i
+                queue[writerIndex++] = from
+            }
+        }
+    }
+
+    private fun moveMask(index: Int, x: Int, y: Int): Int {
+        var mask = masks[index]
+        if (mask == NO_MASK) {
+            mask = moveMask(flags, x, y, srcSize, searchMapSize, collision)
+            masks[index] = mask
+        }
+        return mask
+    }
+
+    /* Neither moves nor reach checks ever read flags from outside of the window. */
+    private fun flagsChanged(x: Int, y: Int, level: Int) {
+        if (computed && level == this.level && x - baseX in 0 until searchMapSize &&
+            y - baseY in 0 until searchMapSize
+        ) {
+            stale = true
+        }
+    }
+}
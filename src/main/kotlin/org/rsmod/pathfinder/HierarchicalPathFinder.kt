@@ -0,0 +1,776 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import java.util.Arrays
+import kotlin.math.abs
+
+private const val DEFAULT_CLUSTER_SIZE = 32
+private const val DEFAULT_MAX_ABSTRACT_NODES = 4096
+private const val DEFAULT_HEAP_CAPACITY = 256
+private const val DEFAULT_NODE_CAPACITY = 256
+
+/* Crossable stretches of a cluster border at least this long get an entrance at both ends. */
+private const val LONG_ENTRANCE_LENGTH = 6
+
+/* Legs are never long enough to be cut short by a turn limit. */
+private const val LEG_MAX_TURNS = 0xFFFF
+
+private const val NOT_REACHABLE = -1
+private const val UNKNOWN_GOAL_COST = -2
+
+/* Abstract nodes are world tiles packed as `x | (y << 14)`; the destination has a key of its own. */
+private const val NODE_COORD_SHIFT = 14
+private const val NODE_COORD_MASK = 0x3FFF
+private const val GOAL_NODE = 1 shl 28
+
+private const val CLUSTER_LEVEL_SHIFT = 28
+
+/* Spreads node keys over the slots of the node table. */
+private const val NODE_HASH_MULTIPLIER = -0x61C88647
+
+/* Flooded cluster tiles are stored as `(epoch << 16) | distance`. */
+private const val FLOOD_EPOCH_SHIFT = 16
+private const val FLOOD_DISTANCE_MASK = 0xFFFF
+private const val MAX_FLOOD_EPOCH = 0x7FFF
+
+/**
+ * Plans routes for size 1 entities across a [CollisionMap], well past the
+ * window a single search of [AStarPathFinder] or [SmartPathFinder] covers.
+ *
+ * The world is split into square clusters of [clusterSize] tiles. Every
+ * stretch of a cluster border that can be crossed gets one or two entrance
+ * tiles, and the length of the shortest walk between each pair of entrances
+ * that stays inside of the cluster is remembered. Routes are first planned
+ * over these entrances and then walked out leg by leg with [pathFinder], so
+ * they are close to, but not always exactly, as short as possible.
+ *
+ * Clusters are only built once a search reaches them. They are dropped, and
+ * built again when next needed, after flags inside of them or on a border
+ * they share with a neighbour change through [collisionMap]; [close] stops
+ * listening for those changes.
+ */
+public class HierarchicalPathFinder(
+    private val collisionMap: CollisionMap,
+    public val clusterSize: Int = DEFAULT_CLUSTER_SIZE,
+    private val pathFinder: AStarPathFinder = AStarPathFinder(),
+    private val collision: CollisionStrategy = CollisionStrategies.Normal,
+    private val maxAbstractNodes: Int = DEFAULT_MAX_ABSTRACT_NODES
+) : AutoCloseable {
+
+    private val clusters = HashMap<Int, Cluster>()
+    private val listener = CollisionMapListener { x, y, level -> invalidate(x, y, level) }
+
+    private val clusterFlags = CollisionMapFlagView(collisionMap, 0, 0, 0)
+    private val crossFlags = CollisionMapFlagView(collisionMap, 0, 0, 0)
+    private val floodTiles = IntArray(clusterSize * clusterSize)
+    private val floodQueue = CharArray(clusterSize * clusterSize)
+    private var floodEpoch = 0
+
+    private var borderEntrances = IntArray(clusterSize * 4)
+    private var borderTwins = IntArray(clusterSize * 4)
+    private var borderEntranceCount = 0
+
+    /*
+     * Abstract nodes get an id the first time a search relaxes them, in that
+     * order, which indexes their key, cost and parent id. Ids are found by key
+     * through an open addressing table, whose slots only count while stamped
+     * with the epoch of the current search.
+     */
+    private var nodeKeys = IntArray(DEFAULT_NODE_CAPACITY)
+    private var nodeCosts = IntArray(DEFAULT_NODE_CAPACITY)
+    private var nodeParents = IntArray(DEFAULT_NODE_CAPACITY)
+    private var nodeCount = 0
+    private var slotKeys = IntArray(DEFAULT_NODE_CAPACITY * 2)
+    private var slotIds = IntArray(DEFAULT_NODE_CAPACITY * 2)
+    private var slotEpochs = IntArray(DEFAULT_NODE_CAPACITY * 2)
+    private var searchEpoch = 0
+
+    private val goalCosts = HashMap<Int, IntArray>()
+    /* Open nodes are kept in a binary heap as `(estimate << 32) | id`. */
+    private var heap = LongArray(DEFAULT_HEAP_CAPACITY)
+    private var heapSize = 0
+    private var path = IntArray(DEFAULT_HEAP_CAPACITY)
+
+    private val reachArea = ReachArea()
+    private var level = 0
+    private var destX = 0
+    private var destY = 0
+    private var destWidth = 0
+    private var destHeight = 0
+    private var objRot = 0
+    private var objShape = 0
+    private var accessBitMask = 0
+
+    private var routeBuffer: RouteBuffer? = null
+    private var legBuffer: RouteBuffer? = null
+
+    internal var expandedNodes: Int = 0
+        private set
+
+    init {
+        require(clusterSize > 1 && CollisionMap.WORLD_LENGTH % clusterSize == 0) {
+            "Cluster size must divide the world length of ${CollisionMap.WORLD_LENGTH}"
+        }
+        require(clusterSize < (pathFinder.searchMapSize / 2) - 1) {
+            "Cluster size must be less than half of the search map size of the path finder, minus one"
+        }
+        collisionMap.addListener(listener)
+    }
+
+    public fun findPath(
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0
+    ): Route {
+        val buffer = routeBuffer ?: RouteBuffer().also { routeBuffer = it }
+        findPath(
+            buffer,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask
+        )
+        return buffer.toRoute()
+    }
+
+    /**
+     * Writes a route from [srcX], [srcY] to the destination into [buffer].
+     *
+     * Destinations within reach of [pathFinder] are searched for directly
+     * first. When the destination can not be reached and [moveNear] is set,
+     * the route leads to the closest tile [pathFinder] can find around the
+     * source instead, and is marked as an alternative.
+     *
+     * Unlike the other path finders, routes are not cut short after a
+     * number of turns.
+     */
+    public fun findPath(
+        buffer: RouteBuffer,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0
+    ): RouteBuffer {
+        buffer.clear()
+        val nearby = maxOf(abs(destX - srcX), abs(destY - srcY)) < pathFinder.searchMapSize / 2
+        if (nearby) {
+            pathFinder.findPath(
+                buffer,
+                collisionMap,
+                level,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                1,
+                destWidth,
+                destHeight,
+                objRot,
+                objShape,
+                moveNear,
+                accessBitMask,
+                LEG_MAX_TURNS,
+                collision
+            )
+            if (buffer.success && !buffer.alternative) {
+                return buffer
+            }
+        }
+        this.level = level
+        this.destX = destX
+        this.destY = destY
+        this.destWidth = destWidth
+        this.destHeight = destHeight
+        this.objRot = objRot
+        this.objShape = objShape
+        this.accessBitMask = accessBitMask
+        val srcNode = srcX or (srcY shl NODE_COORD_SHIFT)
+        if (search(srcNode, srcX, srcY)) {
+            walk(buffer, srcX, srcY)
+            return buffer
+        }
+        if (!nearby && moveNear) {
+            pathFinder.findPath(
+                buffer,
+                collisionMap,
+                level,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                1,
+                destWidth,
+                destHeight,
+                objRot,
+                objShape,
+                true,
+                accessBitMask,
+                LEG_MAX_TURNS,
+                collision
+            )
+        }
+        return buffer
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private fun search(srcNode: Int, srcX: Int, srcY: Int): Boolean {
+        reachArea.set(destX, destY, 1, destWidth, destHeight, objShape)
+        resetNodes()
+        goalCosts.clear()
+        heapSize = 0
+        expandedNodes = 0
+        val srcId = nodeId(srcNode)
+        nodeCosts[srcId] = 0
+        addHeap(reachArea.distance(srcX, srcY), srcId)
+        while (heapSize > 0) {
+            val entry = pollHeap()
+            val id = entry.toInt()
+            val node = nodeKeys[id]
+            if (node == GOAL_NODE) {
+                return true
+            }
+            val x = node and NODE_COORD_MASK
+            val y = node shr NODE_COORD_SHIFT
+            val cost = nodeCosts[id]
+            if (cost + reachArea.distance(x, y) != (entry ushr 32).toInt()) {
+                /* node was found again at a lower cost and has already been expanded */
+                continue
+            }
+            if (++expandedNodes > maxAbstractNodes) {
+                return false
+            }
+            if (id == srcId) {
+                expandSource(srcId, x, y)
+            }
+            expandEntrance(node, id, x, y, cost)
+        }
+        return false
+    }
+
+    private fun expandSource(srcId: Int, srcX: Int, srcY: Int) {
+        val clusterX = srcX / clusterSize
+        val clusterY = srcY / clusterSize
+        val cluster = cluster(clusterX, clusterY)
+        setClusterFlags(clusterX, clusterY)
+        val goal = flood(
+            srcX - clusterFlags.baseX,
+            srcY - clusterFlags.baseY,
+            checkGoal = isGoalCluster(clusterX, clusterY),
+            stopAtGoal = false
+        )
+        val entrances = cluster.entrances
+        for (i in entrances.indices) {
+            val entrance = entrances[i]
+            val localX = (entrance and NODE_COORD_MASK) - clusterFlags.baseX
+            val localY = (entrance shr NODE_COORD_SHIFT) - clusterFlags.baseY
+            val distance = floodDistance(localX, localY)
+            if (distance != NOT_REACHABLE) {
+                relax(entrance, srcId, distance)
+            }
+        }
+        if (goal != NOT_REACHABLE) {
+            relax(GOAL_NODE, srcId, goal)
+        }
+    }
+
+    private fun expandEntrance(node: Int, id: Int, x: Int, y: Int, cost: Int) {
+        val clusterX = x / clusterSize
+        val clusterY = y / clusterSize
+        val cluster = cluster(clusterX, clusterY)
+        val entrances = cluster.entrances
+        val index = entrances.indexOf(node)
+        if (index == -1) {
+            return
+        }
+        val count = entrances.size
+        for (i in 0 until count) {
+            val entrance = entrances[i]
+            if (entrance == node) {
+                /* a corner tile can be an entrance on two sides of the cluster */
+                val twin = cluster.twins[i]
+                val twinX = twin and NODE_COORD_MASK
+                val twinY = twin shr NODE_COORD_SHIFT
+                if (canCross(x, y, twinX - x, twinY - y)) {
+                    relax(twin, id, cost + 1)
+                }
+                continue
+            }
+            val distance = cluster.distances[(index * count) + i]
+            if (distance != NOT_REACHABLE) {
+                relax(entrance, id, cost + distance)
+            }
+        }
+        if (isGoalCluster(clusterX, clusterY)) {
+            val goal = goalCost(clusterX, clusterY, cluster, index)
+            if (goal != NOT_REACHABLE) {
+                relax(GOAL_NODE, id, cost + goal)
+            }
+        }
+    }
+
+    private fun relax(node: Int, parentId: Int, cost: Int) {
+        val id = nodeId(node)
+        if (nodeCosts[id] <= cost) {
+            return
+        }
+        nodeCosts[id] = cost
+        nodeParents[id] = parentId
+        val heuristic = if (node == GOAL_NODE) {
+            0
+        } else {
+            reachArea.distance(node and NODE_COORD_MASK, node shr NODE_COORD_SHIFT)
+        }
+        addHeap(cost + heuristic, id)
+    }
+
+    private fun resetNodes() {
+        if (searchEpoch == Int.MAX_VALUE) {
+            Arrays.fill(slotEpochs, 0)
+            searchEpoch = 0
+        }
+        searchEpoch++
+        nodeCount = 0
+    }
+
+    /* Returns the id of the node with [key], giving it the next id at an unknown cost if the search has not seen it. */
+    private fun nodeId(key: Int): Int {
+        val mask = slotKeys.size - 1
+        var slot = nodeSlot(key, mask)
+        while (slotEpochs[slot] == searchEpoch) {
+            if (slotKeys[slot] == key) {
+                return slotIds[slot]
+            }
+            slot = (slot + 1) and mask
+        }
+        val id = nodeCount++
+        if (id == nodeKeys.size) {
+            nodeKeys = nodeKeys.copyOf(id * 2)
+            nodeCosts = nodeCosts.copyOf(id * 2)
+            nodeParents = nodeParents.copyOf(id * 2)
+        }
+        nodeKeys[id] = key
+        nodeCosts[id] = Int.MAX_VALUE
+        slotEpochs[slot] = searchEpoch
+        slotKeys[slot] = key
+        slotIds[slot] = id
+        if (nodeCount * 2 > slotKeys.size) {
+            growSlots()
+        }
+        return id
+    }
+
+    /* Doubles the node table, which is kept at most half full so that probes stay short. */
+    private fun growSlots() {
+        val capacity = slotKeys.size * 2
+        slotKeys = IntArray(capacity)
+        slotIds = IntArray(capacity)
+        slotEpochs = IntArray(capacity)
+        val mask = capacity - 1
+        for (id in 0 until nodeCount) {
+            var slot = nodeSlot(nodeKeys[id], mask)
+            while (slotEpochs[slot] == searchEpoch) {
+                slot = (slot + 1) and mask
+            }
+            slotEpochs[slot] = searchEpoch
+            slotKeys[slot] = nodeKeys[id]
+            slotIds[slot] = id
+        }
+    }
+
+    /*
+     * Walks out the route found by [search], one leg between every pair of
+     * entrances along it, and a final one towards the destination.
+     */
+    private fun walk(buffer: RouteBuffer, srcX: Int, srcY: Int) {
+        /* the source always has the first id, and the destination was relaxed with its own key */
+        var count = 0
+        var id = nodeParents[nodeId(GOAL_NODE)]
+        while (id != 0) {
+            if (count == path.size) {
+                path = path.copyOf(count * 2)
+            }
+            path[count++] = id
+            id = nodeParents[id]
+        }
+        buffer.clear()
+        buffer.srcX = srcX
+        buffer.srcY = srcY
+        var currX = srcX
+        var currY = srcY
+        var currCost = 0
+        for (i in count - 1 downTo 0) {
+            val node = nodeKeys[path[i]]
+            val x = node and NODE_COORD_MASK
+            val y = node shr NODE_COORD_SHIFT
+            val cost = nodeCosts[path[i]]
+            if (cost - currCost == 1) {
+                /* border crossings, and entrances right next to each other, are a single step apart */
+                buffer.ensureCapacity(buffer.size + 1)
+                buffer.coords[buffer.size++] = RouteCoordinates(x, y).packed
+            } else if (!walkLeg(buffer, currX, currY, x, y, 0, 0, 0, -1, 0)) {
+                buffer.clear()
+                return
+            }
+            currX = x
+            currY = y
+            currCost = cost
+        }
+        if (!walkLeg(buffer, currX, currY, destX, destY, destWidth, destHeight, objRot, objShape, accessBitMask)) {
+            buffer.clear()
+            return
+        }
+        buffer.alternative = false
+        buffer.success = true
+    }
+
+    private fun walkLeg(
+        buffer: RouteBuffer,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int
+    ): Boolean {
+        var leg = legBuffer
+        if (leg == null || leg.waypoints != buffer.waypoints) {
+            leg = RouteBuffer(waypoints = buffer.waypoints)
+            legBuffer = leg
+        }
+        pathFinder.findPath(
+            leg,
+            collisionMap,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            1,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            false,
+            accessBitMask,
+            LEG_MAX_TURNS,
+            collision
+        )
+        if (!leg.success) {
+            return false
+        }
+        buffer.ensureCapacity(buffer.size + leg.size)
+        System.arraycopy(leg.coords, 0, buffer.coords, buffer.size, leg.size)
+        buffer.size += leg.size
+        return true
+    }
+
+    private fun cluster(clusterX: Int, clusterY: Int): Cluster {
+        val key = clusterKey(clusterX, clusterY, level)
+        return clusters[key] ?: buildCluster(clusterX, clusterY).also { clusters[key] = it }
+    }
+
+    private fun buildCluster(clusterX: Int, clusterY: Int): Cluster {
+        val baseX = clusterX * clusterSize
+        val baseY = clusterY * clusterSize
+        val last = clusterSize - 1
+        borderEntranceCount = 0
+        addBorderEntrances(baseX, baseY, 0, 1, -1, 0)
+        addBorderEntrances(baseX + last, baseY, 0, 1, 1, 0)
+        addBorderEntrances(baseX, baseY, 1, 0, 0, -1)
+        addBorderEntrances(baseX, baseY + last, 1, 0, 0, 1)
+
+        val count = borderEntranceCount
+        val entrances = borderEntrances.copyOf(count)
+        val twins = borderTwins.copyOf(count)
+        val distances = IntArray(count * count)
+        setClusterFlags(clusterX, clusterY)
+        for (i in 0 until count) {
+            flood(
+                (entrances[i] and NODE_COORD_MASK) - baseX,
+                (entrances[i] shr NODE_COORD_SHIFT) - baseY,
+                checkGoal = false,
+                stopAtGoal = false
+            )
+            for (j in 0 until count) {
+                val localX = (entrances[j] and NODE_COORD_MASK) - baseX
+                val localY = (entrances[j] shr NODE_COORD_SHIFT) - baseY
+                distances[(i * count) + j] = floodDistance(localX, localY)
+            }
+        }
+        return Cluster(entrances, twins, distances)
+    }
+
+    /*
+     * Adds the entrances along one border of a cluster, starting from the
+     * border tile at x, y and moving along alongX, alongY. The tiles across
+     * the border lie towards outX, outY.
+     */
+    private fun addBorderEntrances(x: Int, y: Int, alongX: Int, alongY: Int, outX: Int, outY: Int) {
+        var runStart = -1
+        for (i in 0..clusterSize) {
+            val tileX = x + (alongX * i)
+            val tileY = y + (alongY * i)
+            val crossable = i < clusterSize &&
+                (canCross(tileX, tileY, outX, outY) || canCross(tileX + outX, tileY + outY, -outX, -outY))
+            if (crossable) {
+                if (runStart == -1) {
+                    runStart = i
+                }
+                continue
+            }
+            if (runStart == -1) {
+                continue
+            }
+            val runEnd = i - 1
+            if (runEnd - runStart + 1 >= LONG_ENTRANCE_LENGTH) {
+                addBorderEntrance(x + (alongX * runStart), y + (alongY * runStart), outX, outY)
+                addBorderEntrance(x + (alongX * runEnd), y + (alongY * runEnd), outX, outY)
+            } else {
+                val middle = (runStart + runEnd) / 2
+                addBorderEntrance(x + (alongX * middle), y + (alongY * middle), outX, outY)
+            }
+            runStart = -1
+        }
+    }
+
+    private fun addBorderEntrance(x: Int, y: Int, outX: Int, outY: Int) {
+        if (borderEntranceCount == borderEntrances.size) {
+            borderEntrances = borderEntrances.copyOf(borderEntranceCount * 2)
+            borderTwins = borderTwins.copyOf(borderEntranceCount * 2)
+        }
+        borderEntrances[borderEntranceCount] = x or (y shl NODE_COORD_SHIFT)
+        borderTwins[borderEntranceCount] = (x + outX) or ((y + outY) shl NODE_COORD_SHIFT)
+        borderEntranceCount++
+    }
+
+    /*
+     * Returns the distance from an entrance of a cluster to the closest tile
+     * the destination can be reached from without leaving the cluster.
+     */
+    private fun goalCost(clusterX: Int, clusterY: Int, cluster: Cluster, index: Int): Int {
+        val key = clusterKey(clusterX, clusterY, level)
+        val costs = goalCosts[key] ?: IntArray(cluster.entrances.size).also {
+            Arrays.fill(it, UNKNOWN_GOAL_COST)
+            goalCosts[key] = it
+        }
+        if (costs[index] == UNKNOWN_GOAL_COST) {
+            setClusterFlags(clusterX, clusterY)
+            costs[index] = flood(
+                (cluster.entrances[index] and NODE_COORD_MASK) - clusterFlags.baseX,
+                (cluster.entrances[index] shr NODE_COORD_SHIFT) - clusterFlags.baseY,
+                checkGoal = true,
+                stopAtGoal = true
+            )
+        }
+        return costs[index]
+    }
+
+    private fun isGoalCluster(clusterX: Int, clusterY: Int): Boolean {
+        val minX = clusterX * clusterSize
+        val minY = clusterY * clusterSize
+        return reachArea.maxX >= minX && reachArea.minX < minX + clusterSize &&
+            reachArea.maxY >= minY && reachArea.minY < minY + clusterSize
+    }
+
+    private fun setClusterFlags(clusterX: Int, clusterY: Int) {
+        clusterFlags.level = level
+        clusterFlags.baseX = clusterX * clusterSize
+        clusterFlags.baseY = clusterY * clusterSize
+    }
+
+    /*
+     * Visits every tile of the cluster in [clusterFlags] that can be reached
+     * from local x, y without leaving it. Returns the distance to the first
+     * tile the destination can be reached from if [checkGoal] is set, or
+     * [NOT_REACHABLE] if there is none.
+     */
+    private fun flood(x: Int, y: Int, checkGoal: Boolean, stopAtGoal: Boolean): Int {
+        if (floodEpoch == MAX_FLOOD_EPOCH) {
+            Arrays.fill(floodTiles, 0)
+            floodEpoch = 0
+        }
+        floodEpoch++
+        var readerIndex = 0
+        var writerIndex = 0
+        var goal = NOT_REACHABLE
+        setFloodDistance(x, y, 0)
+        floodQueue[writerIndex++] = (x or (y shl QUEUE_COORD_SHIFT)).toChar()
+        while (readerIndex != writerIndex) {
+            val coords = floodQueue[readerIndex++].toInt()
+            val currX = coords and QUEUE_COORD_MASK
+            val currY = coords shr QUEUE_COORD_SHIFT
+            val distance = floodDistance(currX, currY)
+            if (checkGoal && goal == NOT_REACHABLE && reachesGoal(currX, currY)) {
+                goal = distance
+                if (stopAtGoal) {
+                    return goal
+                }
+            }
+            val moves = moveMask(clusterFlags, currX, currY, 1, clusterSize, collision)
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                if ((moves and (1 shl i)) == 0) {
+                    continue
+                }
+                val nextX = currX + MOVE_OFFSET_X[i]
+                val nextY = currY + MOVE_OFFSET_Y[i]
+                if (floodDistance(nextX, nextY) != NOT_REACHABLE) {
+                    continue
+                }
+                setFloodDistance(nextX, nextY, distance + 1)
+                floodQueue[writerIndex++] = (nextX or (nextY shl QUEUE_COORD_SHIFT)).toChar()
+            }
+        }
+        return goal
+    }
+
+    private fun reachesGoal(x: Int, y: Int): Boolean {
+        val baseX = clusterFlags.baseX
+        val baseY = clusterFlags.baseY
+        if (reachArea.distance(baseX + x, baseY + y) != 0) {
+            return false
+        }
+        return reached(
+            clusterFlags,
+            x,
+            y,
+            destX - baseX,
+            destY - baseY,
+            destWidth,
+            destHeight,
+            1,
+            objRot,
+            objShape,
+            accessBitMask
+        )
+    }
+
+    private fun canCross(x: Int, y: Int, dx: Int, dy: Int): Boolean {
+        crossFlags.level = level
+        crossFlags.baseX = x - 1
+        crossFlags.baseY = y - 1
+        return canStep1(crossFlags, 1, 1, dx, dy, 3, collision)
+    }
+
+    private fun invalidate(x: Int, y: Int, level: Int) {
+        val clusterX = x / clusterSize
+        val clusterY = y / clusterSize
+        clusters.remove(clusterKey(clusterX, clusterY, level))
+        /* entrances on a border depend on the tiles on both sides of it */
+        when (x % clusterSize) {
+            0 -> clusters.remove(clusterKey(clusterX - 1, clusterY, level))
+            clusterSize - 1 -> clusters.remove(clusterKey(clusterX + 1, clusterY, level))
+        }
+        when (y % clusterSize) {
+            0 -> clusters.remove(clusterKey(clusterX, clusterY - 1, level))
+            clusterSize - 1 -> clusters.remove(clusterKey(clusterX, clusterY + 1, level))
+        }
+    }
+
+    private fun addHeap(estimate: Int, id: Int) {
+        if (heapSize == heap.size) {
+            heap = heap.copyOf(heapSize * 2)
+        }
+        val entry = (estimate.toLong() shl 32) or id.toLong()
+        var index = heapSize++
+        while (index > 0) {
+            val parent = (index - 1) shr 1
+            if (heap[parent] <= entry) {
+                break
+            }
+            heap[index] = heap[parent]
+            index = parent
+        }
+        heap[index] = entry
+    }
+
+    private fun pollHeap(): Long {
+        val head = heap[0]
+        val last = heap[--heapSize]
+        var index = 0
+        while (true) {
+            var child = (index shl 1) + 1
+            if (child >= heapSize) {
+                break
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++
+            }
+            if (last <= heap[child]) {
+                break
+            }
+            heap[index] = heap[child]
+            index = child
+        }
+        heap[index] = last
+        return head
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun floodDistance(x: Int, y: Int): Int {
+        val tile = floodTiles[(y * clusterSize) + x]
+        if ((tile ushr FLOOD_EPOCH_SHIFT) != floodEpoch) {
+            return NOT_REACHABLE
+        }
+        return tile and FLOOD_DISTANCE_MASK
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun setFloodDistance(x: Int, y: Int, distance: Int) {
+        floodTiles[(y * clusterSize) + x] = (floodEpoch shl FLOOD_EPOCH_SHIFT) or distance
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun nodeSlot(key: Int, mask: Int): Int {
+        val hash = key * NODE_HASH_MULTIPLIER
+        return (hash xor (hash ushr 16)) and mask
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun clusterKey(clusterX: Int, clusterY: Int, level: Int): Int {
+        return clusterX or (clusterY shl NODE_COORD_SHIFT) or (level shl CLUSTER_LEVEL_SHIFT)
+    }
+
+    /*
+     * The entrances of a cluster, the tile across the border from each of
+     * them, and the distances between every pair of entrances within the
+     * cluster, indexed as `from * entrances.size + to`.
+     */
+    private class Cluster(
+        val entrances: IntArray,
+        val twins: IntArray,
+        val distances: IntArray
+    )
+}
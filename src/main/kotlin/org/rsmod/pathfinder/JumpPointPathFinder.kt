@@ -0,0 +1,740 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.collision.IntArrayFlagView
+import org.rsmod.pathfinder.flag.CollisionFlag
+import org.rsmod.pathfinder.flag.DirectionFlag
+import java.util.Arrays
+import kotlin.math.abs
+
+private const val DEFAULT_HEAP_CAPACITY = 1024
+private const val ALL_MOVES = 0xFF
+
+/*
+ * Every flag that can stop a size 1 entity from stepping onto a tile. Tiles
+ * that pass this mask pass each of the directional masks as well.
+ */
+private const val BLOCK_ANY_DIRECTION = CollisionFlag.BLOCK_WEST or CollisionFlag.BLOCK_EAST or
+    CollisionFlag.BLOCK_SOUTH or CollisionFlag.BLOCK_NORTH or CollisionFlag.BLOCK_SOUTH_WEST or
+    CollisionFlag.BLOCK_SOUTH_EAST or CollisionFlag.BLOCK_NORTH_WEST or CollisionFlag.BLOCK_NORTH_EAST
+
+/* Open jump points are kept in a binary heap as `(estimate << 16) | x | (y << 8)`. */
+private const val HEAP_ESTIMATE_SHIFT = 16
+private const val HEAP_COORDS_MASK = 0xFFFF
+
+/**
+ * Jump point search for size 1 entities. It follows the same collision and
+ * reach rules as [SmartPathFinder], but instead of queueing every tile it
+ * slides along straight and diagonal lines and only stops on tiles where a
+ * route could turn: next to walls and objects, or next to the destination.
+ * Routes are as long as the ones [SmartPathFinder] finds.
+ *
+ * A tile is skipped while every step it allows, other than carrying on in
+ * the same direction, can be taken at no extra cost from the tile before
+ * it. Moves are checked with the same `CollisionFlag.BLOCK_` masks the other
+ * path finders use, so walls that only block some directions are accounted
+ * for as well.
+ *
+ * Checking every move around each tile a line slides over costs more than
+ * the tiles it saves from the heap: this finder is slower than
+ * [AStarPathFinder] on every route of `SmartPathFinderBenchmark`, and many
+ * times slower when the destination can not be reached. Prefer
+ * [AStarPathFinder] unless measurements on your own maps say otherwise.
+ */
+public class JumpPointPathFinder(
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    private val tiles: IntArray = IntArray(searchMapSize * searchMapSize),
+    private var epoch: Int = 1,
+    private var heap: IntArray = IntArray(DEFAULT_HEAP_CAPACITY),
+    private var heapSize: Int = 0,
+    /* Only used to flood the search map when the destination can not be reached. */
+    private val queue: CharArray = CharArray(searchMapSize * searchMapSize),
+    private var currLocalX: Int = 0,
+    private var currLocalY: Int = 0
+) {
+
+    private val arrayFlags = IntArrayFlagView(IntArray(0), searchMapSize)
+    private var mapFlags: CollisionMapFlagView? = null
+    private var routeBuffer: RouteBuffer? = null
+
+    private val reachArea = ReachArea()
+
+    internal var expandedNodes: Int = 0
+        private set
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+    }
+
+    public fun findPath(
+        flags: IntArray,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        return findPath(
+            mapFlags(collisionMap, level, srcX, srcY),
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    /**
+     * Calculates a route by reading the collision flags through [flags], which
+     * must be positioned with its local origin at `(srcX - searchMapSize / 2, srcY - searchMapSize / 2)`.
+     */
+    public fun findPath(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        val buffer = routeBuffer ?: RouteBuffer().also { routeBuffer = it }
+        findPath(
+            buffer,
+            flags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        return buffer.toRoute()
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: IntArray,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            buffer,
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        return findPath(
+            buffer,
+            mapFlags(collisionMap, level, srcX, srcY),
+            srcX,
+            srcY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        buffer.clear()
+        buffer.srcX = srcX
+        buffer.srcY = srcY
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val localSrcX = srcX - baseX
+        val localSrcY = srcY - baseY
+        val localDestX = destX - baseX
+        val localDestY = destY - baseY
+        val pathFound = search(
+            flags,
+            localSrcX,
+            localSrcY,
+            localDestX,
+            localDestY,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        if (!pathFound) {
+            if (!moveNear) {
+                return buffer
+            }
+            flood(flags, localSrcX, localSrcY, collision)
+            val closest = findClosestApproachPoint(
+                tiles,
+                searchMapSize,
+                epoch,
+                localSrcX,
+                localSrcY,
+                localDestX,
+                localDestY
+            )
+            if (closest == -1) {
+                return buffer
+            }
+            currLocalX = closest and QUEUE_COORD_MASK
+            currLocalY = closest shr QUEUE_COORD_SHIFT
+        } else {
+            traceJumps(currLocalX, currLocalY)
+        }
+        writeRoute(tiles, searchMapSize, buffer, currLocalX, currLocalY, baseX, baseY, maxTurns)
+        buffer.alternative = !pathFound
+        buffer.success = true
+        return buffer
+    }
+
+    private fun mapFlags(collisionMap: CollisionMap, level: Int, srcX: Int, srcY: Int): FlagView {
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val flags = mapFlags ?: CollisionMapFlagView(collisionMap, level, baseX, baseY).also { mapFlags = it }
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        return flags
+    }
+
+    private fun search(
+        flags: FlagView,
+        localSrcX: Int,
+        localSrcY: Int,
+        localDestX: Int,
+        localDestY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        reset()
+        reachArea.set(localDestX, localDestY, 1, destWidth, destHeight, objShape)
+        setJumpPoint(localSrcX, localSrcY, DEFAULT_SRC_DIRECTION_VALUE, 0)
+        while (heapSize > 0) {
+            val entry = pollHeap()
+            val estimate = entry ushr HEAP_ESTIMATE_SHIFT
+            val coords = entry and HEAP_COORDS_MASK
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
+
+            val distance = distance(currLocalX, currLocalY)
+            if (distance + reachArea.distance(currLocalX, currLocalY) != estimate) {
+                /* jump point was found again with a shorter distance and has already been expanded */
+                continue
+            }
+            expandedNodes++
+
+            if (reached(
+                    flags,
+                    currLocalX,
+                    currLocalY,
+                    localDestX,
+                    localDestY,
+                    destWidth,
+                    destHeight,
+                    1,
+                    objRot,
+                    objShape,
+                    accessBitMask
+                )
+            ) {
+                return true
+            }
+
+            val direction = direction(currLocalX, currLocalY)
+            val moves = if (direction == DEFAULT_SRC_DIRECTION_VALUE) {
+                ALL_MOVES
+            } else {
+                val dx = direction.travelX
+                val dy = direction.travelY
+                naturalMoves(dx, dy) or forcedMoves(flags, currLocalX, currLocalY, dx, dy, collision)
+            }
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                if ((moves and (1 shl i)) == 0) {
+                    continue
+                }
+                val dx = MOVE_OFFSET_X[i]
+                val dy = MOVE_OFFSET_Y[i]
+                val jumpPoint = if (dx == 0 || dy == 0) {
+                    jumpStraight(flags, currLocalX, currLocalY, dx, dy, collision)
+                } else {
+                    jumpDiagonal(flags, currLocalX, currLocalY, dx, dy, collision)
+                }
+                if (jumpPoint == -1) {
+                    continue
+                }
+                val x = jumpPoint and QUEUE_COORD_MASK
+                val y = jumpPoint shr QUEUE_COORD_SHIFT
+                val nextDistance = distance + maxOf(abs(x - currLocalX), abs(y - currLocalY))
+                if (visited(x, y) && distance(x, y) <= nextDistance) {
+                    continue
+                }
+                setJumpPoint(x, y, MOVE_DIRECTION_FLAG[i], nextDistance)
+            }
+        }
+        return false
+    }
+
+    /*
+     * Slides from x, y along a straight line and returns the first tile a
+     * route could turn on, packed as `x | (y << 8)`, or -1 if the line runs
+     * into something first.
+     */
+    private fun jumpStraight(flags: FlagView, x: Int, y: Int, dx: Int, dy: Int, collision: CollisionStrategy): Int {
+        var currX = x
+        var currY = y
+        /* number of open lines across the direction of travel, up to the one ahead of the current tile */
+        var openLines = if (openLine(flags, currX, currY, dy, collision)) 1 else 0
+        openLines = if (openLine(flags, currX + dx, currY + dy, dy, collision)) openLines + 1 else 0
+        while (true) {
+            if (!canStep1(flags, currX, currY, dx, dy, searchMapSize, collision)) {
+                return -1
+            }
+            currX += dx
+            currY += dy
+            if (reachArea.distance(currX, currY) == 0) {
+                return currX or (currY shl QUEUE_COORD_SHIFT)
+            }
+            openLines = if (openLine(flags, currX + dx, currY + dy, dy, collision)) openLines + 1 else 0
+            /* nothing can be forced when there is no collision at all around the tile */
+            if (openLines < 3 && forcedMoves(flags, currX, currY, dx, dy, collision) != 0) {
+                return currX or (currY shl QUEUE_COORD_SHIFT)
+            }
+        }
+    }
+
+    /*
+     * Slides from x, y along a diagonal line, stopping on the first tile a
+     * route could turn on, or that a straight line towards either of the
+     * diagonal's components would find such a tile from.
+     */
+    private fun jumpDiagonal(flags: FlagView, x: Int, y: Int, dx: Int, dy: Int, collision: CollisionStrategy): Int {
+        var currX = x
+        var currY = y
+        while (true) {
+            if (!canStep1(flags, currX, currY, dx, dy, searchMapSize, collision)) {
+                return -1
+            }
+            currX += dx
+            currY += dy
+            if (reachArea.distance(currX, currY) == 0 || hasForcedMoves(flags, currX, currY, dx, dy, collision) ||
+                jumpStraight(flags, currX, currY, dx, 0, collision) != -1 ||
+                jumpStraight(flags, currX, currY, 0, dy, collision) != -1
+            ) {
+                return currX or (currY shl QUEUE_COORD_SHIFT)
+            }
+        }
+    }
+
+    /*
+     * Returns the moves out of x, y, reached by stepping dx, dy, that can not
+     * be taken just as cheaply from the tile before it.
+     */
+    private fun forcedMoves(flags: FlagView, x: Int, y: Int, dx: Int, dy: Int, collision: CollisionStrategy): Int {
+        if (dx == 0 || dy == 0) {
+            /* check both sides of the line of travel */
+            return forcedSideMoves(flags, x, y, dx, dy, dy, dx, collision) or
+                forcedSideMoves(flags, x, y, dx, dy, -dy, -dx, collision)
+        }
+        val prevX = x - dx
+        val prevY = y - dy
+        val prevCanStepX = canStep(flags, prevX, prevY, dx, 0, collision)
+        val prevCanStepY = canStep(flags, prevX, prevY, 0, dy, collision)
+        var forced = 0
+        if (!prevCanStepY && canStep(flags, x, y, -dx, 0, collision)) {
+            forced = forced or moveBit(-dx, 0)
+        }
+        if (!prevCanStepX && canStep(flags, x, y, 0, -dy, collision)) {
+            forced = forced or moveBit(0, -dy)
+        }
+        if ((!prevCanStepY || !canStep(flags, prevX, y, 0, dy, collision)) &&
+            canStep(flags, x, y, -dx, dy, collision)
+        ) {
+            forced = forced or moveBit(-dx, dy)
+        }
+        if ((!prevCanStepX || !canStep(flags, x, prevY, dx, 0, collision)) &&
+            canStep(flags, x, y, dx, -dy, collision)
+        ) {
+            forced = forced or moveBit(dx, -dy)
+        }
+        return forced
+    }
+
+    /*
+     * Returns the forced moves out of x, y towards the side sideX, sideY of a
+     * straight line of travel dx, dy.
+     */
+    private fun forcedSideMoves(
+        flags: FlagView,
+        x: Int,
+        y: Int,
+        dx: Int,
+        dy: Int,
+        sideX: Int,
+        sideY: Int,
+        collision: CollisionStrategy
+    ): Int {
+        val prevX = x - dx
+        val prevY = y - dy
+        val prevCanStepAhead = canStep(flags, prevX, prevY, dx + sideX, dy + sideY, collision)
+        var forced = 0
+        if (!prevCanStepAhead && canStep(flags, x, y, sideX, sideY, collision)) {
+            forced = forced or moveBit(sideX, sideY)
+        }
+        if ((!prevCanStepAhead || !canStep(flags, x + sideX, y + sideY, dx, dy, collision)) &&
+            canStep(flags, x, y, dx + sideX, dy + sideY, collision)
+        ) {
+            forced = forced or moveBit(dx + sideX, dy + sideY)
+        }
+        if (!canStep(flags, prevX, prevY, sideX, sideY, collision) &&
+            canStep(flags, x, y, sideX - dx, sideY - dy, collision)
+        ) {
+            forced = forced or moveBit(sideX - dx, sideY - dy)
+        }
+        return forced
+    }
+
+    /*
+     * Returns true if the three tiles across the direction of travel
+     * centred on x, y are inside of the search map and can be stepped onto
+     * from any direction. Only whether the travel has a [dy] component
+     * matters, as lines run across it either way.
+     */
+    private fun openLine(flags: FlagView, x: Int, y: Int, dy: Int, collision: CollisionStrategy): Boolean {
+        if (x < 0 || y < 0 || x >= searchMapSize || y >= searchMapSize) {
+            return false
+        }
+        if (dy == 0) {
+            return y > 0 && y < searchMapSize - 1 &&
+                collision.canMove(flags[x, y - 1], BLOCK_ANY_DIRECTION) &&
+                collision.canMove(flags[x, y], BLOCK_ANY_DIRECTION) &&
+                collision.canMove(flags[x, y + 1], BLOCK_ANY_DIRECTION)
+        }
+        return x > 0 && x < searchMapSize - 1 &&
+            collision.canMove(flags[x - 1, y], BLOCK_ANY_DIRECTION) &&
+            collision.canMove(flags[x, y], BLOCK_ANY_DIRECTION) &&
+            collision.canMove(flags[x + 1, y], BLOCK_ANY_DIRECTION)
+    }
+
+    private fun hasForcedMoves(
+        flags: FlagView,
+        x: Int,
+        y: Int,
+        dx: Int,
+        dy: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        /* nothing can be forced when there is no collision at all around the tile */
+        if (openLine(flags, x - 1, y, 0, collision) &&
+            openLine(flags, x, y, 0, collision) &&
+            openLine(flags, x + 1, y, 0, collision)
+        ) {
+            return false
+        }
+        return forcedMoves(flags, x, y, dx, dy, collision) != 0
+    }
+
+    private fun naturalMoves(dx: Int, dy: Int): Int {
+        if (dx == 0 || dy == 0) {
+            return moveBit(dx, dy)
+        }
+        return moveBit(dx, dy) or moveBit(dx, 0) or moveBit(0, dy)
+    }
+
+    /*
+     * Fills in the tiles skipped between the jump points of the route that
+     * ends at x, y, so the route can be written like any other.
+     */
+    private fun traceJumps(x: Int, y: Int) {
+        var currX = x
+        var currY = y
+        var direction = direction(currX, currY)
+        var distance = distance(currX, currY)
+        while (distance > 0) {
+            currX -= direction.travelX
+            currY -= direction.travelY
+            distance--
+            if (visited(currX, currY) && distance(currX, currY) == distance) {
+                direction = direction(currX, currY)
+                continue
+            }
+            setTile(currX, currY, direction, distance)
+        }
+    }
+
+    /*
+     * Visits every tile reachable from the source in breadth-first order, so
+     * the closest approach to an unreachable destination is chosen exactly
+     * like [SmartPathFinder] does.
+     */
+    private fun flood(flags: FlagView, srcX: Int, srcY: Int, collision: CollisionStrategy) {
+        reset()
+        var readerIndex = 0
+        var writerIndex = 0
+        setTile(srcX, srcY, DEFAULT_SRC_DIRECTION_VALUE, 0)
+        queue[writerIndex++] = (srcX or (srcY shl QUEUE_COORD_SHIFT)).toChar()
+        while (readerIndex != writerIndex) {
+            val coords = queue[readerIndex++].toInt()
+            val x = coords and QUEUE_COORD_MASK
+            val y = coords shr QUEUE_COORD_SHIFT
+            val nextDistance = distance(x, y) + 1
+            val moves = moveMask(flags, x, y, 1, searchMapSize, collision)
+            for (i in 0 until MOVE_DIRECTION_COUNT) {
+                if ((moves and (1 shl i)) == 0) {
+                    continue
+                }
+                val nextX = x + MOVE_OFFSET_X[i]
+                val nextY = y + MOVE_OFFSET_Y[i]
+                if (visited(nextX, nextY)) {
+                    continue
+                }
+                setTile(nextX, nextY, MOVE_DIRECTION_FLAG[i], nextDistance)
+                queue[writerIndex++] = (nextX or (nextY shl QUEUE_COORD_SHIFT)).toChar()
+            }
+        }
+    }
+
+    private fun reset() {
+        if (epoch == MAX_EPOCH) {
+            Arrays.fill(tiles, 0)
+            epoch = 0
+        }
+        epoch++
+        heapSize = 0
+        expandedNodes = 0
+    }
+
+    private fun setJumpPoint(x: Int, y: Int, direction: Int, distance: Int) {
+        setTile(x, y, direction, distance)
+        val estimate = distance + reachArea.distance(x, y)
+        addHeap((estimate shl HEAP_ESTIMATE_SHIFT) or x or (y shl QUEUE_COORD_SHIFT))
+    }
+
+    private fun setTile(x: Int, y: Int, direction: Int, distance: Int) {
+        tiles[(y * searchMapSize) + x] = (epoch shl EPOCH_SHIFT) or (distance shl DISTANCE_SHIFT) or direction
+    }
+
+    private fun addHeap(entry: Int) {
+        if (heapSize == heap.size) {
+            heap = heap.copyOf(heapSize * 2)
+        }
+        var index = heapSize++
+        while (index > 0) {
+            val parent = (index - 1) shr 1
+            if (Integer.compareUnsigned(heap[parent], entry) <= 0) {
+                break
+            }
+            heap[index] = heap[parent]
+            index = parent
+        }
+        heap[index] = entry
+    }
+
+    private fun pollHeap(): Int {
+        val head = heap[0]
+        val last = heap[--heapSize]
+        var index = 0
+        while (true) {
+            var child = (index shl 1) + 1
+            if (child >= heapSize) {
+                break
+            }
+            if (child + 1 < heapSize && Integer.compareUnsigned(heap[child + 1], heap[child]) < 0) {
+                child++
+            }
+            if (Integer.compareUnsigned(last, heap[child]) <= 0) {
+                break
+            }
+            heap[index] = heap[child]
+            index = child
+        }
+        heap[index] = last
+        return head
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun canStep(
+        flags: FlagView,
+        x: Int,
+        y: Int,
+        dx: Int,
+        dy: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        return canStep1(flags, x, y, dx, dy, searchMapSize, collision)
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun visited(x: Int, y: Int): Boolean {
+        return (tiles[(y * searchMapSize) + x] ushr EPOCH_SHIFT) == epoch
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun direction(x: Int, y: Int): Int {
+        return tiles[(y * searchMapSize) + x] and DIRECTION_MASK
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun distance(x: Int, y: Int): Int {
+        return (tiles[(y * searchMapSize) + x] ushr DISTANCE_SHIFT) and DISTANCE_MASK
+    }
+
+    /* The direction flag of a tile points back at where it was reached from. */
+    private val Int.travelX: Int
+        get() = when {
+            (this and DirectionFlag.EAST) != 0 -> -1
+            (this and DirectionFlag.WEST) != 0 -> 1
+            else -> 0
+        }
+
+    private val Int.travelY: Int
+        get() = when {
+            (this and DirectionFlag.NORTH) != 0 -> -1
+            (this and DirectionFlag.SOUTH) != 0 -> 1
+            else -> 0
+        }
+
+    private fun moveBit(dx: Int, dy: Int): Int = when {
+        dy == 0 -> if (dx < 0) MOVE_WEST else MOVE_EAST
+        dx == 0 -> if (dy < 0) MOVE_SOUTH else MOVE_NORTH
+        dy < 0 -> if (dx < 0) MOVE_SOUTH_WEST else MOVE_SOUTH_EAST
+        else -> if (dx < 0) MOVE_NORTH_WEST else MOVE_NORTH_EAST
+    }
+}
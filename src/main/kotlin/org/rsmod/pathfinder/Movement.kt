@@ -0,0 +1,315 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.flag.CollisionFlag
+import org.rsmod.pathfinder.flag.DirectionFlag
+
+internal const val MOVE_WEST = 0x1
+internal const val MOVE_EAST = 0x2
+internal const val MOVE_SOUTH = 0x4
+internal const val MOVE_NORTH = 0x8
+internal const val MOVE_SOUTH_WEST = 0x10
+internal const val MOVE_SOUTH_EAST = 0x20
+internal const val MOVE_NORTH_WEST = 0x40
+internal const val MOVE_NORTH_EAST = 0x80
+
+internal const val MOVE_DIRECTION_COUNT = 8
+
+/* Moves that leave a tile across each of its four sides. */
+internal const val MOVES_WEST = MOVE_WEST or MOVE_SOUTH_WEST or MOVE_NORTH_WEST
+internal const val MOVES_EAST = MOVE_EAST or MOVE_SOUTH_EAST or MOVE_NORTH_EAST
+internal const val MOVES_SOUTH = MOVE_SOUTH or MOVE_SOUTH_WEST or MOVE_SOUTH_EAST
+internal const val MOVES_NORTH = MOVE_NORTH or MOVE_NORTH_WEST or MOVE_NORTH_EAST
+
+/*
+ * Tile offset and [DirectionFlag] pointing back at the tile moved from, per
+ * bit of a move mask.
+ */
+internal val MOVE_OFFSET_X = intArrayOf(-1, 1, 0, 0, -1, 1, -1, 1)
+internal val MOVE_OFFSET_Y = intArrayOf(0, 0, -1, 1, -1, -1, 1, 1)
+internal val MOVE_DIRECTION_FLAG = intArrayOf(
+    DirectionFlag.EAST,
+    DirectionFlag.WEST,
+    DirectionFlag.NORTH,
+    DirectionFlag.SOUTH,
+    DirectionFlag.NORTH_EAST,
+    DirectionFlag.NORTH_WEST,
+    DirectionFlag.SOUTH_EAST,
+    DirectionFlag.SOUTH_WEST
+)
+
+/**
+ * Returns a mask of the `MOVE_` directions a [srcSize] entity standing on
+ * local [x], [y] can step towards without leaving a [searchMapSize] window.
+ *
+ * These are the same rules `SmartPathFinder` applies while searching, for
+ * path finders that expand tiles in a different order.
+ */
+internal fun moveMask(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    srcSize: Int,
+    searchMapSize: Int,
+    collision: CollisionStrategy
+): Int = when (srcSize) {
+    1 -> moveMask1(flags, x, y, searchMapSize, collision)
+    2 -> moveMask2(flags, x, y, searchMapSize, collision)
+    else -> moveMaskN(flags, x, y, srcSize, searchMapSize, collision)
+}
+
+private fun moveMask1(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    searchMapSize: Int,
+    collision: CollisionStrategy
+): Int {
+    val relativeSearchSize = searchMapSize - 1
+    var mask = 0
+    if (x > 0 && collision.canMove(flags[x - 1, y], CollisionFlag.BLOCK_WEST)) {
+        mask = mask or MOVE_WEST
+    }
+    if (x < relativeSearchSize && collision.canMove(flags[x + 1, y], CollisionFlag.BLOCK_EAST)) {
+        mask = mask or MOVE_EAST
+    }
+    if (y > 0 && collision.canMove(flags[x, y - 1], CollisionFlag.BLOCK_SOUTH)) {
+        mask = mask or MOVE_SOUTH
+    }
+    if (y < relativeSearchSize && collision.canMove(flags[x, y + 1], CollisionFlag.BLOCK_NORTH)) {
+        mask = mask or MOVE_NORTH
+    }
+    if ((mask and (MOVE_WEST or MOVE_SOUTH)) == (MOVE_WEST or MOVE_SOUTH) &&
+        collision.canMove(flags[x - 1, y - 1], CollisionFlag.BLOCK_SOUTH_WEST)
+    ) {
+        mask = mask or MOVE_SOUTH_WEST
+    }
+    if ((mask and (MOVE_EAST or MOVE_SOUTH)) == (MOVE_EAST or MOVE_SOUTH) &&
+        collision.canMove(flags[x + 1, y - 1], CollisionFlag.BLOCK_SOUTH_EAST)
+    ) {
+        mask = mask or MOVE_SOUTH_EAST
+    }
+    if ((mask and (MOVE_WEST or MOVE_NORTH)) == (MOVE_WEST or MOVE_NORTH) &&
+        collision.canMove(flags[x - 1, y + 1], CollisionFlag.BLOCK_NORTH_WEST)
+    ) {
+        mask = mask or MOVE_NORTH_WEST
+    }
+    if ((mask and (MOVE_EAST or MOVE_NORTH)) == (MOVE_EAST or MOVE_NORTH) &&
+        collision.canMove(flags[x + 1, y + 1], CollisionFlag.BLOCK_NORTH_EAST)
+    ) {
+        mask = mask or MOVE_NORTH_EAST
+    }
+    return mask
+}
+
+private fun moveMask2(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    searchMapSize: Int,
+    collision: CollisionStrategy
+): Int {
+    val relativeSearchSize = searchMapSize - 2
+    var mask = 0
+    if (x > 0 &&
+        collision.canMove(flags[x - 1, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x - 1, y + 1], CollisionFlag.BLOCK_NORTH_WEST)
+    ) {
+        mask = mask or MOVE_WEST
+    }
+    if (x < relativeSearchSize &&
+        collision.canMove(flags[x + 2, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        collision.canMove(flags[x + 2, y + 1], CollisionFlag.BLOCK_NORTH_EAST)
+    ) {
+        mask = mask or MOVE_EAST
+    }
+    if (y > 0 &&
+        collision.canMove(flags[x, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x + 1, y - 1], CollisionFlag.BLOCK_SOUTH_EAST)
+    ) {
+        mask = mask or MOVE_SOUTH
+    }
+    if (y < relativeSearchSize &&
+        collision.canMove(flags[x, y + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x + 1, y + 2], CollisionFlag.BLOCK_NORTH_EAST)
+    ) {
+        mask = mask or MOVE_NORTH
+    }
+    if (x > 0 && y > 0 &&
+        collision.canMove(flags[x - 1, y], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x - 1, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x, y - 1], CollisionFlag.BLOCK_SOUTH_EAST)
+    ) {
+        mask = mask or MOVE_SOUTH_WEST
+    }
+    if (x < relativeSearchSize && y > 0 &&
+        collision.canMove(flags[x + 1, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x + 2, y - 1], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        collision.canMove(flags[x + 2, y], CollisionFlag.BLOCK_NORTH_EAST)
+    ) {
+        mask = mask or MOVE_SOUTH_EAST
+    }
+    if (x > 0 && y < relativeSearchSize &&
+        collision.canMove(flags[x - 1, y + 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x - 1, y + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x, y + 2], CollisionFlag.BLOCK_NORTH_EAST)
+    ) {
+        mask = mask or MOVE_NORTH_WEST
+    }
+    if (x < relativeSearchSize && y < relativeSearchSize &&
+        collision.canMove(flags[x + 1, y + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x + 2, y + 2], CollisionFlag.BLOCK_NORTH_EAST) &&
+        collision.canMove(flags[x + 2, y + 1], CollisionFlag.BLOCK_SOUTH_EAST)
+    ) {
+        mask = mask or MOVE_NORTH_EAST
+    }
+    return mask
+}
+
+private fun moveMaskN(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    srcSize: Int,
+    searchMapSize: Int,
+    collision: CollisionStrategy
+): Int {
+    val relativeSearchSize = searchMapSize - srcSize
+    var mask = 0
+    if (x > 0 &&
+        collision.canMove(flags[x - 1, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x - 1, y + srcSize - 1], CollisionFlag.BLOCK_NORTH_WEST) &&
+        clearColumn(flags, x - 1, y + 1, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST, collision)
+    ) {
+        mask = mask or MOVE_WEST
+    }
+    if (x < relativeSearchSize &&
+        collision.canMove(flags[x + srcSize, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        collision.canMove(flags[x + srcSize, y + srcSize - 1], CollisionFlag.BLOCK_NORTH_EAST) &&
+        clearColumn(flags, x + srcSize, y + 1, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST, collision)
+    ) {
+        mask = mask or MOVE_EAST
+    }
+    if (y > 0 &&
+        collision.canMove(flags[x, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x + srcSize - 1, y - 1], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        clearRow(flags, x + 1, y - 1, srcSize - 2, CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, collision)
+    ) {
+        mask = mask or MOVE_SOUTH
+    }
+    if (y < relativeSearchSize &&
+        collision.canMove(flags[x, y + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x + srcSize - 1, y + srcSize], CollisionFlag.BLOCK_NORTH_EAST) &&
+        clearRow(flags, x + 1, y + srcSize, srcSize - 2, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, collision)
+    ) {
+        mask = mask or MOVE_NORTH
+    }
+    if (x > 0 && y > 0 &&
+        collision.canMove(flags[x - 1, y + srcSize - 2], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x - 1, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x + srcSize - 2, y - 1], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        clearColumn(flags, x - 1, y, srcSize - 2, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, collision) &&
+        clearRow(flags, x, y - 1, srcSize - 2, CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, collision)
+    ) {
+        mask = mask or MOVE_SOUTH_WEST
+    }
+    if (x < relativeSearchSize && y > 0 &&
+        collision.canMove(flags[x + 1, y - 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x + srcSize, y - 1], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        collision.canMove(flags[x + srcSize, y + srcSize - 2], CollisionFlag.BLOCK_NORTH_EAST) &&
+        clearColumn(flags, x + srcSize, y, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST, collision) &&
+        clearRow(flags, x + 2, y - 1, srcSize - 2, CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, collision)
+    ) {
+        mask = mask or MOVE_SOUTH_EAST
+    }
+    if (x > 0 && y < relativeSearchSize &&
+        collision.canMove(flags[x - 1, y + 1], CollisionFlag.BLOCK_SOUTH_WEST) &&
+        collision.canMove(flags[x - 1, y + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x, y + srcSize], CollisionFlag.BLOCK_NORTH_EAST) &&
+        clearColumn(flags, x - 1, y + 2, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST, collision) &&
+        clearRow(flags, x, y + srcSize, srcSize - 2, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, collision)
+    ) {
+        mask = mask or MOVE_NORTH_WEST
+    }
+    if (x < relativeSearchSize && y < relativeSearchSize &&
+        collision.canMove(flags[x + 1, y + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
+        collision.canMove(flags[x + srcSize, y + srcSize], CollisionFlag.BLOCK_NORTH_EAST) &&
+        collision.canMove(flags[x + srcSize, y + 1], CollisionFlag.BLOCK_SOUTH_EAST) &&
+        clearRow(flags, x + 2, y + srcSize, srcSize - 2, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST, collision) &&
+        clearColumn(flags, x + srcSize, y + 2, srcSize - 2, CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST, collision)
+    ) {
+        mask = mask or MOVE_NORTH_EAST
+    }
+    return mask
+}
+
+/* Returns whether [length] tiles going north from local [x], [y] can all be moved through with [clipFlag]. */
+internal fun clearColumn(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    length: Int,
+    clipFlag: Int,
+    collision: CollisionStrategy
+): Boolean {
+    for (i in 0 until length) {
+        if (!collision.canMove(flags[x, y + i], clipFlag)) {
+            return false
+        }
+    }
+    return true
+}
+
+/* Returns whether [length] tiles going east from local [x], [y] can all be moved through with [clipFlag]. */
+internal fun clearRow(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    length: Int,
+    clipFlag: Int,
+    collision: CollisionStrategy
+): Boolean {
+    for (i in 0 until length) {
+        if (!collision.canMove(flags[x + i, y], clipFlag)) {
+            return false
+        }
+    }
+    return true
+}
+
+/**
+ * Returns whether a size 1 entity standing on local [x], [y] can take a
+ * single step of [dx], [dy] without leaving a [searchMapSize] window.
+ */
+internal fun canStep1(
+    flags: FlagView,
+    x: Int,
+    y: Int,
+    dx: Int,
+    dy: Int,
+    searchMapSize: Int,
+    collision: CollisionStrategy
+): Boolean {
+    val nextX = x + dx
+    val nextY = y + dy
+    if (nextX < 0 || nextY < 0 || nextX >= searchMapSize || nextY >= searchMapSize) {
+        return false
+    }
+    val blockX = if (dx < 0) CollisionFlag.BLOCK_WEST else CollisionFlag.BLOCK_EAST
+    val blockY = if (dy < 0) CollisionFlag.BLOCK_SOUTH else CollisionFlag.BLOCK_NORTH
+    return when {
+        dy == 0 -> collision.canMove(flags[nextX, y], blockX)
+        dx == 0 -> collision.canMove(flags[x, nextY], blockY)
+        else -> collision.canMove(flags[nextX, nextY], diagonalBlockFlag(dx, dy)) &&
+            collision.canMove(flags[nextX, y], blockX) &&
+            collision.canMove(flags[x, nextY], blockY)
+    }
+}
+
+private fun diagonalBlockFlag(dx: Int, dy: Int): Int = when {
+    dx < 0 && dy < 0 -> CollisionFlag.BLOCK_SOUTH_WEST
+    dx > 0 && dy < 0 -> CollisionFlag.BLOCK_SOUTH_EAST
+    dx < 0 -> CollisionFlag.BLOCK_NORTH_WEST
+    else -> CollisionFlag.BLOCK_NORTH_EAST
+}
@@ -0,0 +1,140 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+
+/**
+ * Runs a single search for every set of identical requests made within a
+ * game tick, such as players clicking the same bank booth from the same
+ * spot, or NPCs of a group retargeting to the same player, and hands each
+ * of them the same [Route].
+ *
+ * Routes are shared until [nextTick] is called, or until flags change
+ * through [collisionMap], after which a request is searched for again;
+ * [close] stops listening for those changes. The shared routes must not
+ * be modified.
+ *
+ * A path coalescer is not thread-safe.
+ */
+public class PathCoalescer(
+    private val collisionMap: CollisionMap,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE
+) : AutoCloseable {
+
+    private val pf = SmartPathFinder(searchMapSize = searchMapSize)
+    private val routes = HashMap<PathRequest, Route>()
+
+    private val listener = CollisionMapListener { _, _, _ -> routes.clear() }
+
+    /** The number of requests made. */
+    public var requests: Long = 0
+        private set
+
+    /** The number of requests answered with the route of an identical request, without a search. */
+    public var coalesced: Long = 0
+        private set
+
+    /** The share of requests that were answered without a search. */
+    public val hitRate: Double
+        get() = if (requests == 0L) 0.0 else coalesced.toDouble() / requests
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        collisionMap.addListener(listener)
+    }
+
+    /**
+     * Returns the route [SmartPathFinder.findPath] finds for the request, which
+     * is shared with every identical request made since the last [nextTick].
+     */
+    public fun findPath(
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        requests++
+        val request = PathRequest(
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        val shared = routes[request]
+        if (shared != null) {
+            coalesced++
+            return shared
+        }
+        val route = pf.findPath(
+            collisionMap,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        routes[request] = route
+        return route
+    }
+
+    /**
+     * Stops sharing the routes found so far; to be called once per tick.
+     */
+    public fun nextTick() {
+        routes.clear()
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private data class PathRequest(
+        val level: Int,
+        val srcX: Int,
+        val srcY: Int,
+        val destX: Int,
+        val destY: Int,
+        val srcSize: Int,
+        val destWidth: Int,
+        val destHeight: Int,
+        val objRot: Int,
+        val objShape: Int,
+        val moveNear: Boolean,
+        val accessBitMask: Int,
+        val maxTurns: Int,
+        val collision: CollisionStrategy
+    )
+}
@@ -0,0 +1,119 @@
+package org.rsmod.pathfinder
+
+private const val DEFAULT_DESTINATIONS_CAPACITY = 16
+
+/**
+ * A reusable set of destinations to be searched for at once by
+ * [SmartPathFinder.findPath], which returns the first of them reached
+ * together with its route; such as the nearest of several banks, or of
+ * every ore rock of a kind.
+ *
+ * Destinations are kept in primitive arrays, one per parameter of
+ * [SmartPathFinder.findPath], which grow to fit the largest set and are
+ * reused after [clear]. A set must not be searched for by several threads
+ * at once.
+ */
+public class PathDestinations(capacity: Int = DEFAULT_DESTINATIONS_CAPACITY) {
+
+    public var size: Int = 0
+        private set
+
+    internal var destX = IntArray(capacity)
+    internal var destY = IntArray(capacity)
+    internal var destWidth = IntArray(capacity)
+    internal var destHeight = IntArray(capacity)
+    internal var objRot = IntArray(capacity)
+    internal var objShape = IntArray(capacity)
+    internal var accessBitMask = IntArray(capacity)
+
+    /* Local coordinates and reach areas of the search currently going on, as set by [localize]. */
+    internal var localDestX = IntArray(capacity)
+    internal var localDestY = IntArray(capacity)
+    internal var areaMinX = IntArray(capacity)
+    internal var areaMaxX = IntArray(capacity)
+    internal var areaMinY = IntArray(capacity)
+    internal var areaMaxY = IntArray(capacity)
+
+    /* The bounds of every reach area together. */
+    internal var minX = 0
+    internal var maxX = 0
+    internal var minY = 0
+    internal var maxY = 0
+
+    /**
+     * Adds a destination with the same parameters as [SmartPathFinder.findPath],
+     * and returns the index it is reported by when reached.
+     */
+    public fun add(
+        destX: Int,
+        destY: Int,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        accessBitMask: Int = 0
+    ): Int {
+        val index = size
+        ensureCapacity(index + 1)
+        this.destX[index] = destX
+        this.destY[index] = destY
+        this.destWidth[index] = destWidth
+        this.destHeight[index] = destHeight
+        this.objRot[index] = objRot
+        this.objShape[index] = objShape
+        this.accessBitMask[index] = accessBitMask
+        size++
+        return index
+    }
+
+    public fun clear() {
+        size = 0
+    }
+
+    /*
+     * Moves every destination into the local coordinates of a search map with
+     * its origin at [baseX], [baseY], and works out the area a source of
+     * [srcSize] has to be within to possibly reach it.
+     */
+    internal fun localize(baseX: Int, baseY: Int, srcSize: Int, area: ReachArea) {
+        minX = Int.MAX_VALUE
+        maxX = Int.MIN_VALUE
+        minY = Int.MAX_VALUE
+        maxY = Int.MIN_VALUE
+        for (i in 0 until size) {
+            val localX = destX[i] - baseX
+            val localY = destY[i] - baseY
+            area.set(localX, localY, srcSize, destWidth[i], destHeight[i], objShape[i])
+            localDestX[i] = localX
+            localDestY[i] = localY
+            areaMinX[i] = area.minX
+            areaMaxX[i] = area.maxX
+            areaMinY[i] = area.minY
+            areaMaxY[i] = area.maxY
+            minX = minOf(minX, area.minX)
+            maxX = maxOf(maxX, area.maxX)
+            minY = minOf(minY, area.minY)
+            maxY = maxOf(maxY, area.maxY)
+        }
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (destX.size >= capacity) {
+            return
+        }
+        val newCapacity = maxOf(capacity, destX.size * 2)
+        destX = destX.copyOf(newCapacity)
+        destY = destY.copyOf(newCapacity)
+        destWidth = destWidth.copyOf(newCapacity)
+        destHeight = destHeight.copyOf(newCapacity)
+        objRot = objRot.copyOf(newCapacity)
+        objShape = objShape.copyOf(newCapacity)
+        accessBitMask = accessBitMask.copyOf(newCapacity)
+        localDestX = localDestX.copyOf(newCapacity)
+        localDestY = localDestY.copyOf(newCapacity)
+        areaMinX = areaMinX.copyOf(newCapacity)
+        areaMaxX = areaMaxX.copyOf(newCapacity)
+        areaMinY = areaMinY.copyOf(newCapacity)
+        areaMaxY = areaMaxY.copyOf(newCapacity)
+    }
+}
@@ -0,0 +1,98 @@
+package org.rsmod.pathfinder
+
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/*
+ * Slots are spread this many references apart, so that the slots of two
+ * stripes never share a cache line.
+ */
+private const val SLOT_SPACING = 16
+
+/**
+ * A pool of [SmartPathFinder] instances to be shared between threads.
+ *
+ * A [SmartPathFinder] keeps the state of its search in its own scratch
+ * arrays, so each instance can only search for one route at a time. The pool
+ * keeps idle instances in [stripes] slots, one per available processor by
+ * default. A thread looks for an idle instance starting at the slot of its
+ * own stripe and takes it with a single compare-and-set, so threads of
+ * different stripes do not contend with each other.
+ *
+ * A new instance is built with [factory] whenever every slot is empty, and
+ * instances released while every slot is taken are left to the garbage
+ * collector; the pool never blocks.
+ */
+public class PathFinderPool(
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    public val stripes: Int = Runtime.getRuntime().availableProcessors(),
+    private val factory: () -> SmartPathFinder = { SmartPathFinder(searchMapSize = searchMapSize) }
+) {
+
+    private val slots: AtomicReferenceArray<SmartPathFinder?>
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        require(stripes > 0) {
+            "Pool must have at least one stripe"
+        }
+        slots = AtomicReferenceArray(stripes * SLOT_SPACING)
+    }
+
+    /**
+     * Takes an idle [SmartPathFinder] out of the pool, or builds a new one if
+     * there are none; it should be given back with [release] once its route
+     * has been read.
+     */
+    public fun borrow(): SmartPathFinder {
+        val stripe = stripe()
+        for (i in 0 until stripes) {
+            val slot = ((stripe + i) % stripes) * SLOT_SPACING
+            val pf = slots.get(slot)
+            if (pf != null && slots.compareAndSet(slot, pf, null)) {
+                return pf
+            }
+        }
+        val pf = factory()
+        require(pf.searchMapSize == searchMapSize) {
+            "Factory must build path finders with a search map size of $searchMapSize (size=${pf.searchMapSize})"
+        }
+        return pf
+    }
+
+    /**
+     * Gives [pf], taken out with [borrow], back to the pool; it must not be
+     * used by the caller afterwards.
+     */
+    public fun release(pf: SmartPathFinder) {
+        require(pf.searchMapSize == searchMapSize) {
+            "Path finder must have a search map size of $searchMapSize (size=${pf.searchMapSize})"
+        }
+        val stripe = stripe()
+        for (i in 0 until stripes) {
+            val slot = ((stripe + i) % stripes) * SLOT_SPACING
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, pf)) {
+                return
+            }
+        }
+    }
+
+    /**
+     * Calls [block] with a [SmartPathFinder] borrowed from the pool, and gives
+     * it back once [block] returns; routes found by the path finder do not
+     * share any state with it, and can be kept afterwards.
+     */
+    public inline fun <T> use(block: (SmartPathFinder) -> T): T {
+        val pf = borrow()
+        try {
+            return block(pf)
+        } finally {
+            release(pf)
+        }
+    }
+
+    private fun stripe(): Int {
+        return (Thread.currentThread().id % stripes).toInt()
+    }
+}
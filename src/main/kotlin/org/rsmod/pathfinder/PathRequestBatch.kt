@@ -0,0 +1,117 @@
+package org.rsmod.pathfinder
+
+private const val DEFAULT_BATCH_CAPACITY = 256
+
+/**
+ * A reusable batch of path requests, such as the ones collected over a game
+ * tick, to be solved together by [BatchPathFinder.findPaths].
+ *
+ * Requests are kept in primitive arrays, one per parameter of
+ * [SmartPathFinder.findPath], and every request has a [RouteBuffer] of its
+ * own that its route is written to. Both grow to fit the largest batch and
+ * are reused after [clear], so filling and solving a batch of a size seen
+ * before does not allocate.
+ */
+public class PathRequestBatch(
+    capacity: Int = DEFAULT_BATCH_CAPACITY,
+    private val waypoints: Boolean = false
+) {
+
+    public var size: Int = 0
+        private set
+
+    internal var level = IntArray(capacity)
+    internal var srcX = IntArray(capacity)
+    internal var srcY = IntArray(capacity)
+    internal var destX = IntArray(capacity)
+    internal var destY = IntArray(capacity)
+    internal var srcSize = IntArray(capacity)
+    internal var destWidth = IntArray(capacity)
+    internal var destHeight = IntArray(capacity)
+    internal var objRot = IntArray(capacity)
+    internal var objShape = IntArray(capacity)
+    internal var moveNear = BooleanArray(capacity)
+    internal var accessBitMask = IntArray(capacity)
+    internal var maxTurns = IntArray(capacity)
+
+    private var routes = arrayOfNulls<RouteBuffer>(capacity)
+
+    /**
+     * Adds a request with the same parameters as [SmartPathFinder.findPath],
+     * and returns the index its route can be read with from [route].
+     */
+    public fun add(
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS
+    ): Int {
+        val index = size
+        ensureCapacity(index + 1)
+        this.level[index] = level
+        this.srcX[index] = srcX
+        this.srcY[index] = srcY
+        this.destX[index] = destX
+        this.destY[index] = destY
+        this.srcSize[index] = srcSize
+        this.destWidth[index] = destWidth
+        this.destHeight[index] = destHeight
+        this.objRot[index] = objRot
+        this.objShape[index] = objShape
+        this.moveNear[index] = moveNear
+        this.accessBitMask[index] = accessBitMask
+        this.maxTurns[index] = maxTurns
+        routeBuffer(index).clear()
+        size++
+        return index
+    }
+
+    /**
+     * Returns the buffer the route of request [index] is written to; it is
+     * reused for the request at the same index once the batch is cleared.
+     */
+    public fun route(index: Int): RouteBuffer {
+        if (index !in 0 until size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        return routeBuffer(index)
+    }
+
+    public fun clear() {
+        size = 0
+    }
+
+    internal fun routeBuffer(index: Int): RouteBuffer {
+        return routes[index] ?: RouteBuffer(waypoints = waypoints).also { routes[index] = it }
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (srcX.size >= capacity) {
+            return
+        }
+        val newCapacity = maxOf(capacity, srcX.size * 2)
+        level = level.copyOf(newCapacity)
+        srcX = srcX.copyOf(newCapacity)
+        srcY = srcY.copyOf(newCapacity)
+        destX = destX.copyOf(newCapacity)
+        destY = destY.copyOf(newCapacity)
+        srcSize = srcSize.copyOf(newCapacity)
+        destWidth = destWidth.copyOf(newCapacity)
+        destHeight = destHeight.copyOf(newCapacity)
+        objRot = objRot.copyOf(newCapacity)
+        objShape = objShape.copyOf(newCapacity)
+        moveNear = moveNear.copyOf(newCapacity)
+        accessBitMask = accessBitMask.copyOf(newCapacity)
+        maxTurns = maxTurns.copyOf(newCapacity)
+        routes = routes.copyOf(newCapacity)
+    }
+}
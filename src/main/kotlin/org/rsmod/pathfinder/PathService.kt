@@ -0,0 +1,260 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+
+private const val DEFAULT_QUEUE_CAPACITY = 1024
+
+/**
+ * The order [PathService] searches for routes in; requests of a higher
+ * priority are always searched for before the ones of a lower priority.
+ */
+public enum class PathPriority {
+    /** Requests a player waits for, such as clicks. */
+    High,
+    Normal,
+
+    /** Requests nobody waits for, such as wandering NPCs. */
+    Low
+}
+
+/**
+ * Searches for routes on threads of its own, without blocking the caller.
+ *
+ * Every [PathPriority] has a queue of its own that holds at most
+ * [queueCapacity] requests, and workers always take the oldest request of
+ * the highest priority there is; a request made while its queue is full is
+ * rejected straight away, so the caller can hold off instead of piling up
+ * requests that would be stale by the time they are searched for.
+ *
+ * A request that is still queued when its timeout runs out is not searched
+ * for at all: requests that allow moving near the destination get the
+ * route [DumbPathFinder] finds, which only looks at the tiles along the
+ * way, and other requests get a failed route.
+ *
+ * Workers read flags straight from [collisionMap]; flags changed while a
+ * search runs may or may not be seen by it.
+ */
+public class PathService(
+    private val collisionMap: CollisionMap,
+    threads: Int = Runtime.getRuntime().availableProcessors(),
+    public val queueCapacity: Int = DEFAULT_QUEUE_CAPACITY,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    private val collision: CollisionStrategy = CollisionStrategies.Normal
+) : AutoCloseable {
+
+    private val queues = Array(PathPriority.values().size) { ArrayBlockingQueue<PathTask>(queueCapacity) }
+
+    /* A permit for every queued request, which lets workers sleep while there are none. */
+    private val queued = Semaphore(0)
+
+    private val workers: List<Worker>
+
+    @Volatile
+    private var closed = false
+
+    init {
+        require(threads > 0) {
+            "Path service must have at least one thread"
+        }
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        workers = List(threads) { Worker(it) }
+        workers.forEach { it.start() }
+    }
+
+    /**
+     * Queues a search with the same parameters as [SmartPathFinder.findPath],
+     * returning the route it will be completed with. The returned future is
+     * completed on a thread of the service, so anything chained onto it
+     * should not block.
+     *
+     * The request is searched for after every request of a higher [priority],
+     * and gets a fallback route if it is still queued [timeoutMillis] after
+     * being made; the future fails with a [RejectedExecutionException] when
+     * the queue of [priority] is full or the service is closed.
+     */
+    public fun findPath(
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        priority: PathPriority = PathPriority.Normal,
+        timeoutMillis: Long = NO_TIMEOUT
+    ): CompletableFuture<Route> {
+        val deadline = if (timeoutMillis == NO_TIMEOUT) {
+            0L
+        } else {
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+        }
+        val task = PathTask(
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            timeoutMillis != NO_TIMEOUT,
+            deadline
+        )
+        if (closed) {
+            task.completeExceptionally(RejectedExecutionException("Path service is closed"))
+            return task
+        }
+        if (!queues[priority.ordinal].offer(task)) {
+            task.completeExceptionally(RejectedExecutionException("Queue of $priority requests is full"))
+            return task
+        }
+        queued.release()
+        if (closed && queues[priority.ordinal].remove(task)) {
+            task.completeExceptionally(RejectedExecutionException("Path service is closed"))
+        }
+        return task
+    }
+
+    /**
+     * Returns the number of requests of [priority] waiting to be searched for.
+     */
+    public fun queued(priority: PathPriority): Int {
+        return queues[priority.ordinal].size
+    }
+
+    /**
+     * Stops every worker once its current search is done; requests that are
+     * still queued are cancelled.
+     */
+    override fun close() {
+        closed = true
+        workers.forEach { it.interrupt() }
+        workers.forEach { it.join() }
+        for (queue in queues) {
+            while (true) {
+                val task = queue.poll() ?: break
+                task.completeExceptionally(CancellationException("Path service was closed"))
+            }
+        }
+    }
+
+    /*
+     * Every permit stands for a queued request, so one is left for the taking
+     * unless a request made while the service closed was taken back.
+     */
+    private fun take(): PathTask? {
+        queued.acquire()
+        for (queue in queues) {
+            return queue.poll() ?: continue
+        }
+        return null
+    }
+
+    private inner class Worker(index: Int) : Thread("path-service-$index") {
+
+        private val pf = SmartPathFinder(searchMapSize = searchMapSize)
+        private val fallback = DumbPathFinder(searchMapSize)
+
+        init {
+            isDaemon = true
+        }
+
+        override fun run() {
+            while (!closed) {
+                val task = try {
+                    take() ?: continue
+                } catch (e: InterruptedException) {
+                    return
+                }
+                try {
+                    task.complete(search(task))
+                } catch (t: Throwable) {
+                    task.completeExceptionally(t)
+                }
+            }
+        }
+
+        private fun search(task: PathTask): Route {
+            if (task.timed && System.nanoTime() - task.deadline >= 0) {
+                return if (task.moveNear) {
+                    fallback.findPath(
+                        collisionMap,
+                        task.level,
+                        task.srcX,
+                        task.srcY,
+                        task.destX,
+                        task.destY,
+                        task.srcSize,
+                        task.destWidth,
+                        task.destHeight,
+                        collision
+                    )
+                } else {
+                    Route(emptyList(), alternative = false, success = false)
+                }
+            }
+            return pf.findPath(
+                collisionMap,
+                task.level,
+                task.srcX,
+                task.srcY,
+                task.destX,
+                task.destY,
+                task.srcSize,
+                task.destWidth,
+                task.destHeight,
+                task.objRot,
+                task.objShape,
+                task.moveNear,
+                task.accessBitMask,
+                task.maxTurns,
+                collision
+            )
+        }
+    }
+
+    private class PathTask(
+        val level: Int,
+        val srcX: Int,
+        val srcY: Int,
+        val destX: Int,
+        val destY: Int,
+        val srcSize: Int,
+        val destWidth: Int,
+        val destHeight: Int,
+        val objRot: Int,
+        val objShape: Int,
+        val moveNear: Boolean,
+        val accessBitMask: Int,
+        val maxTurns: Int,
+        val timed: Boolean,
+        val deadline: Long
+    ) : CompletableFuture<Route>()
+
+    public companion object {
+
+        /** Timeout of requests that wait for as long as it takes. */
+        public const val NO_TIMEOUT: Long = 0
+    }
+}
@@ -23,6 +23,10 @@
 
 package org.rsmod.pathfinder
 
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.collision.IntArrayFlagView
 import org.rsmod.pathfinder.flag.CollisionFlag.OBJECT_PROJECTILE_BLOCKER
 import org.rsmod.pathfinder.flag.CollisionFlag.WALL_EAST_PROJECTILE_BLOCKER
 import org.rsmod.pathfinder.flag.CollisionFlag.WALL_NORTH_PROJECTILE_BLOCKER
@@ -33,6 +37,9 @@ import kotlin.math.abs
 /* original RuneLite code revised by Scu11 */
 public class ProjectileValidator(public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE) {
 
+    private val arrayFlags = IntArrayFlagView(IntArray(0), searchMapSize)
+    private var mapFlags: CollisionMapFlagView? = null
+
     public fun isValid(
         flags: IntArray,
         srcX: Int,
@@ -47,6 +54,35 @@ public class ProjectileValidator(public val searchMapSize: Int = DEFAULT_SEARCH_
         return route.success
     }
 
+    public fun isValid(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0
+    ): Boolean {
+        val route = rayCast(collisionMap, level, srcX, srcY, destX, destY, srcSize, destWidth, destHeight)
+        return route.success
+    }
+
+    public fun isValid(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0
+    ): Boolean {
+        val route = rayCast(flags, srcX, srcY, destX, destY, srcSize, destWidth, destHeight)
+        return route.success
+    }
+
     public fun rayCast(
         flags: IntArray,
         srcX: Int,
@@ -56,6 +92,46 @@ public class ProjectileValidator(public val searchMapSize: Int = DEFAULT_SEARCH_
         srcSize: Int = 1,
         destWidth: Int = 0,
         destHeight: Int = 0
+    ): Route {
+        arrayFlags.flags = flags
+        return rayCast(arrayFlags, srcX, srcY, destX, destY, srcSize, destWidth, destHeight)
+    }
+
+    public fun rayCast(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0
+    ): Route {
+        val flags = mapFlags(collisionMap, level, srcX, srcY)
+        return rayCast(flags, srcX, srcY, destX, destY, srcSize, destWidth, destHeight)
+    }
+
+    private fun mapFlags(collisionMap: CollisionMap, level: Int, srcX: Int, srcY: Int): FlagView {
+        val baseX = srcX - (searchMapSize / 2)
+        val baseY = srcY - (searchMapSize / 2)
+        val flags = mapFlags ?: CollisionMapFlagView(collisionMap, level, baseX, baseY).also { mapFlags = it }
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        return flags
+    }
+
+    public fun rayCast(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0
     ): Route {
         val halfMap = searchMapSize / 2
         val baseX = srcX - halfMap
@@ -140,16 +216,10 @@ public class ProjectileValidator(public val searchMapSize: Int = DEFAULT_SEARCH_
         }
     }
 
-    private fun IntArray.isFlagged(x: Int, y: Int, flags: Int): Boolean {
+    private fun FlagView.isFlagged(x: Int, y: Int, flags: Int): Boolean {
         return (this[x, y] and flags) != 0
     }
 
-    @Suppress("NOTHING_TO_INLINE")
-    private inline operator fun IntArray.get(x: Int, y: Int): Int {
-        val index = (y * searchMapSize) + x
-        return this[index]
-    }
-
     private companion object {
 
         private const val BLOCKED_NORTH = OBJECT_PROJECTILE_BLOCKER or WALL_NORTH_PROJECTILE_BLOCKER
@@ -0,0 +1,67 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.bound.NO_STRATEGY
+import org.rsmod.pathfinder.bound.WALL_DECO_STRATEGY
+import org.rsmod.pathfinder.bound.WALL_STRATEGY
+import org.rsmod.pathfinder.bound.exitStrategy
+
+/* Bounds wide enough to never limit the area on an axis. */
+private const val UNBOUNDED_MIN = -0xFFFF
+private const val UNBOUNDED_MAX = 0xFFFF
+
+/**
+ * The area the south-west tile of a source has to be within to possibly
+ * reach a destination: the destination can only be reached once the source
+ * is on, or right next to, the tiles it covers.
+ *
+ * [distance] is a lower bound of the steps left to reach the destination
+ * that never drops by more than one per step, which makes it a consistent
+ * heuristic for path finders that expand tiles by estimated route length.
+ */
+internal class ReachArea {
+
+    var minX = 0
+        private set
+
+    var maxX = 0
+        private set
+
+    var minY = 0
+        private set
+
+    var maxY = 0
+        private set
+
+    fun set(destX: Int, destY: Int, srcSize: Int, destWidth: Int, destHeight: Int, objShape: Int) {
+        val strategy = objShape.exitStrategy
+        if (strategy == NO_STRATEGY) {
+            minX = destX
+            maxX = destX
+            minY = destY
+            maxY = destY
+            return
+        }
+        minX = destX - srcSize
+        maxX = destX + maxOf(destWidth, 1)
+        minY = destY - srcSize
+        maxY = destY + maxOf(destHeight, 1)
+        if ((strategy == WALL_STRATEGY || strategy == WALL_DECO_STRATEGY) && srcSize > 1) {
+            /* `reachWall` and `reachWallDeco` accept any larger entity overlapping the wall on the x axis */
+            minY = UNBOUNDED_MIN
+            maxY = UNBOUNDED_MAX
+        }
+    }
+
+    fun set(minX: Int, maxX: Int, minY: Int, maxY: Int) {
+        this.minX = minX
+        this.maxX = maxX
+        this.minY = minY
+        this.maxY = maxY
+    }
+
+    fun distance(x: Int, y: Int): Int {
+        val dx = maxOf(minX - x, x - maxX, 0)
+        val dy = maxOf(minY - y, y - maxY, 0)
+        return maxOf(dx, dy)
+    }
+}
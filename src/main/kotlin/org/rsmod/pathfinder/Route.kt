@@ -10,7 +10,7 @@ public data class Route(
         get() = !success
 }
 
-public inline class RouteCoordinates(private val packed: Int) {
+public inline class RouteCoordinates(internal val packed: Int) {
 
     public val x: Int
         get() = packed and 0xFFFF
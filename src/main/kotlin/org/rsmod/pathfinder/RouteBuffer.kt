@@ -0,0 +1,83 @@
+package org.rsmod.pathfinder
+
+private const val DEFAULT_ROUTE_BUFFER_CAPACITY = 256
+
+/**
+ * A reusable, primitive route output. Route coordinates are stored in
+ * [coords] in the same packed form as [RouteCoordinates], so filling the
+ * buffer does not allocate once it has grown to fit the longest route.
+ *
+ * When [waypoints] is set, only the last tile of every straight section of
+ * the route is stored, much like the checkpoints the game client walks
+ * through; [steps] expands them back into single tiles.
+ */
+public class RouteBuffer(
+    capacity: Int = DEFAULT_ROUTE_BUFFER_CAPACITY,
+    public val waypoints: Boolean = false
+) {
+
+    public var coords: IntArray = IntArray(capacity)
+        private set
+
+    public var size: Int = 0
+        internal set
+
+    public var srcX: Int = 0
+        internal set
+
+    public var srcY: Int = 0
+        internal set
+
+    public var alternative: Boolean = false
+        internal set
+
+    public var success: Boolean = false
+        internal set
+
+    public val failed: Boolean
+        get() = !success
+
+    public val isEmpty: Boolean
+        get() = size == 0
+
+    public operator fun get(index: Int): RouteCoordinates {
+        if (index !in 0 until size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        return RouteCoordinates(coords[index])
+    }
+
+    /**
+     * Returns the tiles of the route one step at a time, starting next to
+     * ([srcX], [srcY]). The steps read from this buffer lazily, so they must
+     * be consumed before the buffer is used for another search.
+     */
+    public fun steps(): RouteSteps = RouteSteps(this, srcX, srcY)
+
+    public fun toRoute(): Route {
+        if (size == 0) {
+            return Route(emptyList(), alternative, success)
+        }
+        val coordinates = ArrayList<RouteCoordinates>(size)
+        for (i in 0 until size) {
+            coordinates.add(RouteCoordinates(coords[i]))
+        }
+        return Route(coordinates, alternative, success)
+    }
+
+    public fun clear() {
+        size = 0
+        alternative = false
+        success = false
+    }
+
+    internal fun ensureCapacity(capacity: Int) {
+        if (coords.size < capacity) {
+            coords = coords.copyOf(maxOf(capacity, coords.size * 2))
+        }
+    }
+
+    override fun toString(): String {
+        return "${javaClass.simpleName}{size=$size, waypoints=$waypoints, alternative=$alternative, success=$success}"
+    }
+}
@@ -0,0 +1,429 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapListener
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+
+private const val DEFAULT_CACHE_CAPACITY = 4096
+private const val NO_ENTRY = -1
+
+private const val ZONE_SHIFT = 3
+
+/*
+ * Every region of 8x8 zones counts the entries whose search maps overlap
+ * it, so that flag changes far from any cached search are dismissed with
+ * a single lookup.
+ */
+private const val REGION_SHIFT = 6
+private const val REGION_AXIS_COUNT = CollisionMap.WORLD_LENGTH shr REGION_SHIFT
+
+private const val MOVE_NEAR_OPTION = 0x1
+private const val WAYPOINTS_OPTION = 0x2
+
+private const val ALTERNATIVE_RESULT = 0x1
+private const val SUCCESS_RESULT = 0x2
+
+/**
+ * Remembers the routes [SmartPathFinder] finds through [collisionMap], so
+ * that a request made again, such as an NPC walking back to its spawn or a
+ * player clicking the same bank booth, is answered without a search.
+ *
+ * Requests are told apart by every parameter of [SmartPathFinder.findPath],
+ * the [CollisionStrategy] included. At most [capacity] routes are kept, as
+ * packed coordinates in primitive arrays; once full, the entry to make room
+ * with is picked by a CLOCK sweep, which passes over entries that were hit
+ * since it last came by.
+ *
+ * Each entry records the zones whose flags its search read, and is dropped
+ * as soon as the flags of a tile in one of those zones change through
+ * [collisionMap]; flags changed anywhere else leave it be. [close] stops
+ * listening for those changes.
+ *
+ * A route cache is not thread-safe.
+ */
+public class RouteCache(
+    private val collisionMap: CollisionMap,
+    public val capacity: Int = DEFAULT_CACHE_CAPACITY,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE
+) : AutoCloseable {
+
+    private val pf = SmartPathFinder(searchMapSize = searchMapSize)
+    private val routeBuffer = RouteBuffer()
+
+    /* Keys of every entry, with one more slot at [capacity] that requests are looked up with. */
+    private val levels = IntArray(capacity + 1)
+    private val srcXs = IntArray(capacity + 1)
+    private val srcYs = IntArray(capacity + 1)
+    private val destXs = IntArray(capacity + 1)
+    private val destYs = IntArray(capacity + 1)
+    private val srcSizes = IntArray(capacity + 1)
+    private val destWidths = IntArray(capacity + 1)
+    private val destHeights = IntArray(capacity + 1)
+    private val objRots = IntArray(capacity + 1)
+    private val objShapes = IntArray(capacity + 1)
+    private val accessBitMasks = IntArray(capacity + 1)
+    private val maxTurns = IntArray(capacity + 1)
+    private val options = IntArray(capacity + 1)
+    private val collisions = arrayOfNulls<CollisionStrategy>(capacity + 1)
+    private val hashes = IntArray(capacity + 1)
+
+    private val routes = arrayOfNulls<IntArray>(capacity)
+    private val routeSizes = IntArray(capacity)
+    private val results = ByteArray(capacity)
+
+    /*
+     * The zones a search can read flags from fit in a square of this many
+     * zones across, starting at ([zoneXs], [zoneYs]); every entry keeps a
+     * bit per zone of its square in [touchedZones].
+     */
+    private val zonesAcross = ((searchMapSize + 2 + (1 shl ZONE_SHIFT) - 1) shr ZONE_SHIFT) + 1
+    private val zoneWords = (zonesAcross * zonesAcross + Long.SIZE_BITS - 1) / Long.SIZE_BITS
+    private val zoneXs = IntArray(capacity)
+    private val zoneYs = IntArray(capacity)
+    private val touchedZones = LongArray(capacity * zoneWords)
+    private val regionEntries = IntArray(REGION_AXIS_COUNT * REGION_AXIS_COUNT * CollisionMap.LEVELS)
+
+    private val buckets = IntArray(Integer.highestOneBit(maxOf(capacity, 1) * 2 - 1) * 2) { NO_ENTRY }
+    private val next = IntArray(capacity)
+    private val used = BooleanArray(capacity)
+    private val referenced = BooleanArray(capacity)
+    private val free = IntArray(capacity) { capacity - 1 - it }
+    private var freeCount = capacity
+    private var hand = 0
+
+    private val listener = CollisionMapListener { x, y, level -> invalidate(x, y, level) }
+
+    public val size: Int
+        get() = capacity - freeCount
+
+    public var hits: Long = 0
+        private set
+
+    public var misses: Long = 0
+        private set
+
+    /** The number of entries dropped to make room for others. */
+    public var evictions: Long = 0
+        private set
+
+    /** The number of entries dropped because flags their search read changed. */
+    public var invalidations: Long = 0
+        private set
+
+    init {
+        require(capacity > 0) {
+            "Capacity must be positive"
+        }
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        collisionMap.addListener(listener)
+    }
+
+    public fun findPath(
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        return findPath(
+            routeBuffer,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        ).toRoute()
+    }
+
+    /**
+     * Writes the route [SmartPathFinder.findPath] finds for the request into
+     * [buffer], from the cache if the same request was made before and the
+     * flags its search read have not changed since.
+     */
+    public fun findPath(
+        buffer: RouteBuffer,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        val probe = capacity
+        levels[probe] = level
+        srcXs[probe] = srcX
+        srcYs[probe] = srcY
+        destXs[probe] = destX
+        destYs[probe] = destY
+        srcSizes[probe] = srcSize
+        destWidths[probe] = destWidth
+        destHeights[probe] = destHeight
+        objRots[probe] = objRot
+        objShapes[probe] = objShape
+        accessBitMasks[probe] = accessBitMask
+        this.maxTurns[probe] = maxTurns
+        options[probe] = (if (moveNear) MOVE_NEAR_OPTION else 0) or (if (buffer.waypoints) WAYPOINTS_OPTION else 0)
+        collisions[probe] = collision
+        val hash = hash(probe)
+        hashes[probe] = hash
+
+        var entry = buckets[hash and (buckets.size - 1)]
+        while (entry != NO_ENTRY) {
+            if (hashes[entry] == hash && sameKey(entry, probe)) {
+                hits++
+                referenced[entry] = true
+                return read(entry, buffer)
+            }
+            entry = next[entry]
+        }
+        misses++
+        pf.findPath(
+            buffer,
+            collisionMap,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        store(probe, buffer)
+        return buffer
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public fun clear() {
+        for (entry in 0 until capacity) {
+            if (used[entry]) {
+                remove(entry)
+            }
+        }
+    }
+
+    override fun close() {
+        collisionMap.removeListener(listener)
+    }
+
+    private fun read(entry: Int, buffer: RouteBuffer): RouteBuffer {
+        val size = routeSizes[entry]
+        buffer.clear()
+        buffer.srcX = srcXs[entry]
+        buffer.srcY = srcYs[entry]
+        buffer.ensureCapacity(size)
+        routes[entry]?.copyInto(buffer.coords, 0, 0, size)
+        buffer.size = size
+        buffer.alternative = (results[entry].toInt() and ALTERNATIVE_RESULT) != 0
+        buffer.success = (results[entry].toInt() and SUCCESS_RESULT) != 0
+        return buffer
+    }
+
+    private fun store(probe: Int, buffer: RouteBuffer) {
+        val entry = allocate()
+        levels[entry] = levels[probe]
+        srcXs[entry] = srcXs[probe]
+        srcYs[entry] = srcYs[probe]
+        destXs[entry] = destXs[probe]
+        destYs[entry] = destYs[probe]
+        srcSizes[entry] = srcSizes[probe]
+        destWidths[entry] = destWidths[probe]
+        destHeights[entry] = destHeights[probe]
+        objRots[entry] = objRots[probe]
+        objShapes[entry] = objShapes[probe]
+        accessBitMasks[entry] = accessBitMasks[probe]
+        maxTurns[entry] = maxTurns[probe]
+        options[entry] = options[probe]
+        collisions[entry] = collisions[probe]
+        hashes[entry] = hashes[probe]
+
+        val size = buffer.size
+        val route = routes[entry]?.takeIf { it.size >= size } ?: IntArray(size).also { routes[entry] = it }
+        buffer.coords.copyInto(route, 0, 0, size)
+        routeSizes[entry] = size
+        val alternative = if (buffer.alternative) ALTERNATIVE_RESULT else 0
+        val success = if (buffer.success) SUCCESS_RESULT else 0
+        results[entry] = (alternative or success).toByte()
+
+        markTouchedZones(entry)
+        val bucket = hashes[entry] and (buckets.size - 1)
+        next[entry] = buckets[bucket]
+        buckets[bucket] = entry
+        used[entry] = true
+        referenced[entry] = false
+        countRegions(entry, 1)
+    }
+
+    /*
+     * Marks the zones of every tile the search just run read flags from,
+     * which are the tiles around each tile it expanded, as far as the size
+     * of the source reaches.
+     */
+    private fun markTouchedZones(entry: Int) {
+        val baseX = srcXs[entry] - (searchMapSize / 2)
+        val baseY = srcYs[entry] - (searchMapSize / 2)
+        val zoneX = (baseX - 1) shr ZONE_SHIFT
+        val zoneY = (baseY - 1) shr ZONE_SHIFT
+        zoneXs[entry] = zoneX
+        zoneYs[entry] = zoneY
+        val words = entry * zoneWords
+        touchedZones.fill(0L, words, words + zoneWords)
+        val srcSize = srcSizes[entry]
+        for (i in 0 until pf.expandedNodes) {
+            val coords = pf.expandedTile(i)
+            val x = baseX + (coords and QUEUE_COORD_MASK)
+            val y = baseY + (coords shr QUEUE_COORD_SHIFT)
+            for (zy in ((y - 1) shr ZONE_SHIFT)..((y + srcSize) shr ZONE_SHIFT)) {
+                for (zx in ((x - 1) shr ZONE_SHIFT)..((x + srcSize) shr ZONE_SHIFT)) {
+                    val bit = ((zy - zoneY) * zonesAcross) + (zx - zoneX)
+                    touchedZones[words + (bit ushr 6)] = touchedZones[words + (bit ushr 6)] or (1L shl bit)
+                }
+            }
+        }
+    }
+
+    private fun allocate(): Int {
+        if (freeCount > 0) {
+            return free[--freeCount]
+        }
+        while (referenced[hand]) {
+            referenced[hand] = false
+            hand = (hand + 1) % capacity
+        }
+        val victim = hand
+        hand = (hand + 1) % capacity
+        remove(victim)
+        evictions++
+        return free[--freeCount]
+    }
+
+    private fun remove(entry: Int) {
+        val bucket = hashes[entry] and (buckets.size - 1)
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = next[entry]
+        } else {
+            var previous = buckets[bucket]
+            while (next[previous] != entry) {
+                previous = next[previous]
+            }
+            next[previous] = next[entry]
+        }
+        countRegions(entry, -1)
+        used[entry] = false
+        collisions[entry] = null
+        free[freeCount++] = entry
+    }
+
+    private fun invalidate(x: Int, y: Int, level: Int) {
+        if (regionEntries[region(x shr REGION_SHIFT, y shr REGION_SHIFT, level)] == 0) {
+            return
+        }
+        val zoneX = x shr ZONE_SHIFT
+        val zoneY = y shr ZONE_SHIFT
+        for (entry in 0 until capacity) {
+            if (!used[entry] || levels[entry] != level) {
+                continue
+            }
+            val dx = zoneX - zoneXs[entry]
+            val dy = zoneY - zoneYs[entry]
+            if (dx !in 0 until zonesAcross || dy !in 0 until zonesAcross) {
+                continue
+            }
+            val bit = (dy * zonesAcross) + dx
+            if ((touchedZones[(entry * zoneWords) + (bit ushr 6)] and (1L shl bit)) != 0L) {
+                remove(entry)
+                invalidations++
+            }
+        }
+    }
+
+    private fun countRegions(entry: Int, count: Int) {
+        val last = REGION_AXIS_COUNT - 1
+        val shift = REGION_SHIFT - ZONE_SHIFT
+        val minRegionX = (zoneXs[entry] shr shift).coerceIn(0, last)
+        val minRegionY = (zoneYs[entry] shr shift).coerceIn(0, last)
+        val maxRegionX = ((zoneXs[entry] + zonesAcross - 1) shr shift).coerceIn(0, last)
+        val maxRegionY = ((zoneYs[entry] + zonesAcross - 1) shr shift).coerceIn(0, last)
+        for (regionY in minRegionY..maxRegionY) {
+            for (regionX in minRegionX..maxRegionX) {
+                regionEntries[region(regionX, regionY, levels[entry])] += count
+            }
+        }
+    }
+
+    private fun region(regionX: Int, regionY: Int, level: Int): Int {
+        return (((level * REGION_AXIS_COUNT) + regionY) * REGION_AXIS_COUNT) + regionX
+    }
+
+    private fun hash(entry: Int): Int {
+        var hash = levels[entry]
+        hash = (hash * 31) + srcXs[entry]
+        hash = (hash * 31) + srcYs[entry]
+        hash = (hash * 31) + destXs[entry]
+        hash = (hash * 31) + destYs[entry]
+        hash = (hash * 31) + srcSizes[entry]
+        hash = (hash * 31) + destWidths[entry]
+        hash = (hash * 31) + destHeights[entry]
+        hash = (hash * 31) + objRots[entry]
+        hash = (hash * 31) + objShapes[entry]
+        hash = (hash * 31) + accessBitMasks[entry]
+        hash = (hash * 31) + maxTurns[entry]
+        hash = (hash * 31) + options[entry]
+        hash = (hash * 31) + System.identityHashCode(collisions[entry])
+        return hash xor (hash ushr 16)
+    }
+
+    private fun sameKey(entry: Int, other: Int): Boolean {
+        return levels[entry] == levels[other] &&
+            srcXs[entry] == srcXs[other] &&
+            srcYs[entry] == srcYs[other] &&
+            destXs[entry] == destXs[other] &&
+            destYs[entry] == destYs[other] &&
+            srcSizes[entry] == srcSizes[other] &&
+            destWidths[entry] == destWidths[other] &&
+            destHeights[entry] == destHeights[other] &&
+            objRots[entry] == objRots[other] &&
+            objShapes[entry] == objShapes[other] &&
+            accessBitMasks[entry] == accessBitMasks[other] &&
+            maxTurns[entry] == maxTurns[other] &&
+            options[entry] == options[other] &&
+            collisions[entry] === collisions[other]
+    }
+}
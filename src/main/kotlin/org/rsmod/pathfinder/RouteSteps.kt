@@ -0,0 +1,33 @@
+package org.rsmod.pathfinder
+
+/**
+ * Expands the coordinates of a [RouteBuffer] into single tiles as they are
+ * consumed. Every section of a route is a straight cardinal or diagonal
+ * line, so stepping towards the next coordinate one tile at a time walks
+ * the exact tiles of the route.
+ */
+public class RouteSteps internal constructor(
+    private val buffer: RouteBuffer,
+    private var x: Int,
+    private var y: Int
+) {
+
+    private var index = 0
+
+    public operator fun iterator(): RouteSteps = this
+
+    public operator fun hasNext(): Boolean = index < buffer.size
+
+    public operator fun next(): RouteCoordinates {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        val target = RouteCoordinates(buffer.coords[index])
+        x += Integer.signum(target.x - x)
+        y += Integer.signum(target.y - y)
+        if (x == target.x && y == target.y) {
+            index++
+        }
+        return RouteCoordinates(x, y)
+    }
+}
@@ -0,0 +1,147 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+
+public enum class SearchStatus {
+    /** The search has tiles left to expand; [SearchHandle.step] carries on with it. */
+    InProgress,
+
+    /** The destination was reached. */
+    Found,
+
+    /** Every tile the source could reach was expanded without reaching the destination. */
+    Failed
+}
+
+/**
+ * A search that is expanded a few tiles at a time rather than in one go, so
+ * that a search through a maze, or towards a destination that cannot be
+ * reached, can be spread across several game ticks.
+ *
+ * A search is [start]ed with the same parameters as [SmartPathFinder.findPath]
+ * and then [step]ped until it is no longer [SearchStatus.InProgress]; its
+ * [route] is the same route [SmartPathFinder.findPath] finds, provided the
+ * flags it reads from do not change in between steps.
+ *
+ * A handle keeps a search map of its own, and can be reused by starting
+ * another search once the previous one is no longer needed.
+ */
+public class SearchHandle(
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE
+) {
+
+    private val pf = SmartPathFinder(searchMapSize = searchMapSize)
+    private var buffer: RouteBuffer? = null
+
+    private var flags: FlagView? = null
+    private var srcX = 0
+    private var srcY = 0
+    private var destX = 0
+    private var destY = 0
+    private var srcSize = 1
+    private var destWidth = 0
+    private var destHeight = 0
+    private var objRot = 0
+    private var objShape = -1
+    private var moveNear = true
+    private var accessBitMask = 0
+    private var maxTurns = DEFAULT_MAX_TURNS
+    private var collision: CollisionStrategy = CollisionStrategies.Normal
+
+    public var status: SearchStatus = SearchStatus.Failed
+        private set
+
+    /** The number of tiles expanded by the current search so far. */
+    public val expandedNodes: Int
+        get() = pf.expandedNodes
+
+    public fun start(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): SearchHandle {
+        flags = pf.mapFlags(collisionMap, level, srcX, srcY)
+        this.srcX = srcX
+        this.srcY = srcY
+        this.destX = destX
+        this.destY = destY
+        this.srcSize = srcSize
+        this.destWidth = destWidth
+        this.destHeight = destHeight
+        this.objRot = objRot
+        this.objShape = objShape
+        this.moveNear = moveNear
+        this.accessBitMask = accessBitMask
+        this.maxTurns = maxTurns
+        this.collision = collision
+        pf.start(srcX, srcY)
+        status = SearchStatus.InProgress
+        return this
+    }
+
+    /**
+     * Expands at most [maxNodes] more tiles of the search, and returns its
+     * [status] afterwards. Stepping a search that is no longer in progress
+     * does nothing.
+     */
+    public fun step(maxNodes: Int): SearchStatus {
+        require(maxNodes > 0) {
+            "Max nodes must be positive"
+        }
+        if (status != SearchStatus.InProgress) {
+            return status
+        }
+        val flags = flags ?: error("Search has not been started")
+        status = pf.step(
+            flags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision,
+            maxNodes
+        )
+        return status
+    }
+
+    /**
+     * Writes the route of a search that has ended into [buffer]; a failed
+     * search gets the alternative route [SmartPathFinder.findPath] would
+     * have moved near the destination with.
+     */
+    public fun route(buffer: RouteBuffer): RouteBuffer {
+        if (flags == null) {
+            error("Search has not been started")
+        }
+        if (status == SearchStatus.InProgress) {
+            error("Search is still in progress")
+        }
+        return pf.complete(buffer, status == SearchStatus.Found, srcX, srcY, destX, destY, moveNear, maxTurns)
+    }
+
+    public fun route(): Route {
+        val buffer = buffer ?: RouteBuffer().also { buffer = it }
+        return route(buffer).toRoute()
+    }
+}
@@ -0,0 +1,42 @@
+package org.rsmod.pathfinder
+
+/**
+ * Limits that end a search of [SmartPathFinder] before it floods the whole
+ * search map, such as for NPCs that wander within a small range, or that
+ * give up on targets more than a few steps away.
+ *
+ * - [maxDistance] is the most steps a route may take; tiles further away
+ * are never expanded.
+ * - [maxNodes] is the most tiles the search expands before it gives up.
+ * - [minX], [minY], [maxX] and [maxY] bound, in world coordinates, the
+ * tiles the south-west tile of the source may step onto. A source outside
+ * of the rectangle may only step towards it.
+ *
+ * A search that ends on a limit before reaching its destination moves near
+ * it, if allowed, through the tiles it did visit. A search that ends before
+ * any limit is hit finds the same route as a search without limits.
+ *
+ * Limits hold no state of their own, so a single instance can be shared by
+ * every search with the same limits.
+ */
+public class SearchLimits(
+    public val maxDistance: Int = Int.MAX_VALUE,
+    public val maxNodes: Int = Int.MAX_VALUE,
+    public val minX: Int = Int.MIN_VALUE,
+    public val minY: Int = Int.MIN_VALUE,
+    public val maxX: Int = Int.MAX_VALUE,
+    public val maxY: Int = Int.MAX_VALUE
+) {
+
+    init {
+        require(maxDistance >= 0) {
+            "Max distance must not be negative"
+        }
+        require(maxNodes > 0) {
+            "Max nodes must be at least one"
+        }
+        require(minX <= maxX && minY <= maxY) {
+            "Bounds must not be empty"
+        }
+    }
+}
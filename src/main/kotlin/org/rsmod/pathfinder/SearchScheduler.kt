@@ -0,0 +1,231 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import java.util.ArrayDeque
+
+private const val DEFAULT_STARVATION_TICKS = 10
+
+/*
+ * The fewest nodes a search is stepped by at once; splitting the budget of
+ * a tick any finer would spend more time switching between searches than
+ * expanding them.
+ */
+private const val MIN_SLICE_NODES = 32
+
+/**
+ * Runs every path search of the game within a global budget of [nodesPerTick]
+ * expanded tiles per game tick, so that the time spent on path finding stays
+ * bounded however many searches are made at once.
+ *
+ * Searches are [submit]ted at any time and expanded by [process], which is
+ * to be called once per tick. The budget of a tick is shared evenly between
+ * the searches that are pending, and whatever a search that ends early does
+ * not use is shared between the rest; searches that are not done by the end
+ * of the tick carry on where they left off the next tick, with the ones
+ * that got no share at all going first.
+ *
+ * A search still pending [starvationTicks] ticks after being submitted is
+ * counted as starved, which is a sign the budget is too small for the load.
+ *
+ * Every search keeps a [SearchHandle], and with it a search map, from the
+ * tick it is first expanded until it ends; handles are reused afterwards.
+ */
+public class SearchScheduler(
+    public val nodesPerTick: Int,
+    public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
+    public val starvationTicks: Int = DEFAULT_STARVATION_TICKS
+) {
+
+    private val pending = ArrayDeque<PendingSearch>()
+    private val handles = ArrayList<SearchHandle>()
+    private val buffer = RouteBuffer()
+
+    /** The number of times [process] has been called. */
+    public var tick: Long = 0
+        private set
+
+    /** The number of searches that are submitted but have not ended yet. */
+    public val pendingSearches: Int
+        get() = pending.size
+
+    /** The number of tiles expanded during the last tick. */
+    public var lastTickNodes: Int = 0
+        private set
+
+    /** The number of tiles expanded over every tick. */
+    public var expandedNodes: Long = 0
+        private set
+
+    /** The number of times a search was left pending at the end of a tick. */
+    public var deferredSearches: Long = 0
+        private set
+
+    /** The number of searches that have ended. */
+    public var completedSearches: Long = 0
+        private set
+
+    /** The number of ticks every search that has ended took to end, added up. */
+    public var completionTicks: Long = 0
+        private set
+
+    /** The most ticks any search that has ended took to end. */
+    public var maxCompletionTicks: Int = 0
+        private set
+
+    /** The number of searches that were still pending [starvationTicks] ticks after being submitted. */
+    public var starvedSearches: Long = 0
+        private set
+
+    init {
+        require(nodesPerTick > 0) {
+            "Nodes per tick must be positive"
+        }
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+        require(starvationTicks > 0) {
+            "Starvation ticks must be positive"
+        }
+    }
+
+    /**
+     * Submits a search with the same parameters as [SmartPathFinder.findPath].
+     * Once the search ends, [onComplete] is called from [process] with a
+     * buffer holding its route, which is reused as soon as [onComplete]
+     * returns.
+     */
+    public fun submit(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        onComplete: (RouteBuffer) -> Unit
+    ) {
+        pending.addLast(
+            PendingSearch(
+                collisionMap,
+                level,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                srcSize,
+                destWidth,
+                destHeight,
+                objRot,
+                objShape,
+                moveNear,
+                accessBitMask,
+                maxTurns,
+                collision,
+                onComplete,
+                tick
+            )
+        )
+    }
+
+    /**
+     * Expands pending searches by up to [nodesPerTick] tiles in total, and
+     * calls back every search that ends.
+     */
+    public fun process() {
+        var remaining = nodesPerTick
+        while (remaining > 0 && pending.isNotEmpty()) {
+            /* every pending search is visited at most once per pass */
+            var left = pending.size
+            while (left > 0 && remaining > 0) {
+                val share = minOf(maxOf(remaining / left, MIN_SLICE_NODES), remaining)
+                val search = pending.pollFirst()
+                left--
+                val handle = search.handle ?: start(search)
+                val expanded = handle.expandedNodes
+                val status = handle.step(share)
+                remaining -= handle.expandedNodes - expanded
+                if (status == SearchStatus.InProgress) {
+                    pending.addLast(search)
+                } else {
+                    complete(search, handle)
+                }
+            }
+        }
+        lastTickNodes = nodesPerTick - remaining
+        expandedNodes += lastTickNodes
+        deferredSearches += pending.size
+        for (search in pending) {
+            if (!search.starved && tick - search.submitTick + 1 >= starvationTicks) {
+                search.starved = true
+                starvedSearches++
+            }
+        }
+        tick++
+    }
+
+    private fun start(search: PendingSearch): SearchHandle {
+        val handle = if (handles.isEmpty()) SearchHandle(searchMapSize) else handles.removeAt(handles.size - 1)
+        search.handle = handle
+        return handle.start(
+            search.collisionMap,
+            search.level,
+            search.srcX,
+            search.srcY,
+            search.destX,
+            search.destY,
+            search.srcSize,
+            search.destWidth,
+            search.destHeight,
+            search.objRot,
+            search.objShape,
+            search.moveNear,
+            search.accessBitMask,
+            search.maxTurns,
+            search.collision
+        )
+    }
+
+    private fun complete(search: PendingSearch, handle: SearchHandle) {
+        val ticks = (tick - search.submitTick).toInt()
+        completedSearches++
+        completionTicks += ticks
+        maxCompletionTicks = maxOf(maxCompletionTicks, ticks)
+        handle.route(buffer)
+        search.handle = null
+        handles.add(handle)
+        search.onComplete(buffer)
+    }
+
+    private class PendingSearch(
+        val collisionMap: CollisionMap,
+        val level: Int,
+        val srcX: Int,
+        val srcY: Int,
+        val destX: Int,
+        val destY: Int,
+        val srcSize: Int,
+        val destWidth: Int,
+        val destHeight: Int,
+        val objRot: Int,
+        val objShape: Int,
+        val moveNear: Boolean,
+        val accessBitMask: Int,
+        val maxTurns: Int,
+        val collision: CollisionStrategy,
+        val onComplete: (RouteBuffer) -> Unit,
+        val submitTick: Long
+    ) {
+        var handle: SearchHandle? = null
+        var starved = false
+    }
+}
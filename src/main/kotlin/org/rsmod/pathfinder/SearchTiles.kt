@@ -0,0 +1,200 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.flag.DirectionFlag
+import kotlin.math.abs
+
+internal const val DEFAULT_SRC_DIRECTION_VALUE = 0xF
+
+/*
+ * Each tile of a search map is packed into a single int so that a visit
+ * only ever touches one cache line:
+ * bits 0-3 hold the direction, bits 4-19 the distance and bits 20-31 the
+ * epoch of the search that last visited the tile.
+ */
+internal const val DIRECTION_MASK = 0xF
+internal const val DISTANCE_SHIFT = 4
+internal const val DISTANCE_MASK = 0xFFFF
+internal const val EPOCH_SHIFT = 20
+internal const val MAX_EPOCH = 0xFFF
+
+/* Queued coordinates are packed as `x | (y << 8)`. */
+internal const val QUEUE_COORD_SHIFT = 8
+internal const val QUEUE_COORD_MASK = 0xFF
+
+/* Route tiles are briefly held as local `x | (y << 16)` while the route is written. */
+private const val ROUTE_LOCAL_COORD_SHIFT = 16
+private const val ROUTE_LOCAL_COORD_MASK = 0xFFFF
+
+private const val MAX_ALTERNATIVE_ROUTE_LOWEST_COST = 1000
+internal const val MAX_ALTERNATIVE_ROUTE_SEEK_RANGE = 100
+internal const val MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION = 10
+
+/*
+ * Writes the route that ends at [endX], [endY] into [buffer].
+ * The distance of every tile on the route is its one-based position in the
+ * route, so the route can be walked backwards straight into place; turns
+ * are then counted front to back to drop everything past [maxTurns].
+ */
+internal fun writeRoute(
+    tiles: IntArray,
+    searchMapSize: Int,
+    buffer: RouteBuffer,
+    endX: Int,
+    endY: Int,
+    baseX: Int,
+    baseY: Int,
+    maxTurns: Int
+) {
+    if (buffer.waypoints) {
+        writeWaypoints(tiles, searchMapSize, buffer, endX, endY, baseX, baseY, maxTurns)
+        return
+    }
+    val length = tiles.distance(searchMapSize, endX, endY)
+    buffer.ensureCapacity(length)
+    val coords = buffer.coords
+    var x = endX
+    var y = endY
+    for (i in length - 1 downTo 0) {
+        coords[i] = x or (y shl ROUTE_LOCAL_COORD_SHIFT)
+        val dir = tiles.direction(searchMapSize, x, y)
+        x = x.stepBackX(dir)
+        y = y.stepBackY(dir)
+    }
+    var size = length
+    var currDir = -1
+    var turns = 0
+    for (i in 0 until length) {
+        val local = coords[i]
+        val localX = local and ROUTE_LOCAL_COORD_MASK
+        val localY = local ushr ROUTE_LOCAL_COORD_SHIFT
+        val dir = tiles.direction(searchMapSize, localX, localY)
+        if (dir != currDir) {
+            if (++turns > maxTurns + 1) {
+                size = i
+                break
+            }
+            currDir = dir
+        }
+        coords[i] = RouteCoordinates(localX + baseX, localY + baseY).packed
+    }
+    buffer.size = size
+}
+
+/*
+ * Writes only the last tile of every straight section of the route, the
+ * same checkpoints the game client keeps for its movement queue. The route
+ * is walked backwards twice: once to count the sections and once to write
+ * them into place.
+ */
+private fun writeWaypoints(
+    tiles: IntArray,
+    searchMapSize: Int,
+    buffer: RouteBuffer,
+    endX: Int,
+    endY: Int,
+    baseX: Int,
+    baseY: Int,
+    maxTurns: Int
+) {
+    val length = tiles.distance(searchMapSize, endX, endY)
+    var sections = 0
+    var x = endX
+    var y = endY
+    var currDir = -1
+    for (i in length downTo 1) {
+        val dir = tiles.direction(searchMapSize, x, y)
+        if (dir != currDir) {
+            sections++
+            currDir = dir
+        }
+        x = x.stepBackX(dir)
+        y = y.stepBackY(dir)
+    }
+    buffer.ensureCapacity(sections)
+    val coords = buffer.coords
+    var index = sections
+    x = endX
+    y = endY
+    currDir = -1
+    for (i in length downTo 1) {
+        val dir = tiles.direction(searchMapSize, x, y)
+        if (dir != currDir) {
+            coords[--index] = RouteCoordinates(x + baseX, y + baseY).packed
+            currDir = dir
+        }
+        x = x.stepBackX(dir)
+        y = y.stepBackY(dir)
+    }
+    buffer.size = minOf(sections, maxTurns + 1)
+}
+
+/*
+ * Looks for the visited tile closest to the destination to route to instead,
+ * returning it packed as `x | (y << 8)`, or -1 if there is none other than
+ * the source tile itself.
+ */
+internal fun findClosestApproachPoint(
+    tiles: IntArray,
+    searchMapSize: Int,
+    epoch: Int,
+    srcX: Int,
+    srcY: Int,
+    destX: Int,
+    destY: Int
+): Int {
+    var lowestCost = MAX_ALTERNATIVE_ROUTE_LOWEST_COST
+    var maxAlternativePath = MAX_ALTERNATIVE_ROUTE_SEEK_RANGE
+    var closestX = srcX
+    var closestY = srcY
+    val alternativeRouteRange = MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION
+    for (x in destX - alternativeRouteRange..destX + alternativeRouteRange) {
+        for (y in destY - alternativeRouteRange..destY + alternativeRouteRange) {
+            if (x !in 0 until searchMapSize ||
+                y !in 0 until searchMapSize ||
+                (tiles[(y * searchMapSize) + x] ushr EPOCH_SHIFT) != epoch
+            ) {
+                continue
+            }
+            val distance = tiles.distance(searchMapSize, x, y)
+            if (distance >= MAX_ALTERNATIVE_ROUTE_SEEK_RANGE) {
+                continue
+            }
+            val dx = abs(destX - x)
+            val dy = abs(destY - y)
+            val cost = dx * dx + dy * dy
+            if (cost < lowestCost || (cost == lowestCost && maxAlternativePath > distance)) {
+                closestX = x
+                closestY = y
+                lowestCost = cost
+                maxAlternativePath = distance
+            }
+        }
+    }
+    if (lowestCost == MAX_ALTERNATIVE_ROUTE_LOWEST_COST || (srcX == closestX && srcY == closestY)) {
+        return -1
+    }
+    return closestX or (closestY shl QUEUE_COORD_SHIFT)
+}
+
+@Suppress("NOTHING_TO_INLINE")
+private inline fun IntArray.direction(searchMapSize: Int, x: Int, y: Int): Int {
+    return this[(y * searchMapSize) + x] and DIRECTION_MASK
+}
+
+@Suppress("NOTHING_TO_INLINE")
+private inline fun IntArray.distance(searchMapSize: Int, x: Int, y: Int): Int {
+    return (this[(y * searchMapSize) + x] ushr DISTANCE_SHIFT) and DISTANCE_MASK
+}
+
+/* Steps from a route tile back towards the tile it was visited from. */
+private fun Int.stepBackX(dir: Int): Int = when {
+    (dir and DirectionFlag.EAST) != 0 -> this + 1
+    (dir and DirectionFlag.WEST) != 0 -> this - 1
+    else -> this
+}
+
+private fun Int.stepBackY(dir: Int): Int = when {
+    (dir and DirectionFlag.NORTH) != 0 -> this + 1
+    (dir and DirectionFlag.SOUTH) != 0 -> this - 1
+    else -> this
+}
@@ -1,53 +1,98 @@
 package org.rsmod.pathfinder
 
-import org.rsmod.pathfinder.bound.reachRectangle
-import org.rsmod.pathfinder.bound.reachWall
-import org.rsmod.pathfinder.bound.reachWallDeco
+import org.rsmod.pathfinder.bound.reached
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
 import org.rsmod.pathfinder.collision.CollisionStrategies
 import org.rsmod.pathfinder.collision.CollisionStrategy
+import org.rsmod.pathfinder.collision.FlagView
+import org.rsmod.pathfinder.collision.IntArrayFlagView
+import org.rsmod.pathfinder.collision.OffsetFlagView
+import org.rsmod.pathfinder.collision.zoneFlag
 import org.rsmod.pathfinder.flag.CollisionFlag
 import org.rsmod.pathfinder.flag.DirectionFlag
 import java.util.Arrays
-import kotlin.collections.ArrayList
-import kotlin.math.abs
 
 private const val DEFAULT_RESET_ON_SEARCH = true
+private const val DEFAULT_USE_BITBOARDS = false
 internal const val DEFAULT_SEARCH_MAP_SIZE = 128
-private const val DEFAULT_RING_BUFFER_SIZE = 4096
-private const val DEFAULT_MAX_TURNS = 24
-
-private const val DEFAULT_DISTANCE_VALUE = 99999999
-private const val DEFAULT_SRC_DIRECTION_VALUE = 99
-
-private const val MAX_ALTERNATIVE_ROUTE_LOWEST_COST = 1000
-private const val MAX_ALTERNATIVE_ROUTE_SEEK_RANGE = 100
-private const val MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION = 10
-
-private const val WALL_STRATEGY = 0
-private const val WALL_DECO_STRATEGY = 1
-private const val RECTANGLE_STRATEGY = 2
-private const val NO_STRATEGY = 3
+internal const val MAX_SEARCH_MAP_SIZE = 256
+internal const val DEFAULT_MAX_TURNS = 24
 
 /*
- * For optimization, we use this value to separate each section
- * where the list of route coordinates made a turn in any direction.
+ * Tiles a search expands reading flags straight from the zones of a collision
+ * map; searches that flood further copy the window, and read from the copy.
  */
-private val TURN_COORDS = RouteCoordinates(0)
+private const val ZONE_SEARCH_NODES = 1024
 
 public class SmartPathFinder(
     private val resetOnSearch: Boolean = DEFAULT_RESET_ON_SEARCH,
     public val searchMapSize: Int = DEFAULT_SEARCH_MAP_SIZE,
-    private val ringBufferSize: Int = DEFAULT_RING_BUFFER_SIZE,
-    private val directions: IntArray = IntArray(searchMapSize * searchMapSize),
-    private val distances: IntArray = IntArray(searchMapSize * searchMapSize) { DEFAULT_DISTANCE_VALUE },
-    private val validLocalX: IntArray = IntArray(ringBufferSize),
-    private val validLocalY: IntArray = IntArray(ringBufferSize),
+    private val tiles: IntArray = IntArray(searchMapSize * searchMapSize),
+    private var epoch: Int = 1,
+    /*
+     * Every tile is queued at most once per epoch, so a queue as large as the
+     * search map can never overwrite entries that have not been read yet.
+     */
+    private val queue: CharArray = CharArray(searchMapSize * searchMapSize),
     private var bufReaderIndex: Int = 0,
     private var bufWriterIndex: Int = 0,
     private var currLocalX: Int = 0,
-    private var currLocalY: Int = 0
+    private var currLocalY: Int = 0,
+    /*
+     * Searches size 1 and size 2 sources by expanding whole wavefronts of
+     * bitboards rather than a tile at a time, reading every flag of the rows
+     * the search gets close to once. This pays off for searches that flood
+     * most of the search map, such as destinations that cannot be reached;
+     * searches that reset, and do not go by an [ExitMaskMap], find the same
+     * routes either way.
+     */
+    private val useBitboards: Boolean = DEFAULT_USE_BITBOARDS
 ) {
 
+    private val arrayFlags = IntArrayFlagView(IntArray(0), searchMapSize)
+    private var mapFlags: CollisionMapFlagView? = null
+    private var windowFlags: IntArrayFlagView? = null
+    private var routeBuffer: RouteBuffer? = null
+    private var reachArea: ReachArea? = null
+    private var approachFinder: AStarPathFinder? = null
+    private var bitboards: BitboardSearch? = null
+    private var bitboardSearched = false
+
+    /* Clearances of the current search, if any, with the world coordinates of its local origin. */
+    private var clearance: ClearanceMap? = null
+    private var clearanceBaseX = 0
+    private var clearanceBaseY = 0
+
+    /* Kernels stop once the queue has been read up to here, which lets a [SearchHandle] resume them later. */
+    private var nodeLimit = Int.MAX_VALUE
+
+    /* Destinations of the current search when it looks for several at once, and the index of the one reached. */
+    private var destinations: PathDestinations? = null
+    private var destinationIndex = -1
+
+    /*
+     * Local bounds of the tiles the current search may step onto, and the distance it stops expanding at;
+     * kernels further bound the tiles to the search map.
+     */
+    private var limitMinX = 0
+    private var limitMinY = 0
+    private var limitMaxX = Int.MAX_VALUE
+    private var limitMaxY = Int.MAX_VALUE
+    private var distanceLimit = Int.MAX_VALUE
+
+    internal val expandedNodes: Int
+        get() = bufReaderIndex
+
+    /* Local coordinates of the tile the last search expanded at [index], packed as they are queued. */
+    internal fun expandedTile(index: Int): Int = queue[index].toInt()
+
+    init {
+        require(searchMapSize in 1..MAX_SEARCH_MAP_SIZE) {
+            "Search map size must be in range [1, $MAX_SEARCH_MAP_SIZE]"
+        }
+    }
+
     public fun findPath(
         flags: IntArray,
         srcX: Int,
@@ -64,20 +109,814 @@ public class SmartPathFinder(
         maxTurns: Int = DEFAULT_MAX_TURNS,
         collision: CollisionStrategy = CollisionStrategies.Normal
     ): Route {
-        require(flags.size == directions.size) {
-            "Clipping flag size must be same size as [directions] and [distances]"
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    /**
+     * Calculates a route by reading the collision flags straight from [collisionMap],
+     * without the need of copying a [searchMapSize] window of flags beforehand.
+     *
+     * When [components] covers the search map of a size 1 source, a destination
+     * in a component of its own is not searched for; the route goes straight
+     * to the closest approach point instead. When [exits] covers the search map
+     * for the size of the source, the directions to search in are looked up in
+     * it rather than worked out from the flags of every tile. When [clearance]
+     * covers the search map, sources larger than two tiles check the inner tiles
+     * along their edges with a single lookup. When [limits] are given, the search
+     * ends once it hits any of them, and [components] is not looked at.
+     */
+    public fun findPath(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        components: ComponentMap? = null,
+        exits: ExitMaskMap? = null,
+        clearance: ClearanceMap? = null,
+        limits: SearchLimits? = null
+    ): Route {
+        val buffer = routeBuffer ?: RouteBuffer().also { routeBuffer = it }
+        findPath(
+            buffer,
+            collisionMap,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision,
+            components,
+            exits,
+            clearance,
+            limits
+        )
+        return buffer.toRoute()
+    }
+
+    /**
+     * Calculates a route by reading the collision flags through [flags], which
+     * must be positioned with its local origin at `(srcX - searchMapSize / 2, srcY - searchMapSize / 2)`.
+     */
+    public fun findPath(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): Route {
+        val buffer = routeBuffer ?: RouteBuffer().also { routeBuffer = it }
+        findPath(
+            buffer,
+            flags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+        return buffer.toRoute()
+    }
+
+    /**
+     * Calculates a route into [buffer] rather than a newly allocated [Route];
+     * once [buffer] has grown to fit the longest route, finding paths does not
+     * allocate.
+     */
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: IntArray,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        require(flags.size == tiles.size) {
+            "Clipping flag size must be [searchMapSize] * [searchMapSize]"
+        }
+        arrayFlags.flags = flags
+        return findPath(
+            buffer,
+            arrayFlags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        components: ComponentMap? = null,
+        exits: ExitMaskMap? = null,
+        clearance: ClearanceMap? = null,
+        limits: SearchLimits? = null
+    ): RouteBuffer {
+        val flags = mapFlags(collisionMap, level, srcX, srcY)
+        if (components != null && limits == null && srcSize == 1 && !reachable(
+                components,
+                collisionMap,
+                level,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                destWidth,
+                destHeight,
+                objShape,
+                collision
+            )
+        ) {
+            if (!moveNear) {
+                buffer.clear()
+                buffer.srcX = srcX
+                buffer.srcY = srcY
+                return buffer
+            }
+            val candidates = approachCandidates(components, srcX, srcY, destX, destY)
+            val finder = approachFinder ?: AStarPathFinder(searchMapSize).also { approachFinder = it }
+            return finder.findClosestApproach(buffer, flags, srcX, srcY, destX, destY, candidates, maxTurns, collision)
+        }
+        val minX = srcX - (searchMapSize / 2)
+        val minY = srcY - (searchMapSize / 2)
+        val maxX = minX + searchMapSize - 1
+        val maxY = minY + searchMapSize - 1
+        return route(
+            buffer,
+            flags,
+            exits?.takeIf { it.covers(collisionMap, level, srcSize, collision, minX, minY, maxX, maxY) },
+            clearance?.takeIf { it.covers(collisionMap, level, collision, minX, minY, maxX, maxY) },
+            limits,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    public fun findPath(
+        buffer: RouteBuffer,
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        moveNear: Boolean = true,
+        accessBitMask: Int = 0,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal
+    ): RouteBuffer {
+        return route(
+            buffer,
+            flags,
+            null,
+            null,
+            null,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            moveNear,
+            accessBitMask,
+            maxTurns,
+            collision
+        )
+    }
+
+    /**
+     * Returns the number of steps a [srcSize] entity at ([srcX], [srcY]) takes
+     * to reach the destination, or -1 if it cannot reach it within [maxDistance]
+     * steps or the search map. The destination is checked with the same rules
+     * as [findPath], but the search stops expanding tiles at [maxDistance],
+     * and no route is written.
+     */
+    public fun distanceTo(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        accessBitMask: Int = 0,
+        maxDistance: Int = Int.MAX_VALUE,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        components: ComponentMap? = null
+    ): Int {
+        require(maxDistance >= 0) {
+            "Max distance must not be negative"
+        }
+        if (components != null && srcSize == 1 && !reachable(
+                components,
+                collisionMap,
+                level,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                destWidth,
+                destHeight,
+                objShape,
+                collision
+            )
+        ) {
+            return -1
+        }
+        val flags = mapFlags(collisionMap, level, srcX, srcY)
+        val baseX = baseX(srcX)
+        val baseY = baseY(srcY)
+        val pathFound = search(
+            flags,
+            null,
+            null,
+            null,
+            maxDistance,
+            baseX,
+            baseY,
+            srcX - baseX,
+            srcY - baseY,
+            destX - baseX,
+            destY - baseY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        return if (pathFound) distance(currLocalX, currLocalY) else -1
+    }
+
+    /**
+     * Returns true if a [srcSize] entity at ([srcX], [srcY]) can reach the
+     * destination within [maxDistance] steps; see [distanceTo].
+     */
+    public fun canReach(
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int = 1,
+        destWidth: Int = 0,
+        destHeight: Int = 0,
+        objRot: Int = 0,
+        objShape: Int = -1,
+        accessBitMask: Int = 0,
+        maxDistance: Int = Int.MAX_VALUE,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        components: ComponentMap? = null
+    ): Boolean {
+        return distanceTo(
+            collisionMap,
+            level,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            maxDistance,
+            collision,
+            components
+        ) != -1
+    }
+
+    /**
+     * Calculates a route to whichever of [destinations] is reached first, in
+     * a single search rather than one per destination, and returns its index;
+     * or -1, with a failed route, if none of them can be reached within the
+     * search map. When several are reached from the same tile, the one added
+     * first is picked.
+     *
+     * The route found is the same route a search for only that destination,
+     * without moving near, would have found.
+     */
+    public fun findPath(
+        buffer: RouteBuffer,
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destinations: PathDestinations,
+        srcSize: Int = 1,
+        maxTurns: Int = DEFAULT_MAX_TURNS,
+        collision: CollisionStrategy = CollisionStrategies.Normal,
+        limits: SearchLimits? = null
+    ): Int {
+        require(destinations.size > 0) {
+            "Destinations must not be empty"
+        }
+        val flags = mapFlags(collisionMap, level, srcX, srcY)
+        val baseX = baseX(srcX)
+        val baseY = baseY(srcY)
+        val area = reachArea ?: ReachArea().also { reachArea = it }
+        destinations.localize(baseX, baseY, srcSize, area)
+        this.destinations = destinations
+        destinationIndex = -1
+        val pathFound = try {
+            search(
+                flags,
+                null,
+                null,
+                limits,
+                Int.MAX_VALUE,
+                baseX,
+                baseY,
+                srcX - baseX,
+                srcY - baseY,
+                destinations.localDestX[0],
+                destinations.localDestY[0],
+                srcSize,
+                destinations.destWidth[0],
+                destinations.destHeight[0],
+                destinations.objRot[0],
+                destinations.objShape[0],
+                destinations.accessBitMask[0],
+                collision
+            )
+        } finally {
+            this.destinations = null
+        }
+        complete(buffer, pathFound, srcX, srcY, srcX, srcY, false, maxTurns)
+        return if (pathFound) destinationIndex else -1
+    }
+
+    private fun route(
+        buffer: RouteBuffer,
+        flags: FlagView,
+        exits: ExitMaskMap?,
+        clearance: ClearanceMap?,
+        limits: SearchLimits?,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        moveNear: Boolean,
+        accessBitMask: Int,
+        maxTurns: Int,
+        collision: CollisionStrategy
+    ): RouteBuffer {
+        val baseX = baseX(srcX)
+        val baseY = baseY(srcY)
+        val pathFound = search(
+            flags,
+            exits,
+            clearance,
+            limits,
+            Int.MAX_VALUE,
+            baseX,
+            baseY,
+            srcX - baseX,
+            srcY - baseY,
+            destX - baseX,
+            destY - baseY,
+            srcSize,
+            destWidth,
+            destHeight,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        return complete(buffer, pathFound, srcX, srcY, destX, destY, moveNear, maxTurns)
+    }
+
+    /*
+     * Starts a search from ([srcX], [srcY]) that [step] expands a part of at
+     * a time; searches started this way always reset, and never go by an
+     * [ExitMaskMap], a [ClearanceMap] or bitboards.
+     */
+    internal fun start(srcX: Int, srcY: Int) {
+        reset()
+        setNextValidLocalCoords(srcX - baseX(srcX), srcY - baseY(srcY), DEFAULT_SRC_DIRECTION_VALUE, 0)
+        limit(null, Int.MAX_VALUE, 0, 0)
+        clearance = null
+        bitboardSearched = false
+    }
+
+    /*
+     * Expands at most [maxNodes] more tiles of the search last [start]ed, in
+     * the same order a search run in one go would have expanded them.
+     */
+    internal fun step(
+        flags: FlagView,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy,
+        maxNodes: Int
+    ): SearchStatus {
+        nodeLimit = if (maxNodes >= Int.MAX_VALUE - bufReaderIndex) Int.MAX_VALUE else bufReaderIndex + maxNodes
+        val found = try {
+            expand(
+                flags,
+                destX - baseX(srcX),
+                destY - baseY(srcY),
+                destWidth,
+                destHeight,
+                srcSize,
+                objRot,
+                objShape,
+                accessBitMask,
+                collision
+            )
+        } finally {
+            nodeLimit = Int.MAX_VALUE
+        }
+        return when {
+            found -> SearchStatus.Found
+            bufReaderIndex != bufWriterIndex -> SearchStatus.InProgress
+            else -> SearchStatus.Failed
+        }
+    }
+
+    /* Writes the route of the search that just ended, reaching the destination if [pathFound], into [buffer]. */
+    internal fun complete(
+        buffer: RouteBuffer,
+        pathFound: Boolean,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        moveNear: Boolean,
+        maxTurns: Int
+    ): RouteBuffer {
+        buffer.clear()
+        buffer.srcX = srcX
+        buffer.srcY = srcY
+        val baseX = baseX(srcX)
+        val baseY = baseY(srcY)
+        val localSrcX = srcX - baseX
+        val localSrcY = srcY - baseY
+        val localDestX = destX - baseX
+        val localDestY = destY - baseY
+        if (!pathFound) {
+            if (!moveNear) {
+                return buffer
+            }
+            val closest = findClosestApproachPoint(
+                tiles,
+                searchMapSize,
+                epoch,
+                localSrcX,
+                localSrcY,
+                localDestX,
+                localDestY
+            )
+            if (closest == -1) {
+                return buffer
+            }
+            currLocalX = closest and QUEUE_COORD_MASK
+            currLocalY = closest shr QUEUE_COORD_SHIFT
+            if (bitboardSearched) {
+                bitboards?.trace(tiles, epoch, currLocalX, currLocalY)
+            }
+        }
+        writeRoute(tiles, searchMapSize, buffer, currLocalX, currLocalY, baseX, baseY, maxTurns)
+        buffer.alternative = !pathFound
+        buffer.success = true
+        return buffer
+    }
+
+    /*
+     * Returns false if [components] shows that none of the tiles in the search
+     * map the destination could be reached from share a component with the
+     * source, which no search could then reach either.
+     */
+    private fun reachable(
+        components: ComponentMap,
+        collisionMap: CollisionMap,
+        level: Int,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objShape: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        val minX = srcX - (searchMapSize / 2)
+        val minY = srcY - (searchMapSize / 2)
+        val maxX = minX + searchMapSize - 1
+        val maxY = minY + searchMapSize - 1
+        if (!components.covers(collisionMap, level, collision, minX, minY, maxX, maxY)) {
+            return true
+        }
+        val area = reachArea ?: ReachArea().also { reachArea = it }
+        area.set(destX, destY, 1, destWidth, destHeight, objShape)
+        val component = components.component(srcX, srcY)
+        if (component == -1) {
+            /* the source can step off of a tile nothing can step onto */
+            return true
+        }
+        for (x in maxOf(area.minX, minX)..minOf(area.maxX, maxX)) {
+            for (y in maxOf(area.minY, minY)..minOf(area.maxY, maxY)) {
+                if (components.component(x, y) == component) {
+                    return true
+                }
+            }
+        }
+        return false
+    }
+
+    /*
+     * Counts the tiles [findClosestApproachPoint] picks from that share a
+     * component with the source; only those can have been visited.
+     */
+    private fun approachCandidates(components: ComponentMap, srcX: Int, srcY: Int, destX: Int, destY: Int): Int {
+        val minX = srcX - (searchMapSize / 2)
+        val minY = srcY - (searchMapSize / 2)
+        val range = MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION
+        val component = components.component(srcX, srcY)
+        var count = 0
+        for (x in maxOf(destX - range, minX)..minOf(destX + range, minX + searchMapSize - 1)) {
+            for (y in maxOf(destY - range, minY)..minOf(destY + range, minY + searchMapSize - 1)) {
+                if (components.component(x, y) == component) {
+                    count++
+                }
+            }
+        }
+        return count
+    }
+
+    private fun baseX(srcX: Int): Int = srcX - (searchMapSize / 2)
+
+    private fun baseY(srcY: Int): Int = srcY - (searchMapSize / 2)
+
+    internal fun mapFlags(collisionMap: CollisionMap, level: Int, srcX: Int, srcY: Int): FlagView {
+        val baseX = baseX(srcX)
+        val baseY = baseY(srcY)
+        val flags = mapFlags ?: CollisionMapFlagView(collisionMap, level, baseX, baseY).also { mapFlags = it }
+        flags.map = collisionMap
+        flags.level = level
+        flags.baseX = baseX
+        flags.baseY = baseY
+        flags.resolve(searchMapSize, searchMapSize)
+        return flags
+    }
+
+    /* Copies the window [flags] were resolved for into a scratch view of this finder. */
+    private fun copyWindow(flags: CollisionMapFlagView): IntArrayFlagView {
+        val window = windowFlags ?: IntArrayFlagView(IntArray(tiles.size), searchMapSize).also { windowFlags = it }
+        flags.copyFlags(searchMapSize, searchMapSize, window.flags)
+        return window
+    }
+
+    private fun search(
+        flags: FlagView,
+        exits: ExitMaskMap?,
+        clearance: ClearanceMap?,
+        limits: SearchLimits?,
+        maxDistance: Int,
+        baseX: Int,
+        baseY: Int,
+        localSrcX: Int,
+        localSrcY: Int,
+        localDestX: Int,
+        localDestY: Int,
+        srcSize: Int,
+        destWidth: Int,
+        destHeight: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        if (resetOnSearch) {
+            reset()
+        }
+        setNextValidLocalCoords(localSrcX, localSrcY, DEFAULT_SRC_DIRECTION_VALUE, 0)
+        this.clearance = clearance
+        clearanceBaseX = baseX
+        clearanceBaseY = baseY
+        val limited = limit(limits, maxDistance, baseX, baseY)
+        bitboardSearched = useBitboards && resetOnSearch && exits == null && destinations == null && !limited &&
+            srcSize <= 2
+        if (bitboardSearched) {
+            val bitboards = bitboards ?: BitboardSearch(searchMapSize).also { bitboards = it }
+            val end = bitboards.search(
+                tiles,
+                epoch,
+                flags,
+                localSrcX,
+                localSrcY,
+                localDestX,
+                localDestY,
+                destWidth,
+                destHeight,
+                srcSize,
+                objRot,
+                objShape,
+                accessBitMask,
+                collision
+            )
+            if (end == -1) {
+                return false
+            }
+            currLocalX = end and QUEUE_COORD_MASK
+            currLocalY = end shr QUEUE_COORD_SHIFT
+            return true
+        }
+        if (exits != null) {
+            return findPathExits(
+                flags,
+                exits,
+                baseX - exits.baseX,
+                baseY - exits.baseY,
+                localDestX,
+                localDestY,
+                destWidth,
+                destHeight,
+                srcSize,
+                objRot,
+                objShape,
+                accessBitMask
+            )
         }
-        if (resetOnSearch) {
-            reset()
+        return expand(
+            flags,
+            localDestX,
+            localDestY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+    }
+
+    /*
+     * Bounds the search about to run to [limits] and [maxDistance], in the
+     * local coordinates of a search map with its origin at [baseX], [baseY];
+     * or lifts any bounds of the previous search when there are none. Returns
+     * true if the search is bounded by anything but the search map.
+     */
+    private fun limit(limits: SearchLimits?, maxDistance: Int, baseX: Int, baseY: Int): Boolean {
+        if (limits == null) {
+            limitMinX = 0
+            limitMinY = 0
+            limitMaxX = Int.MAX_VALUE
+            limitMaxY = Int.MAX_VALUE
+            distanceLimit = maxDistance
+            nodeLimit = Int.MAX_VALUE
+            return maxDistance != Int.MAX_VALUE
         }
-        val baseX = srcX - (searchMapSize / 2)
-        val baseY = srcY - (searchMapSize / 2)
-        val localSrcX = srcX - baseX
-        val localSrcY = srcY - baseY
-        val localDestX = destX - baseX
-        val localDestY = destY - baseY
-        setNextValidLocalCoords(localSrcX, localSrcY, DEFAULT_SRC_DIRECTION_VALUE, 0)
-        val pathFound = when (srcSize) {
+        /* clamped to the search map first, so that unbounded limits do not overflow */
+        limitMinX = maxOf(limits.minX, baseX - 1) - baseX
+        limitMinY = maxOf(limits.minY, baseY - 1) - baseY
+        limitMaxX = minOf(limits.maxX, baseX + searchMapSize) - baseX
+        limitMaxY = minOf(limits.maxY, baseY + searchMapSize) - baseY
+        distanceLimit = minOf(limits.maxDistance, maxDistance)
+        val maxNodes = limits.maxNodes
+        nodeLimit = if (maxNodes >= Int.MAX_VALUE - bufReaderIndex) Int.MAX_VALUE else bufReaderIndex + maxNodes
+        return true
+    }
+
+    private fun expand(
+        flags: FlagView,
+        localDestX: Int,
+        localDestY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        return when (srcSize) {
             1 -> findPath1(
                 flags,
                 localDestX,
@@ -115,62 +954,171 @@ public class SmartPathFinder(
                 collision
             )
         }
-        if (!pathFound) {
-            if (!moveNear) {
-                return Route(emptyList(), alternative = false, success = false)
-            } else if (!findClosestApproachPoint(localSrcX, localSrcY, localDestX, localDestY)) {
-                return Route(emptyList(), alternative = false, success = false)
-            }
-        }
-        val coordinates = ArrayList<RouteCoordinates>(255)
-        var nextDir = directions[currLocalX, currLocalY]
-        var currDir = -1
-        var turns = 0
-        for (i in 0 until searchMapSize * searchMapSize) {
-            if (currLocalX == localSrcX && currLocalY == localSrcY) break
-            val coords = RouteCoordinates(currLocalX + baseX, currLocalY + baseY)
-            if (currDir != nextDir) {
-                turns++
-                coordinates.add(0, TURN_COORDS)
-                currDir = nextDir
-            }
-            coordinates.add(0, coords)
-            if ((currDir and DirectionFlag.EAST) != 0) {
-                currLocalX++
-            } else if ((currDir and DirectionFlag.WEST) != 0) {
-                currLocalX--
-            }
-            if ((currDir and DirectionFlag.NORTH) != 0) {
-                currLocalY++
-            } else if ((currDir and DirectionFlag.SOUTH) != 0) {
-                currLocalY--
-            }
-            nextDir = directions[currLocalX, currLocalY]
-        }
-        return if (turns > maxTurns) {
-            val filtered = ArrayList<RouteCoordinates>(coordinates.size - turns)
-            var currTurns = 0
-            for (coords in coordinates) {
-                if (currTurns > maxTurns) break
-                if (coords == TURN_COORDS) {
-                    currTurns++
-                    continue
-                }
-                filtered.add(coords)
-            }
-            Route(filtered, alternative = !pathFound, success = true)
-        } else {
-            val filtered = ArrayList<RouteCoordinates>(coordinates.size - turns)
-            coordinates.forEach { coords ->
-                if (coords == TURN_COORDS) return@forEach
-                filtered.add(coords)
-            }
-            Route(filtered, alternative = !pathFound, success = true)
+    }
+
+    /*
+     * Runs the size 1 kernel specialised for the type of [flags], so that every
+     * neighbour is read straight from the arrays behind the view rather than
+     * through a type switch in [FlagView.get].
+     */
+    private fun findPath1(
+        flags: FlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean = when (flags) {
+        is IntArrayFlagView -> findPath1(
+            flags,
+            flags.flags,
+            flags.width,
+            0,
+            0,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        is OffsetFlagView -> findPath1(
+            flags,
+            flags.flags,
+            flags.width,
+            flags.offsetX,
+            flags.offsetY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        is CollisionMapFlagView -> findPath1(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+    }
+
+    /*
+     * Reads the flags of the first [ZONE_SEARCH_NODES] tiles straight from the
+     * zones of [flags], then copies the window and reads from the copy for the
+     * rest of a search that floods further than that.
+     */
+    private fun findPath1(
+        flags: CollisionMapFlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        flags.resolve(searchMapSize, searchMapSize)
+        val limit = nodeLimit
+        if (limit - bufReaderIndex > ZONE_SEARCH_NODES) {
+            nodeLimit = bufReaderIndex + ZONE_SEARCH_NODES
+        }
+        val found = try {
+            findPath1(
+                flags,
+                flags.zones,
+                flags.zoneColumnShift,
+                flags.zoneOffsetX,
+                flags.zoneOffsetY,
+                destX,
+                destY,
+                destWidth,
+                destHeight,
+                srcSize,
+                objRot,
+                objShape,
+                accessBitMask,
+                collision
+            )
+        } finally {
+            nodeLimit = limit
+        }
+        if (found || bufReaderIndex == bufWriterIndex || bufReaderIndex >= limit) {
+            return found
         }
+        val window = copyWindow(flags)
+        return findPath1(
+            window,
+            window.flags,
+            window.width,
+            0,
+            0,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
     }
 
     private fun findPath1(
-        flags: IntArray,
+        flags: FlagView,
+        array: IntArray,
+        width: Int,
+        offsetX: Int,
+        offsetY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        return expandPath1(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        ) { x, y -> array[((offsetY + y) * width) + offsetX + x] }
+    }
+
+    private fun findPath1(
+        flags: FlagView,
+        zones: Array<IntArray>,
+        columnShift: Int,
+        offsetX: Int,
+        offsetY: Int,
         destX: Int,
         destY: Int,
         destWidth: Int,
@@ -180,18 +1128,49 @@ public class SmartPathFinder(
         objShape: Int,
         accessBitMask: Int,
         collision: CollisionStrategy
+    ): Boolean {
+        return expandPath1(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        ) { x, y -> zoneFlag(zones, columnShift, offsetX + x, offsetY + y) }
+    }
+
+    private inline fun expandPath1(
+        flags: FlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy,
+        flag: (x: Int, y: Int) -> Int
     ): Boolean {
         var x: Int
         var y: Int
         var clipFlag: Int
         var dirFlag: Int
-        val relativeSearchSize = searchMapSize - 1
-        while (bufWriterIndex != bufReaderIndex) {
-            currLocalX = validLocalX[bufReaderIndex]
-            currLocalY = validLocalY[bufReaderIndex]
-            bufReaderIndex = (bufReaderIndex + 1) and (ringBufferSize - 1)
+        val minX = maxOf(limitMinX, 0)
+        val minY = maxOf(limitMinY, 0)
+        val maxX = minOf(limitMaxX, searchMapSize - 1)
+        val maxY = minOf(limitMaxY, searchMapSize - 1)
+        val maxDistance = distanceLimit
+        while (bufWriterIndex != bufReaderIndex && bufReaderIndex < nodeLimit) {
+            val coords = queue[bufReaderIndex++].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
 
-            if (reached(
+            if (reachedDestination(
                     flags,
                     currLocalX,
                     currLocalY,
@@ -208,14 +1187,17 @@ public class SmartPathFinder(
                 return true
             }
 
-            val nextDistance = distances[currLocalX, currLocalY] + 1
+            val nextDistance = distance(currLocalX, currLocalY) + 1
+            if (nextDistance > maxDistance) {
+                continue
+            }
 
             /* east to west */
             x = currLocalX - 1
             y = currLocalY
             clipFlag = CollisionFlag.BLOCK_WEST
             dirFlag = DirectionFlag.EAST
-            if (currLocalX > 0 && directions[x, y] == 0 && collision.canMove(flags[x, y], clipFlag)) {
+            if (currLocalX > minX && !visited(x, y) && collision.canMove(flag(x, y), clipFlag)) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
 
@@ -224,8 +1206,8 @@ public class SmartPathFinder(
             y = currLocalY
             clipFlag = CollisionFlag.BLOCK_EAST
             dirFlag = DirectionFlag.WEST
-            if (currLocalX < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], clipFlag)
+            if (currLocalX < maxX && !visited(x, y) &&
+                collision.canMove(flag(x, y), clipFlag)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -235,7 +1217,7 @@ public class SmartPathFinder(
             y = currLocalY - 1
             clipFlag = CollisionFlag.BLOCK_SOUTH
             dirFlag = DirectionFlag.NORTH
-            if (currLocalY > 0 && directions[x, y] == 0 && collision.canMove(flags[x, y], clipFlag)) {
+            if (currLocalY > minY && !visited(x, y) && collision.canMove(flag(x, y), clipFlag)) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
 
@@ -244,8 +1226,8 @@ public class SmartPathFinder(
             y = currLocalY + 1
             clipFlag = CollisionFlag.BLOCK_NORTH
             dirFlag = DirectionFlag.SOUTH
-            if (currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], clipFlag)
+            if (currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, y), clipFlag)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -254,10 +1236,10 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_EAST
-            if (currLocalX > 0 && currLocalY > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[x, currLocalY], CollisionFlag.BLOCK_WEST) &&
-                collision.canMove(flags[currLocalX, y], CollisionFlag.BLOCK_SOUTH)
+            if (currLocalX > minX && currLocalY > minY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(x, currLocalY), CollisionFlag.BLOCK_WEST) &&
+                collision.canMove(flag(currLocalX, y), CollisionFlag.BLOCK_SOUTH)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -266,10 +1248,10 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
-                collision.canMove(flags[x, currLocalY], CollisionFlag.BLOCK_EAST) &&
-                collision.canMove(flags[currLocalX, y], CollisionFlag.BLOCK_SOUTH)
+            if (currLocalX < maxX && currLocalY > minY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_EAST) &&
+                collision.canMove(flag(x, currLocalY), CollisionFlag.BLOCK_EAST) &&
+                collision.canMove(flag(currLocalX, y), CollisionFlag.BLOCK_SOUTH)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -278,10 +1260,10 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_EAST
-            if (currLocalX > 0 && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_NORTH_WEST) &&
-                collision.canMove(flags[x, currLocalY], CollisionFlag.BLOCK_WEST) &&
-                collision.canMove(flags[currLocalX, y], CollisionFlag.BLOCK_NORTH)
+            if (currLocalX > minX && currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_NORTH_WEST) &&
+                collision.canMove(flag(x, currLocalY), CollisionFlag.BLOCK_WEST) &&
+                collision.canMove(flag(currLocalX, y), CollisionFlag.BLOCK_NORTH)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -290,10 +1272,10 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_NORTH_EAST) &&
-                collision.canMove(flags[x, currLocalY], CollisionFlag.BLOCK_EAST) &&
-                collision.canMove(flags[currLocalX, y], CollisionFlag.BLOCK_NORTH)
+            if (currLocalX < maxX && currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_NORTH_EAST) &&
+                collision.canMove(flag(x, currLocalY), CollisionFlag.BLOCK_EAST) &&
+                collision.canMove(flag(currLocalX, y), CollisionFlag.BLOCK_NORTH)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -301,8 +1283,169 @@ public class SmartPathFinder(
         return false
     }
 
+    /*
+     * Runs the size 2 kernel specialised for the type of [flags], so that every
+     * neighbour is read straight from the arrays behind the view rather than
+     * through a type switch in [FlagView.get].
+     */
     private fun findPath2(
-        flags: IntArray,
+        flags: FlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean = when (flags) {
+        is IntArrayFlagView -> findPath2(
+            flags,
+            flags.flags,
+            flags.width,
+            0,
+            0,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        is OffsetFlagView -> findPath2(
+            flags,
+            flags.flags,
+            flags.width,
+            flags.offsetX,
+            flags.offsetY,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+        is CollisionMapFlagView -> findPath2(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+    }
+
+    /*
+     * Reads the flags of the first [ZONE_SEARCH_NODES] tiles straight from the
+     * zones of [flags], then copies the window and reads from the copy for the
+     * rest of a search that floods further than that.
+     */
+    private fun findPath2(
+        flags: CollisionMapFlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        flags.resolve(searchMapSize, searchMapSize)
+        val limit = nodeLimit
+        if (limit - bufReaderIndex > ZONE_SEARCH_NODES) {
+            nodeLimit = bufReaderIndex + ZONE_SEARCH_NODES
+        }
+        val found = try {
+            findPath2(
+                flags,
+                flags.zones,
+                flags.zoneColumnShift,
+                flags.zoneOffsetX,
+                flags.zoneOffsetY,
+                destX,
+                destY,
+                destWidth,
+                destHeight,
+                srcSize,
+                objRot,
+                objShape,
+                accessBitMask,
+                collision
+            )
+        } finally {
+            nodeLimit = limit
+        }
+        if (found || bufReaderIndex == bufWriterIndex || bufReaderIndex >= limit) {
+            return found
+        }
+        val window = copyWindow(flags)
+        return findPath2(
+            window,
+            window.flags,
+            window.width,
+            0,
+            0,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        )
+    }
+
+    private fun findPath2(
+        flags: FlagView,
+        array: IntArray,
+        width: Int,
+        offsetX: Int,
+        offsetY: Int,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        return expandPath2(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        ) { x, y -> array[((offsetY + y) * width) + offsetX + x] }
+    }
+
+    private fun findPath2(
+        flags: FlagView,
+        zones: Array<IntArray>,
+        columnShift: Int,
+        offsetX: Int,
+        offsetY: Int,
         destX: Int,
         destY: Int,
         destWidth: Int,
@@ -312,17 +1455,48 @@ public class SmartPathFinder(
         objShape: Int,
         accessBitMask: Int,
         collision: CollisionStrategy
+    ): Boolean {
+        return expandPath2(
+            flags,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask,
+            collision
+        ) { x, y -> zoneFlag(zones, columnShift, offsetX + x, offsetY + y) }
+    }
+
+    private inline fun expandPath2(
+        flags: FlagView,
+        destX: Int,
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int,
+        collision: CollisionStrategy,
+        flag: (x: Int, y: Int) -> Int
     ): Boolean {
         var x: Int
         var y: Int
         var dirFlag: Int
-        val relativeSearchSize = searchMapSize - 2
-        while (bufWriterIndex != bufReaderIndex) {
-            currLocalX = validLocalX[bufReaderIndex]
-            currLocalY = validLocalY[bufReaderIndex]
-            bufReaderIndex = (bufReaderIndex + 1) and (ringBufferSize - 1)
+        val minX = maxOf(limitMinX, 0)
+        val minY = maxOf(limitMinY, 0)
+        val maxX = minOf(limitMaxX, searchMapSize - 2)
+        val maxY = minOf(limitMaxY, searchMapSize - 2)
+        val maxDistance = distanceLimit
+        while (bufWriterIndex != bufReaderIndex && bufReaderIndex < nodeLimit) {
+            val coords = queue[bufReaderIndex++].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
 
-            if (reached(
+            if (reachedDestination(
                     flags,
                     currLocalX,
                     currLocalY,
@@ -339,15 +1513,18 @@ public class SmartPathFinder(
                 return true
             }
 
-            val nextDistance = distances[currLocalX, currLocalY] + 1
+            val nextDistance = distance(currLocalX, currLocalY) + 1
+            if (nextDistance > maxDistance) {
+                continue
+            }
 
             /* east to west */
             x = currLocalX - 1
             y = currLocalY
             dirFlag = DirectionFlag.EAST
-            if (currLocalX > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[x, currLocalY + 1], CollisionFlag.BLOCK_NORTH_WEST)
+            if (currLocalX > minX && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(x, currLocalY + 1), CollisionFlag.BLOCK_NORTH_WEST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -356,9 +1533,9 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY
             dirFlag = DirectionFlag.WEST
-            if (currLocalX < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[currLocalX + 2, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
-                collision.canMove(flags[currLocalX + 2, currLocalY + 1], CollisionFlag.BLOCK_NORTH_EAST)
+            if (currLocalX < maxX && !visited(x, y) &&
+                collision.canMove(flag(currLocalX + 2, y), CollisionFlag.BLOCK_SOUTH_EAST) &&
+                collision.canMove(flag(currLocalX + 2, currLocalY + 1), CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -367,9 +1544,9 @@ public class SmartPathFinder(
             x = currLocalX
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH
-            if (currLocalY > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[currLocalX + 1, y], CollisionFlag.BLOCK_SOUTH_EAST)
+            if (currLocalY > minY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(currLocalX + 1, y), CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -378,9 +1555,9 @@ public class SmartPathFinder(
             x = currLocalX
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH
-            if (currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, currLocalY + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
-                collision.canMove(flags[currLocalX + 1, currLocalY + 2], CollisionFlag.BLOCK_NORTH_EAST)
+            if (currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, currLocalY + 2), CollisionFlag.BLOCK_NORTH_WEST) &&
+                collision.canMove(flag(currLocalX + 1, currLocalY + 2), CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -389,10 +1566,10 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_EAST
-            if (currLocalX > 0 && currLocalY > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, currLocalY], CollisionFlag.BLOCK_NORTH_WEST) &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[currLocalX, y], CollisionFlag.BLOCK_SOUTH_EAST)
+            if (currLocalX > minX && currLocalY > minY && !visited(x, y) &&
+                collision.canMove(flag(x, currLocalY), CollisionFlag.BLOCK_NORTH_WEST) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(currLocalX, y), CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -401,10 +1578,10 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY > 0 && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[currLocalX + 2, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
-                collision.canMove(flags[currLocalX + 2, currLocalY], CollisionFlag.BLOCK_NORTH_EAST)
+            if (currLocalX < maxX && currLocalY > minY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(currLocalX + 2, y), CollisionFlag.BLOCK_SOUTH_EAST) &&
+                collision.canMove(flag(currLocalX + 2, currLocalY), CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -413,10 +1590,10 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_EAST
-            if (currLocalX > 0 && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
-                collision.canMove(flags[x, currLocalY + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
-                collision.canMove(flags[currLocalX, currLocalY + 2], CollisionFlag.BLOCK_NORTH_EAST)
+            if (currLocalX > minX && currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, y), CollisionFlag.BLOCK_SOUTH_WEST) &&
+                collision.canMove(flag(x, currLocalY + 2), CollisionFlag.BLOCK_NORTH_WEST) &&
+                collision.canMove(flag(currLocalX, currLocalY + 2), CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -425,10 +1602,10 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
-                collision.canMove(flags[x, currLocalY + 2], CollisionFlag.BLOCK_NORTH_WEST) &&
-                collision.canMove(flags[currLocalX + 2, currLocalY + 2], CollisionFlag.BLOCK_NORTH_EAST) &&
-                collision.canMove(flags[currLocalX + 2, y], CollisionFlag.BLOCK_SOUTH_EAST)
+            if (currLocalX < maxX && currLocalY < maxY && !visited(x, y) &&
+                collision.canMove(flag(x, currLocalY + 2), CollisionFlag.BLOCK_NORTH_WEST) &&
+                collision.canMove(flag(currLocalX + 2, currLocalY + 2), CollisionFlag.BLOCK_NORTH_EAST) &&
+                collision.canMove(flag(currLocalX + 2, y), CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 setNextValidLocalCoords(x, y, dirFlag, nextDistance)
             }
@@ -437,7 +1614,7 @@ public class SmartPathFinder(
     }
 
     private fun findPathN(
-        flags: IntArray,
+        flags: FlagView,
         destX: Int,
         destY: Int,
         destWidth: Int,
@@ -451,13 +1628,17 @@ public class SmartPathFinder(
         var x: Int
         var y: Int
         var dirFlag: Int
-        val relativeSearchSize = searchMapSize - srcSize
-        while (bufWriterIndex != bufReaderIndex) {
-            currLocalX = validLocalX[bufReaderIndex]
-            currLocalY = validLocalY[bufReaderIndex]
-            bufReaderIndex = (bufReaderIndex + 1) and (ringBufferSize - 1)
+        val minX = maxOf(limitMinX, 0)
+        val minY = maxOf(limitMinY, 0)
+        val maxX = minOf(limitMaxX, searchMapSize - srcSize)
+        val maxY = minOf(limitMaxY, searchMapSize - srcSize)
+        val maxDistance = distanceLimit
+        while (bufWriterIndex != bufReaderIndex && bufReaderIndex < nodeLimit) {
+            val coords = queue[bufReaderIndex++].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
 
-            if (reached(
+            if (reachedDestination(
                     flags,
                     currLocalX,
                     currLocalY,
@@ -474,19 +1655,21 @@ public class SmartPathFinder(
                 return true
             }
 
-            val nextDistance = distances[currLocalX, currLocalY] + 1
+            val nextDistance = distance(currLocalX, currLocalY) + 1
+            if (nextDistance > maxDistance) {
+                continue
+            }
 
             /* east to west */
             x = currLocalX - 1
             y = currLocalY
             dirFlag = DirectionFlag.EAST
-            if (currLocalX > 0 && directions[x, y] == 0 &&
+            if (currLocalX > minX && !visited(x, y) &&
                 collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[x, currLocalY + srcSize - 1], CollisionFlag.BLOCK_NORTH_WEST)
             ) {
                 val clipFlag = CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST
-                val blocked = (1 until srcSize - 1).any { !collision.canMove(flags[x, currLocalY + it], clipFlag) }
-                if (!blocked) {
+                if (isColumnClear(flags, x, currLocalY + 1, srcSize - 2, clipFlag, collision)) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -495,15 +1678,12 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY
             dirFlag = DirectionFlag.WEST
-            if (currLocalX < relativeSearchSize && directions[x, y] == 0 &&
+            if (currLocalX < maxX && !visited(x, y) &&
                 collision.canMove(flags[currLocalX + srcSize, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
                 collision.canMove(flags[currLocalX + srcSize, currLocalY + srcSize - 1], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 val clipFlag = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
-                val blocked = (1 until srcSize - 1).any {
-                    !collision.canMove(flags[currLocalX + srcSize, currLocalY + it], clipFlag)
-                }
-                if (!blocked) {
+                if (isColumnClear(flags, currLocalX + srcSize, currLocalY + 1, srcSize - 2, clipFlag, collision)) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -512,13 +1692,12 @@ public class SmartPathFinder(
             x = currLocalX
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH
-            if (currLocalY > 0 && directions[x, y] == 0 &&
+            if (currLocalY > minY && !visited(x, y) &&
                 collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[currLocalX + srcSize - 1, y], CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 val clipFlag = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                val blocked = (1 until srcSize - 1).any { !collision.canMove(flags[currLocalX + it, y], clipFlag) }
-                if (!blocked) {
+                if (isRowClear(flags, currLocalX + 1, y, srcSize - 2, clipFlag, collision)) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -527,14 +1706,12 @@ public class SmartPathFinder(
             x = currLocalX
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH
-            if (currLocalY < relativeSearchSize && directions[x, y] == 0 &&
+            if (currLocalY < maxY && !visited(x, y) &&
                 collision.canMove(flags[x, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
                 collision.canMove(flags[currLocalX + srcSize - 1, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 val clipFlag = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
-                val blocked =
-                    (1 until srcSize - 1).any { !collision.canMove(flags[x + it, currLocalY + srcSize], clipFlag) }
-                if (!blocked) {
+                if (isRowClear(flags, x + 1, currLocalY + srcSize, srcSize - 2, clipFlag, collision)) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -543,18 +1720,16 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_EAST
-            if (currLocalX > 0 && currLocalY > 0 && directions[x, y] == 0 &&
+            if (currLocalX > minX && currLocalY > minY && !visited(x, y) &&
                 collision.canMove(flags[x, currLocalY + srcSize - 2], CollisionFlag.BLOCK_NORTH_WEST) &&
                 collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[currLocalX + srcSize - 2, y], CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                val blocked = (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x, currLocalY + it - 1], clipFlag1) ||
-                        !collision.canMove(flags[currLocalX + it - 1, y], clipFlag2)
-                }
-                if (!blocked) {
+                if (isColumnClear(flags, x, currLocalY, srcSize - 2, clipFlag1, collision) &&
+                    isRowClear(flags, currLocalX, y, srcSize - 2, clipFlag2, collision)
+                ) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -563,18 +1738,16 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY - 1
             dirFlag = DirectionFlag.NORTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY > 0 && directions[x, y] == 0 &&
+            if (currLocalX < maxX && currLocalY > minY && !visited(x, y) &&
                 collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[currLocalX + srcSize, y], CollisionFlag.BLOCK_SOUTH_EAST) &&
                 collision.canMove(flags[currLocalX + srcSize, currLocalY + srcSize - 2], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_EAST_AND_WEST
-                val blocked = (1 until srcSize - 1).any {
-                    !collision.canMove(flags[currLocalX + srcSize, currLocalY + it - 1], clipFlag1) ||
-                        !collision.canMove(flags[currLocalX + it + 1, y], clipFlag2)
-                }
-                if (!blocked) {
+                if (isColumnClear(flags, currLocalX + srcSize, currLocalY, srcSize - 2, clipFlag1, collision) &&
+                    isRowClear(flags, currLocalX + 2, y, srcSize - 2, clipFlag2, collision)
+                ) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -583,18 +1756,16 @@ public class SmartPathFinder(
             x = currLocalX - 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_EAST
-            if (currLocalX > 0 && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
+            if (currLocalX > minX && currLocalY < maxY && !visited(x, y) &&
                 collision.canMove(flags[x, y], CollisionFlag.BLOCK_SOUTH_WEST) &&
                 collision.canMove(flags[x, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
                 collision.canMove(flags[currLocalX, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_EAST)
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST
                 val clipFlag2 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
-                val blocked = (1 until srcSize - 1).any {
-                    !collision.canMove(flags[x, currLocalY + it + 1], clipFlag1) ||
-                        !collision.canMove(flags[currLocalX + it - 1, currLocalY + srcSize], clipFlag2)
-                }
-                if (!blocked) {
+                if (isColumnClear(flags, x, currLocalY + 2, srcSize - 2, clipFlag1, collision) &&
+                    isRowClear(flags, currLocalX, currLocalY + srcSize, srcSize - 2, clipFlag2, collision)
+                ) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -603,18 +1774,16 @@ public class SmartPathFinder(
             x = currLocalX + 1
             y = currLocalY + 1
             dirFlag = DirectionFlag.SOUTH_WEST
-            if (currLocalX < relativeSearchSize && currLocalY < relativeSearchSize && directions[x, y] == 0 &&
+            if (currLocalX < maxX && currLocalY < maxY && !visited(x, y) &&
                 collision.canMove(flags[x, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_WEST) &&
                 collision.canMove(flags[currLocalX + srcSize, currLocalY + srcSize], CollisionFlag.BLOCK_NORTH_EAST) &&
                 collision.canMove(flags[currLocalX + srcSize, y], CollisionFlag.BLOCK_SOUTH_EAST)
             ) {
                 val clipFlag1 = CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
                 val clipFlag2 = CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST
-                val blocked = (1 until srcSize - 1).any {
-                    !collision.canMove(flags[currLocalX + it + 1, currLocalY + srcSize], clipFlag1) ||
-                        !collision.canMove(flags[currLocalX + srcSize, currLocalY + it + 1], clipFlag2)
-                }
-                if (!blocked) {
+                if (isRowClear(flags, currLocalX + 2, currLocalY + srcSize, srcSize - 2, clipFlag1, collision) &&
+                    isColumnClear(flags, currLocalX + srcSize, currLocalY + 2, srcSize - 2, clipFlag2, collision)
+                ) {
                     setNextValidLocalCoords(x, y, dirFlag, nextDistance)
                 }
             }
@@ -622,89 +1791,204 @@ public class SmartPathFinder(
         return false
     }
 
-    private fun findClosestApproachPoint(
-        srcX: Int,
-        srcY: Int,
+    /*
+     * Table-driven counterpart of the kernels above, which looks up the moves
+     * out of every tile in [exits] instead of checking flags; moves are tried
+     * in the same order, so the same routes are found.
+     */
+    private fun findPathExits(
+        flags: FlagView,
+        exits: ExitMaskMap,
+        offsetX: Int,
+        offsetY: Int,
         destX: Int,
-        destY: Int
+        destY: Int,
+        destWidth: Int,
+        destHeight: Int,
+        srcSize: Int,
+        objRot: Int,
+        objShape: Int,
+        accessBitMask: Int
     ): Boolean {
-        var lowestCost = MAX_ALTERNATIVE_ROUTE_LOWEST_COST
-        var maxAlternativePath = MAX_ALTERNATIVE_ROUTE_SEEK_RANGE
-        val alternativeRouteRange = MAX_ALTERNATIVE_ROUTE_DISTANCE_FROM_DESTINATION
-        val radiusX = destX - alternativeRouteRange..destX + alternativeRouteRange
-        val radiusY = destY - alternativeRouteRange..destY + alternativeRouteRange
-        for (x in radiusX) {
-            for (y in radiusY) {
-                if (x !in 0 until searchMapSize ||
-                    y !in 0 until searchMapSize ||
-                    distances[x, y] >= MAX_ALTERNATIVE_ROUTE_SEEK_RANGE
-                ) {
-                    continue
-                }
-                val dx = abs(destX - x)
-                val dy = abs(destY - y)
-                val cost = dx * dx + dy * dy
-                if (cost < lowestCost || (cost == lowestCost && maxAlternativePath > distances[x, y])) {
-                    currLocalX = x
-                    currLocalY = y
-                    lowestCost = cost
-                    maxAlternativePath = distances[x, y]
+        val masks = exits.masks
+        val width = exits.width
+        val minX = maxOf(limitMinX, 0)
+        val minY = maxOf(limitMinY, 0)
+        val maxX = minOf(limitMaxX, searchMapSize - srcSize)
+        val maxY = minOf(limitMaxY, searchMapSize - srcSize)
+        val maxDistance = distanceLimit
+        while (bufWriterIndex != bufReaderIndex && bufReaderIndex < nodeLimit) {
+            val coords = queue[bufReaderIndex++].toInt()
+            currLocalX = coords and QUEUE_COORD_MASK
+            currLocalY = coords shr QUEUE_COORD_SHIFT
+
+            if (reachedDestination(
+                    flags,
+                    currLocalX,
+                    currLocalY,
+                    destX,
+                    destY,
+                    destWidth,
+                    destHeight,
+                    srcSize,
+                    objRot,
+                    objShape,
+                    accessBitMask
+                )
+            ) {
+                return true
+            }
+
+            val nextDistance = distance(currLocalX, currLocalY) + 1
+            if (nextDistance > maxDistance) {
+                continue
+            }
+            var moves = masks[((offsetY + currLocalY) * width) + offsetX + currLocalX].toInt()
+            /* the search map, or its limits, end where the area of the masks goes on */
+            if (currLocalX <= minX) {
+                moves = moves and MOVES_WEST.inv()
+            }
+            if (currLocalX >= maxX) {
+                moves = moves and MOVES_EAST.inv()
+            }
+            if (currLocalY <= minY) {
+                moves = moves and MOVES_SOUTH.inv()
+            }
+            if (currLocalY >= maxY) {
+                moves = moves and MOVES_NORTH.inv()
+            }
+            moves = moves and 0xFF
+            while (moves != 0) {
+                val i = moves.countTrailingZeroBits()
+                moves = moves and (moves - 1)
+                val x = currLocalX + MOVE_OFFSET_X[i]
+                val y = currLocalY + MOVE_OFFSET_Y[i]
+                if (!visited(x, y)) {
+                    setNextValidLocalCoords(x, y, MOVE_DIRECTION_FLAG[i], nextDistance)
                 }
             }
         }
-        return !(lowestCost == MAX_ALTERNATIVE_ROUTE_LOWEST_COST || (srcX == currLocalX && srcY == currLocalY))
+        return false
     }
 
-    private fun reached(
-        flags: IntArray,
-        srcX: Int,
-        srcY: Int,
+    /*
+     * Checks the destination of the search, or every destination whose reach
+     * area holds ([x], [y]) when it looks for several at once.
+     */
+    private fun reachedDestination(
+        flags: FlagView,
+        x: Int,
+        y: Int,
         destX: Int,
         destY: Int,
         destWidth: Int,
         destHeight: Int,
         srcSize: Int,
-        rotation: Int,
-        shape: Int,
+        objRot: Int,
+        objShape: Int,
         accessBitMask: Int
     ): Boolean {
-        if (srcX == destX && srcY == destY) {
-            return true
+        val destinations = this.destinations ?: return reached(
+            flags,
+            x,
+            y,
+            destX,
+            destY,
+            destWidth,
+            destHeight,
+            srcSize,
+            objRot,
+            objShape,
+            accessBitMask
+        )
+        if (x < destinations.minX || x > destinations.maxX || y < destinations.minY || y > destinations.maxY) {
+            return false
         }
-        return when (shape.exitStrategy) {
-            WALL_STRATEGY -> reachWall(flags, searchMapSize, srcX, srcY, destX, destY, srcSize, shape, rotation)
-            WALL_DECO_STRATEGY -> reachWallDeco(
-                flags,
-                searchMapSize,
-                srcX,
-                srcY,
-                destX,
-                destY,
-                srcSize,
-                shape,
-                rotation
-            )
-            RECTANGLE_STRATEGY -> reachRectangle(
-                flags, searchMapSize, accessBitMask, srcX, srcY, destX, destY, srcSize, destWidth, destHeight
-            )
-            else -> false
+        for (i in 0 until destinations.size) {
+            if (x < destinations.areaMinX[i] || x > destinations.areaMaxX[i] ||
+                y < destinations.areaMinY[i] || y > destinations.areaMaxY[i]
+            ) {
+                continue
+            }
+            if (reached(
+                    flags,
+                    x,
+                    y,
+                    destinations.localDestX[i],
+                    destinations.localDestY[i],
+                    destinations.destWidth[i],
+                    destinations.destHeight[i],
+                    srcSize,
+                    destinations.objRot[i],
+                    destinations.objShape[i],
+                    destinations.accessBitMask[i]
+                )
+            ) {
+                destinationIndex = i
+                return true
+            }
         }
+        return false
+    }
+
+    private fun isColumnClear(
+        flags: FlagView,
+        x: Int,
+        y: Int,
+        length: Int,
+        clipFlag: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        val clearance = clearance ?: return clearColumn(flags, x, y, length, clipFlag, collision)
+        return clearance.column(clipFlag, clearanceBaseX + x, clearanceBaseY + y) >= length
     }
 
+    private fun isRowClear(
+        flags: FlagView,
+        x: Int,
+        y: Int,
+        length: Int,
+        clipFlag: Int,
+        collision: CollisionStrategy
+    ): Boolean {
+        val clearance = clearance ?: return clearRow(flags, x, y, length, clipFlag, collision)
+        return clearance.row(clipFlag, clearanceBaseX + x, clearanceBaseY + y) >= length
+    }
+
+    /*
+     * Tiles are only considered visited when their epoch matches the current
+     * one, so bumping the epoch invalidates every tile of the previous search
+     * without having to touch them.
+     */
     private fun reset() {
-        Arrays.setAll(directions) { 0 }
-        Arrays.setAll(distances) { DEFAULT_DISTANCE_VALUE }
+        if (epoch == MAX_EPOCH) {
+            Arrays.fill(tiles, 0)
+            epoch = 0
+        }
+        epoch++
         bufReaderIndex = 0
         bufWriterIndex = 0
     }
 
     private fun setNextValidLocalCoords(x: Int, y: Int, direction: Int, distance: Int) {
         val pathIndex = (y * searchMapSize) + x
-        directions[pathIndex] = direction
-        distances[pathIndex] = distance
-        validLocalX[bufWriterIndex] = x
-        validLocalY[bufWriterIndex] = y
-        bufWriterIndex = (bufWriterIndex + 1) and (ringBufferSize - 1)
+        tiles[pathIndex] = (epoch shl EPOCH_SHIFT) or (distance shl DISTANCE_SHIFT) or direction
+        queue[bufWriterIndex++] = (x or (y shl QUEUE_COORD_SHIFT)).toChar()
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun visited(x: Int, y: Int): Boolean {
+        return (tiles[x, y] ushr EPOCH_SHIFT) == epoch
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun direction(x: Int, y: Int): Int {
+        return tiles[x, y] and DIRECTION_MASK
+    }
+
+    @Suppress("NOTHING_TO_INLINE")
+    private inline fun distance(x: Int, y: Int): Int {
+        return (tiles[x, y] ushr DISTANCE_SHIFT) and DISTANCE_MASK
     }
 
     @Suppress("NOTHING_TO_INLINE")
@@ -712,13 +1996,4 @@ public class SmartPathFinder(
         val index = (y * searchMapSize) + x
         return this[index]
     }
-
-    private val Int.exitStrategy: Int
-        get() = when {
-            this == -1 -> NO_STRATEGY
-            this in 0..3 || this == 9 -> WALL_STRATEGY
-            this < 9 -> WALL_DECO_STRATEGY
-            this in 10..11 || this == 22 -> RECTANGLE_STRATEGY
-            else -> NO_STRATEGY
-        }
 }
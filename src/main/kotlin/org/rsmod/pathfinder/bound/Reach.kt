@@ -0,0 +1,52 @@
+package org.rsmod.pathfinder.bound
+
+import org.rsmod.pathfinder.collision.FlagView
+
+internal const val WALL_STRATEGY = 0
+internal const val WALL_DECO_STRATEGY = 1
+internal const val RECTANGLE_STRATEGY = 2
+internal const val NO_STRATEGY = 3
+
+internal fun reached(
+    flags: FlagView,
+    srcX: Int,
+    srcY: Int,
+    destX: Int,
+    destY: Int,
+    destWidth: Int,
+    destHeight: Int,
+    srcSize: Int,
+    rotation: Int,
+    shape: Int,
+    accessBitMask: Int
+): Boolean {
+    if (srcX == destX && srcY == destY) {
+        return true
+    }
+    return when (shape.exitStrategy) {
+        WALL_STRATEGY -> reachWall(flags, srcX, srcY, destX, destY, srcSize, shape, rotation)
+        WALL_DECO_STRATEGY -> reachWallDeco(
+            flags,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            shape,
+            rotation
+        )
+        RECTANGLE_STRATEGY -> reachRectangle(
+            flags, accessBitMask, srcX, srcY, destX, destY, srcSize, destWidth, destHeight
+        )
+        else -> false
+    }
+}
+
+internal val Int.exitStrategy: Int
+    get() = when {
+        this == -1 -> NO_STRATEGY
+        this in 0..3 || this == 9 -> WALL_STRATEGY
+        this < 9 -> WALL_DECO_STRATEGY
+        this in 10..11 || this == 22 -> RECTANGLE_STRATEGY
+        else -> NO_STRATEGY
+    }
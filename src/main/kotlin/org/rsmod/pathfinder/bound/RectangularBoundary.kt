@@ -1,10 +1,10 @@
 package org.rsmod.pathfinder.bound
 
+import org.rsmod.pathfinder.collision.FlagView
 import kotlin.math.min
 
 internal fun reachRectangle(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     accessBitMask: Int,
     srcX: Int,
     srcY: Int,
@@ -18,7 +18,6 @@ internal fun reachRectangle(
         collides(srcX, srcY, destX, destY, srcSize, srcSize, destWidth, destHeight) ||
             reachRectangleN(
                 flags,
-                mapSize,
                 accessBitMask,
                 srcX,
                 srcY,
@@ -30,7 +29,7 @@ internal fun reachRectangle(
                 destHeight
             )
     }
-    else -> reachRectangle1(flags, mapSize, accessBitMask, srcX, srcY, destX, destY, destWidth, destHeight)
+    else -> reachRectangle1(flags, accessBitMask, srcX, srcY, destX, destY, destWidth, destHeight)
 }
 
 private fun collides(
@@ -49,8 +48,7 @@ private fun collides(
 }
 
 private fun reachRectangle1(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     accessBitMask: Int,
     srcX: Int,
     srcY: Int,
@@ -66,29 +64,28 @@ private fun reachRectangle1(
         return true
 
     if (srcX == destX - 1 && srcY >= destY && srcY <= north &&
-        (flag(flags, mapSize, srcX, srcY) and 0x8) == 0 &&
+        (flag(flags, srcX, srcY) and 0x8) == 0 &&
         (accessBitMask and 0x8) == 0
     ) return true
 
     if (srcX == east + 1 && srcY >= destY && srcY <= north &&
-        (flag(flags, mapSize, srcX, srcY) and 0x80) == 0 &&
+        (flag(flags, srcX, srcY) and 0x80) == 0 &&
         (accessBitMask and 0x2) == 0
     ) return true
 
     if (srcY + 1 == destY && srcX >= destX && srcX <= east &&
-        (flag(flags, mapSize, srcX, srcY) and 0x2) == 0 &&
+        (flag(flags, srcX, srcY) and 0x2) == 0 &&
         (accessBitMask and 0x4) == 0
 
     ) return true
 
     return srcY == north + 1 && srcX >= destX && srcX <= east &&
-        (flag(flags, mapSize, srcX, srcY) and 0x20) == 0 &&
+        (flag(flags, srcX, srcY) and 0x20) == 0 &&
         (accessBitMask and 0x1) == 0
 }
 
 private fun reachRectangleN(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     accessBitMask: Int,
     srcX: Int,
     srcY: Int,
@@ -107,14 +104,14 @@ private fun reachRectangleN(
         if (destY == srcNorth && (accessBitMask and 0x4) == 0) {
             val minEast = min(srcEast, destEast)
             for (x in srcX until minEast) {
-                if ((flag(flags, mapSize, x, srcNorth - 1) and 0x2) == 0) {
+                if ((flag(flags, x, srcNorth - 1) and 0x2) == 0) {
                     return true
                 }
             }
         } else if (destNorth == srcY && (accessBitMask and 0x1) == 0) {
             val minEastX = min(srcEast, destEast)
             for (x in srcX until minEastX) {
-                if ((flag(flags, mapSize, x, srcY) and 0x20) == 0) {
+                if ((flag(flags, x, srcY) and 0x20) == 0) {
                     return true
                 }
             }
@@ -122,13 +119,13 @@ private fun reachRectangleN(
     } else if (srcEast in (destX + 1)..destEast) {
         if (destY == srcNorth && (accessBitMask and 0x4) == 0) {
             for (x in destX until srcEast) {
-                if ((flag(flags, mapSize, x, srcNorth - 1) and 0x2) == 0) {
+                if ((flag(flags, x, srcNorth - 1) and 0x2) == 0) {
                     return true
                 }
             }
         } else if (srcY == destNorth && (accessBitMask and 0x1) == 0) {
             for (x in destX until srcEast) {
-                if ((flag(flags, mapSize, x, srcY) and 0x2) == 0) {
+                if ((flag(flags, x, srcY) and 0x2) == 0) {
                     return true
                 }
             }
@@ -137,14 +134,14 @@ private fun reachRectangleN(
         if (srcEast == destX && (accessBitMask and 0x8) == 0) {
             val minNorthY = min(srcNorth, destNorth)
             for (y in srcY until minNorthY) {
-                if ((flag(flags, mapSize, srcEast - 1, y) and 0x8) == 0) {
+                if ((flag(flags, srcEast - 1, y) and 0x8) == 0) {
                     return true
                 }
             }
         } else if (destEast == srcX && (accessBitMask and 0x2) == 0) {
             val minNorthY = min(srcNorth, destNorth)
             for (y in srcY until minNorthY) {
-                if ((flag(flags, mapSize, srcX, y) and 0x80) == 0) {
+                if ((flag(flags, srcX, y) and 0x80) == 0) {
                     return true
                 }
             }
@@ -152,13 +149,13 @@ private fun reachRectangleN(
     } else if (srcNorth in (destY + 1)..destNorth) {
         if (destX == srcEast && (accessBitMask and 0x8) == 0) {
             for (y in destY until srcNorth) {
-                if ((flag(flags, mapSize, srcEast - 1, y) and 0x8) == 0) {
+                if ((flag(flags, srcEast - 1, y) and 0x8) == 0) {
                     return true
                 }
             }
         } else if (destEast == srcX && (accessBitMask and 0x2) == 0) {
             for (y in destY until srcNorth) {
-                if ((flag(flags, mapSize, srcX, y) and 0x80) == 0) {
+                if ((flag(flags, srcX, y) and 0x80) == 0) {
                     return true
                 }
             }
@@ -167,6 +164,6 @@ private fun reachRectangleN(
     return false
 }
 
-private fun flag(flags: IntArray, width: Int, x: Int, y: Int): Int {
-    return flags[(y * width) + x]
+private fun flag(flags: FlagView, x: Int, y: Int): Int {
+    return flags[x, y]
 }
@@ -1,8 +1,9 @@
 package org.rsmod.pathfinder.bound
 
+import org.rsmod.pathfinder.collision.FlagView
+
 internal fun reachWall(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     srcX: Int,
     srcY: Int,
     destX: Int,
@@ -13,13 +14,12 @@ internal fun reachWall(
 ): Boolean = when {
     srcSize == 1 && srcX == destX && srcY == destY -> true
     srcSize != 1 && destX >= srcX && srcSize + srcX - 1 >= destX && srcSize + destY - 1 >= destY -> true
-    srcSize == 1 -> reachWall1(flags, mapSize, srcX, srcY, destX, destY, shape, rot)
-    else -> reachWallN(flags, mapSize, srcX, srcY, destX, destY, srcSize, shape, rot)
+    srcSize == 1 -> reachWall1(flags, srcX, srcY, destX, destY, shape, rot)
+    else -> reachWallN(flags, srcX, srcY, destX, destY, srcSize, shape, rot)
 }
 
 private fun reachWall1(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     srcX: Int,
     srcY: Int,
     destX: Int,
@@ -34,40 +34,40 @@ private fun reachWall1(
                     if (srcX == destX - 1 && srcY == destY)
                         return true
                     if (srcX == destX && srcY == destY + 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0120) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX && srcY == destY - 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0102) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0102) == 0
                     ) return true
                 }
                 1 -> {
                     if (srcX == destX && srcY == destY + 1)
                         return true
                     if (srcX == destX - 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0108) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0180) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0180) == 0
                     ) return true
                 }
                 2 -> {
                     if (srcX == destX + 1 && srcY == destY)
                         return true
                     if (srcX == destX && srcY == destY + 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0120) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX && srcY == destY - 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0102) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0102) == 0
                     ) return true
                 }
                 3 -> {
                     if (srcX == destX && srcY == destY - 1)
                         return true
                     if (srcX == destX - 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0108) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0180) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0180) == 0
                     ) return true
                 }
             }
@@ -80,30 +80,30 @@ private fun reachWall1(
                     if (srcX == destX && srcY == destY + 1)
                         return true
                     if (srcX == destX + 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0180) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0180) == 0
                     ) return true
                     if (srcX == destX && srcY == destY - 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0102) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0102) == 0
                     ) return true
                 }
                 1 -> {
                     if (srcX == destX - 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0108) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX && srcY == destY + 1)
                         return true
                     if (srcX == destX + 1 && srcY == destY)
                         return true
                     if (srcX == destX && srcY == destY - 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0102) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0102) == 0
                     ) return true
                 }
                 2 -> {
                     if (srcX == destX - 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0108) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX && srcY == destY + 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0120) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY == destY)
                         return true
@@ -114,10 +114,10 @@ private fun reachWall1(
                     if (srcX == destX - 1 && srcY == destY)
                         return true
                     if (srcX == destX && srcY == destY + 1 &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0120) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY == destY &&
-                        (flag(flags, mapSize, srcX, srcY) and 0x12c0180) == 0
+                        (flag(flags, srcX, srcY) and 0x12c0180) == 0
                     ) return true
                     if (srcX == destX && srcY == destY - 1)
                         return true
@@ -126,25 +126,24 @@ private fun reachWall1(
         }
         9 -> {
             if (srcX == destX && srcY == destY + 1 &&
-                (flag(flags, mapSize, srcX, srcY) and 0x20) == 0
+                (flag(flags, srcX, srcY) and 0x20) == 0
             ) return true
             if (srcX == destX && srcY == destY - 1 &&
-                (flag(flags, mapSize, srcX, srcY) and 0x2) == 0
+                (flag(flags, srcX, srcY) and 0x2) == 0
             ) return true
             if (srcX == destX - 1 && srcY == destY &&
-                (flag(flags, mapSize, srcX, srcY) and 0x8) == 0
+                (flag(flags, srcX, srcY) and 0x8) == 0
             ) return true
 
             return srcX == destX + 1 && srcY == destY &&
-                (flag(flags, mapSize, srcX, srcY) and 0x80) == 0
+                (flag(flags, srcX, srcY) and 0x80) == 0
         }
     }
     return false
 }
 
 private fun reachWallN(
-    flags: IntArray,
-    mapSize: Int,
+    flags: FlagView,
     srcX: Int,
     srcY: Int,
     destX: Int,
@@ -162,40 +161,40 @@ private fun reachWallN(
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY)
                         return true
                     if (destX in srcX..east && srcY == destY + 1 &&
-                        (flag(flags, mapSize, destX, srcY) and 0x12c0120) == 0
+                        (flag(flags, destX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY - srcSize &&
-                        (flag(flags, mapSize, destX, north) and 0x12c0102) == 0
+                        (flag(flags, destX, north) and 0x12c0102) == 0
                     ) return true
                 }
                 1 -> {
                     if (destX in srcX..east && srcY == destY + 1)
                         return true
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, east, destY) and 0x12c0108) == 0
+                        (flag(flags, east, destY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, srcX, destY) and 0x12c0180) == 0
+                        (flag(flags, srcX, destY) and 0x12c0180) == 0
                     ) return true
                 }
                 2 -> {
                     if (srcX == destX + 1 && srcY <= destY && north >= destY)
                         return true
                     if (destX in srcX..east && srcY == destY + 1 &&
-                        (flag(flags, mapSize, destX, srcY) and 0x12c0120) == 0
+                        (flag(flags, destX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY - srcSize &&
-                        (flag(flags, mapSize, destX, north) and 0x12c0102) == 0
+                        (flag(flags, destX, north) and 0x12c0102) == 0
                     ) return true
                 }
                 3 -> {
                     if (destX in srcX..east && srcY == destY - srcSize)
                         return true
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, east, destY) and 0x12c0108) == 0
+                        (flag(flags, east, destY) and 0x12c0108) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, srcX, destY) and 0x12c0180) == 0
+                        (flag(flags, srcX, destY) and 0x12c0180) == 0
                     ) return true
                 }
             }
@@ -208,30 +207,30 @@ private fun reachWallN(
                     if (destX in srcX..east && srcY == destY + 1)
                         return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, srcX, destY) and 0x12c0180) == 0
+                        (flag(flags, srcX, destY) and 0x12c0180) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY - srcSize &&
-                        (flag(flags, mapSize, destX, north) and 0x12c0102) == 0
+                        (flag(flags, destX, north) and 0x12c0102) == 0
                     ) return true
                 }
                 1 -> {
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, east, destY) and 0x12c0108) == 0
+                        (flag(flags, east, destY) and 0x12c0108) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY + 1)
                         return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY)
                         return true
                     if (destX in srcX..east && srcY == destY - srcSize &&
-                        (flag(flags, mapSize, destX, north) and 0x12c0102) == 0
+                        (flag(flags, destX, north) and 0x12c0102) == 0
                     ) return true
                 }
                 2 -> {
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, east, destY) and 0x12c0108) == 0
+                        (flag(flags, east, destY) and 0x12c0108) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY + 1 &&
-                        (flag(flags, mapSize, destX, srcY) and 0x12c0120) == 0
+                        (flag(flags, destX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY)
                         return true
@@ -242,10 +241,10 @@ private fun reachWallN(
                     if (srcX == destX - srcSize && srcY <= destY && north >= destY)
                         return true
                     if (destX in srcX..east && srcY == destY + 1 &&
-                        (flag(flags, mapSize, destX, srcY) and 0x12c0120) == 0
+                        (flag(flags, destX, srcY) and 0x12c0120) == 0
                     ) return true
                     if (srcX == destX + 1 && srcY <= destY && north >= destY &&
-                        (flag(flags, mapSize, srcX, destY) and 0x12c0180) == 0
+                        (flag(flags, srcX, destY) and 0x12c0180) == 0
                     ) return true
                     if (destX in srcX..east && srcY == destY - srcSize)
                         return true
@@ -254,22 +253,22 @@ private fun reachWallN(
         }
         9 -> {
             if (destX in srcX..east && srcY == destY + 1 &&
-                (flag(flags, mapSize, destX, srcY) and 0x12c0120) == 0
+                (flag(flags, destX, srcY) and 0x12c0120) == 0
             ) return true
             if (destX in srcX..east && srcY == destY - srcSize &&
-                (flag(flags, mapSize, destX, north) and 0x12c0102) == 0
+                (flag(flags, destX, north) and 0x12c0102) == 0
             ) return true
             if (srcX == destX - srcSize && srcY <= destY && north >= destY &&
-                (flag(flags, mapSize, east, destY) and 0x12c0108) == 0
+                (flag(flags, east, destY) and 0x12c0108) == 0
             ) return true
 
             return srcX == destX + 1 && srcY <= destY && north >= destY &&
-                (flag(flags, mapSize, srcX, destY) and 0x12c0180) == 0
+                (flag(flags, srcX, destY) and 0x12c0180) == 0
         }
     }
     return false
 }
 
-private fun flag(flags: IntArray, width: Int, x: Int, y: Int): Int {
-    return flags[(y * width) + x]
+private fun flag(flags: FlagView, x: Int, y: Int): Int {
+    return flags[x, y]
 }
@@ -0,0 +1,160 @@
+@file:Suppress("MemberVisibilityCanBePrivate", "unused")
+
+package org.rsmod.pathfinder.collision
+
+import org.rsmod.pathfinder.flag.CollisionFlag
+
+private const val ZONE_SIZE = 8
+private const val ZONE_TILE_COUNT = ZONE_SIZE * ZONE_SIZE
+private const val ZONE_AXIS_COUNT = 2048
+private const val LEVEL_COUNT = 4
+private const val TOTAL_ZONE_COUNT = ZONE_AXIS_COUNT * ZONE_AXIS_COUNT * LEVEL_COUNT
+
+/*
+ * Tiles outside of the world bounds can never be walked on, nor can
+ * projectiles travel through them.
+ */
+private const val OUT_OF_BOUNDS_FLAG = CollisionFlag.OBJECT or CollisionFlag.OBJECT_PROJECTILE_BLOCKER
+
+/* Stand-ins for zones that are not allocated, or lie outside of the world; never written to. */
+private val EMPTY_ZONE = IntArray(ZONE_TILE_COUNT)
+private val OUT_OF_BOUNDS_ZONE = IntArray(ZONE_TILE_COUNT) { OUT_OF_BOUNDS_FLAG }
+
+/**
+ * World collision flags stored in zones of 8x8 tiles for each of the
+ * four levels. Zone flag arrays are only allocated once a flag is written
+ * to them; tiles in unallocated zones have no collision flags.
+ *
+ * Registered [CollisionMapListener]s are told about every tile whose flags
+ * are changed through this map; flags written straight into the array
+ * returned by [allocateIfAbsent] are not reported.
+ */
+public class CollisionMap {
+
+    private val zones: Array<IntArray?> = arrayOfNulls(TOTAL_ZONE_COUNT)
+
+    private val listeners = ArrayList<CollisionMapListener>()
+
+    /* Bumped whenever a zone is allocated or deallocated, which outdates zones looked up ahead of time. */
+    internal var zoneVersion: Int = 0
+        private set
+
+    public operator fun get(x: Int, y: Int, level: Int): Int {
+        if (!inBounds(x, y, level)) {
+            return OUT_OF_BOUNDS_FLAG
+        }
+        val zone = zones[zoneIndex(x, y, level)] ?: return 0
+        return zone[tileIndex(x, y)]
+    }
+
+    public operator fun set(x: Int, y: Int, level: Int, flag: Int) {
+        val zone = allocateIfAbsent(x, y, level)
+        val index = tileIndex(x, y)
+        val previous = zone[index]
+        zone[index] = flag
+        if (previous != flag) {
+            flagsChanged(x, y, level)
+        }
+    }
+
+    public fun add(x: Int, y: Int, level: Int, mask: Int) {
+        val zone = allocateIfAbsent(x, y, level)
+        val index = tileIndex(x, y)
+        val previous = zone[index]
+        zone[index] = previous or mask
+        if (previous != zone[index]) {
+            flagsChanged(x, y, level)
+        }
+    }
+
+    public fun remove(x: Int, y: Int, level: Int, mask: Int) {
+        if (!inBounds(x, y, level)) return
+        val zone = zones[zoneIndex(x, y, level)] ?: return
+        val index = tileIndex(x, y)
+        val previous = zone[index]
+        zone[index] = previous and mask.inv()
+        if (previous != zone[index]) {
+            flagsChanged(x, y, level)
+        }
+    }
+
+    public fun isZoneAllocated(x: Int, y: Int, level: Int): Boolean {
+        return inBounds(x, y, level) && zones[zoneIndex(x, y, level)] != null
+    }
+
+    public fun allocateIfAbsent(x: Int, y: Int, level: Int): IntArray {
+        require(inBounds(x, y, level)) { "Coordinates out of bounds: x=$x, y=$y, level=$level" }
+        val zoneIndex = zoneIndex(x, y, level)
+        val zone = zones[zoneIndex]
+        if (zone != null) {
+            return zone
+        }
+        val allocated = IntArray(ZONE_TILE_COUNT)
+        zones[zoneIndex] = allocated
+        zoneVersion++
+        return allocated
+    }
+
+    public fun deallocateIfPresent(x: Int, y: Int, level: Int) {
+        if (!inBounds(x, y, level)) return
+        val zoneIndex = zoneIndex(x, y, level)
+        val zone = zones[zoneIndex] ?: return
+        zones[zoneIndex] = null
+        zoneVersion++
+        if (listeners.isEmpty()) {
+            return
+        }
+        val zoneX = (x shr 3) shl 3
+        val zoneY = (y shr 3) shl 3
+        for (i in zone.indices) {
+            if (zone[i] != 0) {
+                flagsChanged(zoneX + (i and 0x7), zoneY + (i shr 3), level)
+            }
+        }
+    }
+
+    /*
+     * Returns the flags of the zone at [zoneX], [zoneY], counted in zones rather
+     * than tiles, and indexed like [tileIndex]. Zones that are not allocated, or
+     * are out of bounds, are shared arrays that must not be written to.
+     */
+    internal fun zoneFlags(zoneX: Int, zoneY: Int, level: Int): IntArray {
+        if (zoneX !in 0 until ZONE_AXIS_COUNT || zoneY !in 0 until ZONE_AXIS_COUNT || level !in 0 until LEVEL_COUNT) {
+            return OUT_OF_BOUNDS_ZONE
+        }
+        return zones[zoneX or (zoneY shl 11) or (level shl 22)] ?: EMPTY_ZONE
+    }
+
+    public fun addListener(listener: CollisionMapListener) {
+        listeners.add(listener)
+    }
+
+    public fun removeListener(listener: CollisionMapListener) {
+        listeners.remove(listener)
+    }
+
+    private fun flagsChanged(x: Int, y: Int, level: Int) {
+        for (i in listeners.indices) {
+            listeners[i].onFlagsChanged(x, y, level)
+        }
+    }
+
+    public companion object {
+
+        public const val ZONE_LENGTH: Int = ZONE_SIZE
+        public const val LEVELS: Int = LEVEL_COUNT
+        public const val WORLD_LENGTH: Int = ZONE_AXIS_COUNT * ZONE_SIZE
+
+        private fun inBounds(x: Int, y: Int, level: Int): Boolean {
+            return x in 0 until WORLD_LENGTH && y in 0 until WORLD_LENGTH && level in 0 until LEVEL_COUNT
+        }
+
+        private fun zoneIndex(x: Int, y: Int, level: Int): Int {
+            return (x shr 3) or ((y shr 3) shl 11) or (level shl 22)
+        }
+
+        private fun tileIndex(x: Int, y: Int): Int {
+            return (x and 0x7) or ((y and 0x7) shl 3)
+        }
+    }
+}
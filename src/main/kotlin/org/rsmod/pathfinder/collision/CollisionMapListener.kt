@@ -0,0 +1,10 @@
+package org.rsmod.pathfinder.collision
+
+/**
+ * Notified by a [CollisionMap] after the flags of a tile change, so that
+ * anything derived from the flags can be brought up to date.
+ */
+public fun interface CollisionMapListener {
+
+    public fun onFlagsChanged(x: Int, y: Int, level: Int)
+}
@@ -0,0 +1,187 @@
+@file:Suppress("MemberVisibilityCanBePrivate")
+
+package org.rsmod.pathfinder.collision
+
+private const val ZONE_SHIFT = 3
+private const val ZONE_SIZE = 1 shl ZONE_SHIFT
+private const val ZONE_MASK = ZONE_SIZE - 1
+
+/* Fills zone tables until they are resolved. */
+private val UNRESOLVED_ZONE = IntArray(0)
+
+/**
+ * Read-only window of collision flags addressed by local (window-relative)
+ * coordinates. Path finders expect the local origin of the window to be
+ * positioned at `(srcX - searchMapSize / 2, srcY - searchMapSize / 2)`.
+ *
+ * The set of views is closed so that [get] can resolve the flag through a
+ * type switch instead of a virtual call; this keeps the search loops free of
+ * megamorphic call sites regardless of how many view types an application uses.
+ */
+public sealed class FlagView {
+
+    public operator fun get(x: Int, y: Int): Int = when (this) {
+        is IntArrayFlagView -> flags[(y * width) + x]
+        is OffsetFlagView -> flags[((offsetY + y) * width) + offsetX + x]
+        is CollisionMapFlagView -> flag(x, y)
+    }
+
+    /* Copies the flags of the first [count] tiles of row [y] to [dest]. */
+    internal fun copyRow(y: Int, count: Int, dest: IntArray) {
+        when (this) {
+            is IntArrayFlagView -> System.arraycopy(flags, y * width, dest, 0, count)
+            is OffsetFlagView -> System.arraycopy(flags, ((offsetY + y) * width) + offsetX, dest, 0, count)
+            is CollisionMapFlagView -> for (x in 0 until count) {
+                dest[x] = flag(x, y)
+            }
+        }
+    }
+}
+
+/**
+ * A view over a [width] x [width] window of flags, such as the ones
+ * fed into `SmartPathFinder::findPath`.
+ */
+public class IntArrayFlagView(
+    public var flags: IntArray,
+    public val width: Int
+) : FlagView()
+
+/**
+ * A view over a window that starts at [offsetX], [offsetY] inside of a larger
+ * row-major array of flags [width] tiles wide.
+ */
+public class OffsetFlagView(
+    public val flags: IntArray,
+    public val width: Int,
+    public var offsetX: Int,
+    public var offsetY: Int
+) : FlagView()
+
+/**
+ * A view over the flags of [level] in [map], with its local origin
+ * at [baseX], [baseY].
+ *
+ * Path finders [resolve] the zones their window covers once per search,
+ * after which a flag is read with two array loads rather than a lookup of
+ * its zone in [map]. The zones are looked up again once the view moves, or
+ * once [map] allocates or deallocates a zone.
+ */
+public class CollisionMapFlagView(
+    map: CollisionMap,
+    level: Int,
+    baseX: Int,
+    baseY: Int
+) : FlagView() {
+
+    public var map: CollisionMap = map
+        set(value) {
+            field = value
+            zoneColumns = 0
+        }
+
+    public var level: Int = level
+        set(value) {
+            field = value
+            zoneColumns = 0
+        }
+
+    public var baseX: Int = baseX
+        set(value) {
+            field = value
+            zoneColumns = 0
+        }
+
+    public var baseY: Int = baseY
+        set(value) {
+            field = value
+            zoneColumns = 0
+        }
+
+    /*
+     * Zones of the window, row by row, 1 << [zoneColumnShift] to a row so that
+     * rows are found with a shift; the local origin lies [zoneOffsetX],
+     * [zoneOffsetY] tiles into the first zone. Nothing is resolved while
+     * [zoneColumns] is zero.
+     */
+    internal var zones: Array<IntArray> = emptyArray()
+        private set
+    internal var zoneColumnShift = 0
+        private set
+    private var zoneColumns = 0
+    internal var zoneOffsetX = 0
+        private set
+    internal var zoneOffsetY = 0
+        private set
+    private var zoneRows = 0
+    private var zoneVersion = 0
+
+    /* Looks up the zones of the [width] x [height] window from the local origin, unless they are up to date. */
+    internal fun resolve(width: Int, height: Int) {
+        val offsetX = baseX and ZONE_MASK
+        val offsetY = baseY and ZONE_MASK
+        /* rows are padded with the zones east of the window up to a power of two */
+        val columnShift = Int.SIZE_BITS - (((offsetX + width + ZONE_MASK) shr ZONE_SHIFT) - 1).countLeadingZeroBits()
+        val columns = 1 shl columnShift
+        val rows = (offsetY + height + ZONE_MASK) shr ZONE_SHIFT
+        if (zoneColumns == columns && zoneRows == rows && zoneVersion == map.zoneVersion) {
+            return
+        }
+        val zoneX = baseX shr ZONE_SHIFT
+        val zoneY = baseY shr ZONE_SHIFT
+        val count = rows shl columnShift
+        if (zones.size < count) {
+            zones = Array(count) { UNRESOLVED_ZONE }
+        }
+        for (i in 0 until count) {
+            zones[i] = map.zoneFlags(zoneX + (i and (columns - 1)), zoneY + (i shr columnShift), level)
+        }
+        zoneColumns = columns
+        zoneColumnShift = columnShift
+        zoneRows = rows
+        zoneOffsetX = offsetX
+        zoneOffsetY = offsetY
+        zoneVersion = map.zoneVersion
+    }
+
+    /* Copies the flags of the [width] x [height] window last [resolve]d into [dest], a row-major array [width] wide. */
+    internal fun copyFlags(width: Int, height: Int, dest: IntArray) {
+        for (y in 0 until height) {
+            val tileY = zoneOffsetY + y
+            val row = (tileY shr ZONE_SHIFT) shl zoneColumnShift
+            val rowOffset = (tileY and ZONE_MASK) shl ZONE_SHIFT
+            var tileX = zoneOffsetX
+            var index = y * width
+            val end = index + width
+            /* a zone row at a time */
+            while (index < end) {
+                val count = minOf(ZONE_SIZE - (tileX and ZONE_MASK), end - index)
+                val zone = zones[row + (tileX shr ZONE_SHIFT)]
+                System.arraycopy(zone, rowOffset + (tileX and ZONE_MASK), dest, index, count)
+                tileX += count
+                index += count
+            }
+        }
+    }
+
+    internal fun flag(x: Int, y: Int): Int {
+        val tileX = zoneOffsetX + x
+        val tileY = zoneOffsetY + y
+        val column = tileX shr ZONE_SHIFT
+        val row = tileY shr ZONE_SHIFT
+        if (column < 0 || column >= zoneColumns || row < 0 || row >= zoneRows || zoneVersion != map.zoneVersion) {
+            return map[baseX + x, baseY + y, level]
+        }
+        return zoneFlag(zones, zoneColumnShift, tileX, tileY)
+    }
+}
+
+/*
+ * Reads the flag [tileX], [tileY] tiles into the first of [zones], a table
+ * resolved by [CollisionMapFlagView.resolve] that is 1 << [columnShift] zones wide.
+ */
+@Suppress("NOTHING_TO_INLINE")
+internal inline fun zoneFlag(zones: Array<IntArray>, columnShift: Int, tileX: Int, tileY: Int): Int {
+    val zone = zones[((tileY shr ZONE_SHIFT) shl columnShift) + (tileX shr ZONE_SHIFT)]
+    return zone[(tileX and ZONE_MASK) or ((tileY and ZONE_MASK) shl ZONE_SHIFT)]
+}
@@ -0,0 +1,114 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ArgumentsSource
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+private const val RANDOM_SEARCH_MAP_SIZE = 32
+private const val RANDOM_MAP_COUNT = 200
+private const val UNLIMITED_TURNS = 0xFFFF
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class AStarPathFinderTest {
+
+    private val bfs = SmartPathFinder()
+
+    private val astar = AStarPathFinder()
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun matchSmartPathFinderLength(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val expected = bfs.findPath(
+            params.flags,
+            params.srcX,
+            params.srcY,
+            params.destX,
+            params.destY,
+            maxTurns = UNLIMITED_TURNS
+        )
+        val route = astar.findPath(
+            params.flags,
+            params.srcX,
+            params.srcY,
+            params.destX,
+            params.destY,
+            maxTurns = UNLIMITED_TURNS
+        )
+        Assertions.assertEquals(expected.success, route.success)
+        Assertions.assertEquals(expected.alternative, route.alternative)
+        Assertions.assertEquals(expected.size, route.size)
+        Assertions.assertEquals(expected.last(), route.last())
+        if (route.alternative) {
+            /* neither engine can stop early when the destination can not be reached */
+            Assertions.assertEquals(bfs.expandedNodes, astar.expandedNodes)
+        } else {
+            Assertions.assertTrue(astar.expandedNodes < bfs.expandedNodes)
+        }
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun trimMaxTurns(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val route = astar.findPath(params.flags, params.srcX, params.srcY, params.destX, params.destY, maxTurns = 2)
+        val waypoints = RouteBuffer(waypoints = true)
+        astar.findPath(waypoints, params.flags, params.srcX, params.srcY, params.destX, params.destY, maxTurns = 2)
+        Assertions.assertTrue(waypoints.size <= 3)
+        Assertions.assertEquals(route.last(), waypoints[waypoints.size - 1])
+    }
+
+    @Test
+    fun matchSmartPathFinderOnRandomMaps() {
+        val random = Random(7)
+        val bfs = SmartPathFinder(searchMapSize = RANDOM_SEARCH_MAP_SIZE)
+        val astar = AStarPathFinder(searchMapSize = RANDOM_SEARCH_MAP_SIZE)
+        val flags = IntArray(RANDOM_SEARCH_MAP_SIZE * RANDOM_SEARCH_MAP_SIZE)
+        val half = RANDOM_SEARCH_MAP_SIZE / 2
+        repeat(RANDOM_MAP_COUNT) {
+            for (i in flags.indices) {
+                flags[i] = when (random.nextInt(10)) {
+                    0, 1 -> CollisionFlag.OBJECT
+                    2 -> 1 shl random.nextInt(8)
+                    else -> 0
+                }
+            }
+            val srcSize = 1 + random.nextInt(3)
+            flags[(half * RANDOM_SEARCH_MAP_SIZE) + half] = 0
+            val src = RouteCoordinates(3200, 3200)
+            val dest = src.translate(random.nextInt(-half, half), random.nextInt(-half, half))
+            val objShape = if (random.nextBoolean()) -1 else 10
+            val expected = bfs.findPath(
+                flags,
+                src.x,
+                src.y,
+                dest.x,
+                dest.y,
+                srcSize = srcSize,
+                destWidth = 2,
+                destHeight = 2,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS
+            )
+            val route = astar.findPath(
+                flags,
+                src.x,
+                src.y,
+                dest.x,
+                dest.y,
+                srcSize = srcSize,
+                destWidth = 2,
+                destHeight = 2,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS
+            )
+            Assertions.assertEquals(expected.success, route.success)
+            Assertions.assertEquals(expected.alternative, route.alternative)
+            Assertions.assertEquals(expected.size, route.size)
+        }
+    }
+}
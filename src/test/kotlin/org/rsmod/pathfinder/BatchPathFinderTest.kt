@@ -0,0 +1,88 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import java.util.concurrent.ForkJoinPool
+import kotlin.random.Random
+
+private const val WORKER_COUNT = 4
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class BatchPathFinderTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(37)
+
+    private val executor = ForkJoinPool(WORKER_COUNT)
+
+    @AfterEach
+    fun shutdown() {
+        executor.shutdown()
+    }
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        map.fillRandomFlags(random)
+        val pf = SmartPathFinder()
+        val batchPf = BatchPathFinder(map, executor = executor)
+        val batch = PathRequestBatch(capacity = 8)
+        repeat(2) {
+            batch.clear()
+            /* a few busy spots, which share flag windows, among scattered requests */
+            val spots = List(3) { randomTile() }
+            repeat(150) {
+                val (srcX, srcY) = if (random.nextInt(3) == 0) randomTile() else spots.random(random)
+                batch.add(
+                    level = 0,
+                    srcX = srcX,
+                    srcY = srcY,
+                    destX = srcX + random.nextInt(-40, 40),
+                    destY = srcY + random.nextInt(-40, 40),
+                    srcSize = 1 + random.nextInt(2),
+                    destWidth = random.nextInt(2),
+                    destHeight = random.nextInt(2)
+                )
+            }
+            batchPf.findPaths(batch)
+            for (i in 0 until batch.size) {
+                val expected = pf.findPath(
+                    map,
+                    0,
+                    batch.srcX[i],
+                    batch.srcY[i],
+                    batch.destX[i],
+                    batch.destY[i],
+                    srcSize = batch.srcSize[i],
+                    destWidth = batch.destWidth[i],
+                    destHeight = batch.destHeight[i]
+                )
+                Assertions.assertEquals(expected, batch.route(i).toRoute())
+            }
+        }
+    }
+
+    @Test
+    fun keepRequestsInOrder() {
+        val batch = PathRequestBatch(capacity = 1)
+        for (i in 0 until 10) {
+            Assertions.assertEquals(i, batch.add(level = 0, srcX = 3200, srcY = 3200, destX = 3200 + i, destY = 3200))
+        }
+        BatchPathFinder(map, executor = executor).findPaths(batch)
+        for (i in 0 until 10) {
+            val route = batch.route(i)
+            Assertions.assertEquals(i, route.size)
+            if (i > 0) {
+                Assertions.assertEquals(3200 + i, route[route.size - 1].x)
+            }
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException::class.java) { batch.route(10) }
+    }
+
+    private fun randomTile(): Pair<Int, Int> {
+        return Pair(AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80), AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80))
+    }
+}
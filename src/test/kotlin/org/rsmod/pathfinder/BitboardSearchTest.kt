@@ -0,0 +1,116 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ArgumentsSource
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.collision.IntArrayFlagView
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+/* Not a multiple of 64, so that rows end part way into their last word. */
+private const val RANDOM_SEARCH_MAP_SIZE = 100
+private const val RANDOM_MAP_COUNT = 100
+private const val UNLIMITED_TURNS = 0xFFFF
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class BitboardSearchTest {
+
+    @Test
+    fun matchMoveMasks() {
+        val random = Random(17)
+        val flags = IntArray(RANDOM_SEARCH_MAP_SIZE * RANDOM_SEARCH_MAP_SIZE) {
+            /* swimming entities can only enter tiles with the floor flag */
+            randomFlag(random, walls = 2) or if (random.nextInt(4) != 0) CollisionFlag.FLOOR else 0
+        }
+        val view = IntArrayFlagView(flags, RANDOM_SEARCH_MAP_SIZE)
+        val search = BitboardSearch(RANDOM_SEARCH_MAP_SIZE)
+        for (collision in listOf(CollisionStrategies.Normal, CollisionStrategies.Swim)) {
+            for (srcSize in 1..2) {
+                search.prepare(view, srcSize, collision, 0)
+                search.ensureRows(0, RANDOM_SEARCH_MAP_SIZE - 1)
+                for (y in 0..RANDOM_SEARCH_MAP_SIZE - srcSize) {
+                    for (x in 0..RANDOM_SEARCH_MAP_SIZE - srcSize) {
+                        val expected = moveMask(view, x, y, srcSize, RANDOM_SEARCH_MAP_SIZE, collision)
+                        Assertions.assertEquals(expected, search.moves(x, y))
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun matchSmartPathFinderRoutes(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val bfs = SmartPathFinder()
+        val pf = SmartPathFinder(useBitboards = true)
+        val random = Random(19)
+        for (srcSize in 1..2) {
+            repeat(30) {
+                val destX = params.srcX + random.nextInt(-60, 60)
+                val destY = params.srcY + random.nextInt(-60, 60)
+                val expected = bfs.findPath(params.flags, params.srcX, params.srcY, destX, destY, srcSize = srcSize)
+                val route = pf.findPath(params.flags, params.srcX, params.srcY, destX, destY, srcSize = srcSize)
+                Assertions.assertEquals(expected, route)
+            }
+        }
+    }
+
+    @Test
+    fun matchSmartPathFinderOnRandomMaps() {
+        val random = Random(23)
+        val bfs = SmartPathFinder(searchMapSize = RANDOM_SEARCH_MAP_SIZE)
+        val pf = SmartPathFinder(searchMapSize = RANDOM_SEARCH_MAP_SIZE, useBitboards = true)
+        val flags = IntArray(RANDOM_SEARCH_MAP_SIZE * RANDOM_SEARCH_MAP_SIZE)
+        val src = 3200
+        val half = RANDOM_SEARCH_MAP_SIZE / 2
+        var alternatives = 0
+        repeat(RANDOM_MAP_COUNT) {
+            for (i in flags.indices) {
+                flags[i] = randomFlag(random, walls = 2)
+            }
+            flags[(half * RANDOM_SEARCH_MAP_SIZE) + half] = 0
+            val srcSize = 1 + random.nextInt(2)
+            val destX = src + random.nextInt(-half, half)
+            val destY = src + random.nextInt(-half, half)
+            val destWidth = random.nextInt(3)
+            val destHeight = random.nextInt(3)
+            val objShape = if (random.nextBoolean()) -1 else random.nextInt(23)
+            val objRot = random.nextInt(4)
+            val expected = bfs.findPath(
+                flags,
+                src,
+                src,
+                destX,
+                destY,
+                srcSize = srcSize,
+                destWidth = destWidth,
+                destHeight = destHeight,
+                objRot = objRot,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS
+            )
+            val route = pf.findPath(
+                flags,
+                src,
+                src,
+                destX,
+                destY,
+                srcSize = srcSize,
+                destWidth = destWidth,
+                destHeight = destHeight,
+                objRot = objRot,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS
+            )
+            Assertions.assertEquals(expected, route)
+            if (route.alternative) {
+                alternatives++
+            }
+        }
+        Assertions.assertTrue(alternatives > 0)
+    }
+}
@@ -0,0 +1,107 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+private const val SRC_X = 3200
+private const val SRC_Y = 3200
+private const val WINDOW_SIZE = 128
+private const val WINDOW_BASE = 3136
+private const val UNLIMITED_TURNS = 0xFFFF
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ClearanceMapTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(13)
+
+    @Test
+    fun updateClearancesWhenFlagsChange() {
+        map.fillRandomFlags(random, WINDOW_BASE, WINDOW_SIZE) { randomFlag() }
+        val clearance = ClearanceMap(map, 0, WINDOW_BASE, WINDOW_BASE, WINDOW_SIZE, WINDOW_SIZE)
+        assertClearances(clearance)
+        repeat(500) {
+            map[WINDOW_BASE + random.nextInt(WINDOW_SIZE), WINDOW_BASE + random.nextInt(WINDOW_SIZE), 0] = randomFlag()
+        }
+        assertClearances(clearance)
+    }
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        /* larger entities need more room to get anywhere */
+        map.fillRandomFlags(random, WINDOW_BASE, WINDOW_SIZE) { randomFlag(sparse = true) }
+        val clearance = ClearanceMap(map, 0, WINDOW_BASE, WINDOW_BASE, WINDOW_SIZE, WINDOW_SIZE)
+        val pf = SmartPathFinder()
+        var longRoutes = 0
+        repeat(150) {
+            repeat(20) {
+                val x = WINDOW_BASE + random.nextInt(WINDOW_SIZE)
+                val y = WINDOW_BASE + random.nextInt(WINDOW_SIZE)
+                map[x, y, 0] = randomFlag(sparse = true)
+            }
+            val srcSize = 3 + random.nextInt(3)
+            val destX = SRC_X + random.nextInt(-60, 60)
+            val destY = SRC_Y + random.nextInt(-60, 60)
+            val expected = pf.findPath(
+                map,
+                0,
+                SRC_X,
+                SRC_Y,
+                destX,
+                destY,
+                srcSize = srcSize,
+                maxTurns = UNLIMITED_TURNS
+            ).toList()
+            val route = pf.findPath(
+                map,
+                0,
+                SRC_X,
+                SRC_Y,
+                destX,
+                destY,
+                srcSize = srcSize,
+                maxTurns = UNLIMITED_TURNS,
+                clearance = clearance
+            ).toList()
+            Assertions.assertEquals(expected, route)
+            if (route.size > 20) {
+                longRoutes++
+            }
+        }
+        Assertions.assertTrue(longRoutes > 50)
+    }
+
+    private fun assertClearances(clearance: ClearanceMap) {
+        val flags = CollisionMapFlagView(map, 0, 0, 0)
+        val columnFlags = intArrayOf(
+            CollisionFlag.BLOCK_NORTH_AND_SOUTH_EAST,
+            CollisionFlag.BLOCK_NORTH_AND_SOUTH_WEST,
+            CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST
+        )
+        val rowFlags = intArrayOf(CollisionFlag.BLOCK_NORTH_EAST_AND_WEST, CollisionFlag.BLOCK_SOUTH_EAST_AND_WEST)
+        val normal = CollisionStrategies.Normal
+        for (y in WINDOW_BASE until WINDOW_BASE + WINDOW_SIZE - 4) {
+            for (x in WINDOW_BASE until WINDOW_BASE + WINDOW_SIZE - 4) {
+                for (length in 1..4) {
+                    for (clipFlag in columnFlags) {
+                        val expected = clearColumn(flags, x, y, length, clipFlag, normal)
+                        Assertions.assertEquals(expected, clearance.column(clipFlag, x, y) >= length)
+                    }
+                    for (clipFlag in rowFlags) {
+                        val expected = clearRow(flags, x, y, length, clipFlag, normal)
+                        Assertions.assertEquals(expected, clearance.row(clipFlag, x, y) >= length)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun randomFlag(sparse: Boolean = false): Int = randomFlag(random, walls = 2, outOf = if (sparse) 60 else 10)
+}
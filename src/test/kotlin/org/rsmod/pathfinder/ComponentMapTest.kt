@@ -0,0 +1,157 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+private const val SRC_X = 3200
+private const val SRC_Y = 3200
+private const val WINDOW_SIZE = 128
+private const val WINDOW_BASE = 3136
+private const val WIDE_WINDOW_SIZE = 320
+private const val RANDOM_SEARCH_COUNT = 300
+private const val UNLIMITED_TURNS = 0xFFFF
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ComponentMapTest {
+
+    private val map = CollisionMap()
+
+    private val components = ComponentMap(map, 0, WINDOW_BASE, WINDOW_BASE, WINDOW_SIZE, WINDOW_SIZE)
+
+    private val pf = SmartPathFinder()
+
+    @Test
+    fun rejectEnclosedDestination() {
+        /* the pen straddles the chunk border at y 3200 */
+        buildPen(minX = 3215, minY = 3193, maxX = 3225, maxY = 3203)
+        val dest = RouteCoordinates(3220, 3198)
+        Assertions.assertNotEquals(components.component(SRC_X, SRC_Y), components.component(dest.x, dest.y))
+        Assertions.assertEquals(components.component(3220, 3194), components.component(dest.x, dest.y))
+
+        val expected = SmartPathFinder().findPath(map, 0, SRC_X, SRC_Y, dest.x, dest.y)
+        val route = pf.findPath(map, 0, SRC_X, SRC_Y, dest.x, dest.y, components = components)
+        Assertions.assertTrue(route.alternative)
+        Assertions.assertEquals(expected.success, route.success)
+        Assertions.assertEquals(expected.size, route.size)
+        Assertions.assertEquals(expected.last(), route.last())
+
+        val rejected = pf.findPath(map, 0, SRC_X, SRC_Y, dest.x, dest.y, moveNear = false, components = components)
+        Assertions.assertFalse(rejected.success)
+    }
+
+    @Test
+    fun updateComponentsWhenFlagsChange() {
+        buildPen(minX = 3215, minY = 3193, maxX = 3225, maxY = 3203)
+        val dest = RouteCoordinates(3220, 3198)
+        Assertions.assertNotEquals(components.component(SRC_X, SRC_Y), components.component(dest.x, dest.y))
+
+        map.remove(3215, 3200, 0, CollisionFlag.OBJECT)
+        Assertions.assertEquals(components.component(SRC_X, SRC_Y), components.component(dest.x, dest.y))
+        val route = pf.findPath(map, 0, SRC_X, SRC_Y, dest.x, dest.y, components = components)
+        Assertions.assertFalse(route.alternative)
+        Assertions.assertEquals(dest, route.last())
+
+        map.add(3215, 3200, 0, CollisionFlag.OBJECT)
+        Assertions.assertNotEquals(components.component(SRC_X, SRC_Y), components.component(dest.x, dest.y))
+    }
+
+    @Test
+    fun ignoreTilesOutsideOfArea() {
+        Assertions.assertEquals(-1, components.component(SRC_X + WINDOW_SIZE, SRC_Y))
+        components.close()
+        map.add(SRC_X + 1, SRC_Y, 0, CollisionFlag.OBJECT)
+    }
+
+    @Test
+    fun matchRebuiltComponentsAfterChanges() {
+        val random = Random(13)
+        /* dense enough to split into many components, which labelling a chunk again renumbers */
+        map.fillRandomFlags(random, WINDOW_BASE, WIDE_WINDOW_SIZE) { randomFlag(random, objects = 4, walls = 0) }
+        val wide = ComponentMap(map, 0, WINDOW_BASE, WINDOW_BASE, WIDE_WINDOW_SIZE, WIDE_WINDOW_SIZE)
+        repeat(20) {
+            /* a few changes, so that most chunks and their borders are left as they are */
+            repeat(10) {
+                val x = WINDOW_BASE + random.nextInt(WIDE_WINDOW_SIZE)
+                val y = WINDOW_BASE + random.nextInt(WIDE_WINDOW_SIZE)
+                map[x, y, 0] = randomFlag(random, objects = 4, walls = 0)
+            }
+            val rebuilt = ComponentMap(map, 0, WINDOW_BASE, WINDOW_BASE, WIDE_WINDOW_SIZE, WIDE_WINDOW_SIZE)
+            for (x in WINDOW_BASE until WINDOW_BASE + WIDE_WINDOW_SIZE) {
+                for (y in WINDOW_BASE until WINDOW_BASE + WIDE_WINDOW_SIZE) {
+                    Assertions.assertEquals(rebuilt.component(x, y), wide.component(x, y))
+                }
+            }
+            rebuilt.close()
+        }
+    }
+
+    @Test
+    fun matchFullSearchOnRandomMaps() {
+        val random = Random(11)
+        map.fillRandomFlags(random, WINDOW_BASE, WINDOW_SIZE) { randomFlag(random, objects = 2) }
+        val expectedPf = SmartPathFinder()
+        var rejected = 0
+        repeat(RANDOM_SEARCH_COUNT) {
+            /* keep changing flags so that chunks have to be labelled again between searches */
+            repeat(50) {
+                val x = WINDOW_BASE + random.nextInt(WINDOW_SIZE)
+                val y = WINDOW_BASE + random.nextInt(WINDOW_SIZE)
+                map[x, y, 0] = randomFlag(random, objects = 2)
+            }
+            map[SRC_X, SRC_Y, 0] = 0
+            val destX = SRC_X + random.nextInt(-72, 72)
+            val destY = SRC_Y + random.nextInt(-72, 72)
+            val objShape = if (random.nextBoolean()) -1 else 10
+            if (components.component(SRC_X, SRC_Y) != components.component(destX, destY)) {
+                rejected++
+            }
+            val expected = expectedPf.findPath(
+                map,
+                0,
+                SRC_X,
+                SRC_Y,
+                destX,
+                destY,
+                destWidth = 2,
+                destHeight = 2,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS
+            )
+            val route = pf.findPath(
+                map,
+                0,
+                SRC_X,
+                SRC_Y,
+                destX,
+                destY,
+                destWidth = 2,
+                destHeight = 2,
+                objShape = objShape,
+                maxTurns = UNLIMITED_TURNS,
+                components = components
+            )
+            Assertions.assertEquals(expected.success, route.success)
+            Assertions.assertEquals(expected.alternative, route.alternative)
+            Assertions.assertEquals(expected.size, route.size)
+            if (route.success) {
+                Assertions.assertEquals(expected.last(), route.last())
+            }
+        }
+        Assertions.assertTrue(rejected > 0)
+    }
+
+    private fun buildPen(minX: Int, minY: Int, maxX: Int, maxY: Int) {
+        for (x in minX..maxX) {
+            map.add(x, minY, 0, CollisionFlag.OBJECT)
+            map.add(x, maxY, 0, CollisionFlag.OBJECT)
+        }
+        for (y in minY..maxY) {
+            map.add(minX, y, 0, CollisionFlag.OBJECT)
+            map.add(maxX, y, 0, CollisionFlag.OBJECT)
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ArgumentsSource
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionMapFlagView
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import kotlin.random.Random
+
+private const val SEARCH_MAP_SIZE = 128
+private const val WINDOW_BASE = 3000
+private const val WINDOW_SIZE = 40
+private const val UNLIMITED_TURNS = 0xFFFF
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ExitMaskMapTest {
+
+    private val map = CollisionMap()
+
+    @Test
+    fun updateMasksWhenFlagsChange() {
+        val random = Random(3)
+        map.fillRandomFlags(random, WINDOW_BASE - 4, WINDOW_SIZE + 8) { randomFlag(random, objects = 2, walls = 2) }
+        val exits = (1..3).map { ExitMaskMap(map, 0, WINDOW_BASE, WINDOW_BASE, WINDOW_SIZE, WINDOW_SIZE, srcSize = it) }
+        exits.forEach { assertMasks(it) }
+        repeat(200) {
+            val x = WINDOW_BASE - 4 + random.nextInt(WINDOW_SIZE + 8)
+            val y = WINDOW_BASE - 4 + random.nextInt(WINDOW_SIZE + 8)
+            map[x, y, 0] = randomFlag(random, objects = 2, walls = 2)
+        }
+        exits.forEach { assertMasks(it) }
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun matchSmartPathFinderRoutes(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val baseX = params.srcX - (SEARCH_MAP_SIZE / 2)
+        val baseY = params.srcY - (SEARCH_MAP_SIZE / 2)
+        for (y in 0 until SEARCH_MAP_SIZE) {
+            for (x in 0 until SEARCH_MAP_SIZE) {
+                map[baseX + x, baseY + y, 0] = params.flags[(y * SEARCH_MAP_SIZE) + x]
+            }
+        }
+        val pf = SmartPathFinder()
+        val random = Random(5)
+        for (srcSize in 1..3) {
+            val exits = ExitMaskMap(map, 0, baseX, baseY, SEARCH_MAP_SIZE, SEARCH_MAP_SIZE, srcSize = srcSize)
+            repeat(20) {
+                val destX = params.srcX + random.nextInt(-60, 60)
+                val destY = params.srcY + random.nextInt(-60, 60)
+                val expected = pf.findPath(
+                    map,
+                    0,
+                    params.srcX,
+                    params.srcY,
+                    destX,
+                    destY,
+                    srcSize = srcSize,
+                    maxTurns = UNLIMITED_TURNS
+                ).toList()
+                val route = pf.findPath(
+                    map,
+                    0,
+                    params.srcX,
+                    params.srcY,
+                    destX,
+                    destY,
+                    srcSize = srcSize,
+                    maxTurns = UNLIMITED_TURNS,
+                    exits = exits
+                ).toList()
+                Assertions.assertEquals(expected, route)
+            }
+            exits.close()
+        }
+    }
+
+    private fun assertMasks(exits: ExitMaskMap) {
+        val flags = CollisionMapFlagView(map, 0, 0, 0)
+        val size = exits.srcSize
+        for (y in WINDOW_BASE until WINDOW_BASE + WINDOW_SIZE) {
+            for (x in WINDOW_BASE until WINDOW_BASE + WINDOW_SIZE) {
+                flags.baseX = x - 1
+                flags.baseY = y - 1
+                val expected = moveMask(flags, 1, 1, size, size + 2, CollisionStrategies.Normal)
+                Assertions.assertEquals(expected, exits[x, y])
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import org.rsmod.pathfinder.flag.DirectionFlag
+import kotlin.random.Random
+
+/* A walled area small enough for every route within it to fit any search map centred in it. */
+private const val FIELD_BASE = 3170
+private const val FIELD_SIZE = 60
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class FlowFieldTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(59)
+
+    @Test
+    fun matchSmartPathFinderDistances() {
+        fillWalledFlags()
+        val pf = SmartPathFinder()
+        for (srcSize in 1..3) {
+            FlowField(map, srcSize = srcSize).use { field ->
+                repeat(5) {
+                    val destX = randomTile()
+                    val destY = randomTile()
+                    val (destWidth, destHeight, objShape) = when (random.nextInt(3)) {
+                        0 -> Triple(0, 0, -1)
+                        1 -> Triple(1 + random.nextInt(3), 1 + random.nextInt(3), 10)
+                        else -> Triple(1, 1, random.nextInt(4))
+                    }
+                    val objRot = random.nextInt(4)
+                    field.update(0, destX, destY, destWidth, destHeight, objRot, objShape)
+                    repeat(40) {
+                        val srcX = randomTile()
+                        val srcY = randomTile()
+                        val route = pf.findPath(
+                            map,
+                            0,
+                            srcX,
+                            srcY,
+                            destX,
+                            destY,
+                            srcSize = srcSize,
+                            destWidth = destWidth,
+                            destHeight = destHeight,
+                            objRot = objRot,
+                            objShape = objShape,
+                            moveNear = false,
+                            maxTurns = FIELD_SIZE * FIELD_SIZE
+                        )
+                        val distance = field.distance(srcX, srcY)
+                        Assertions.assertEquals(if (route.success) route.size else -1, distance)
+                        if (distance > 0) {
+                            assertWalk(field, srcX, srcY)
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    fun recomputeOnlyWhenStale() {
+        FlowField(map).use { field ->
+            Assertions.assertTrue(field.update(0, 3200, 3200))
+            Assertions.assertFalse(field.update(0, 3200, 3200))
+            Assertions.assertEquals(DirectionFlag.EAST, field.direction(3198, 3200))
+            Assertions.assertEquals(2, field.distance(3198, 3200))
+
+            /* outside of the window */
+            map[3400, 3400, 0] = CollisionFlag.OBJECT
+            Assertions.assertFalse(field.stale)
+
+            map[3199, 3200, 0] = CollisionFlag.OBJECT
+            Assertions.assertTrue(field.stale)
+            Assertions.assertTrue(field.update(0, 3200, 3200))
+            Assertions.assertFalse(field.stale)
+            Assertions.assertEquals(4, field.distance(3198, 3200))
+            Assertions.assertEquals(DirectionFlag.NORTH, field.direction(3198, 3200))
+
+            Assertions.assertTrue(field.update(0, 3201, 3200))
+            Assertions.assertEquals(0, field.direction(3201, 3200))
+            Assertions.assertEquals(0, field.distance(3201, 3200))
+        }
+    }
+
+    @Test
+    fun measureDistancesWithinWindow() {
+        /* a wall across the whole window, open at its south end; the shorter way around it lies north of the window */
+        for (y in 3136..3263) {
+            map[3150, y, 0] = CollisionFlag.OBJECT
+        }
+        map[3150, 3137, 0] = 0
+        FlowField(map).use { field ->
+            field.update(0, 3200, 3200)
+            val route = SmartPathFinder().findPath(map, 0, 3140, 3260, 3200, 3200, moveNear = false)
+            Assertions.assertTrue(route.success)
+            Assertions.assertTrue(route.any { it.y > field.baseY + field.searchMapSize - 1 })
+            Assertions.assertTrue(field.distance(3140, 3260) > route.size)
+            assertWalk(field, 3140, 3260)
+
+            map[3150, 3137, 0] = CollisionFlag.OBJECT
+            field.update(0, 3200, 3200)
+            Assertions.assertEquals(-1, field.distance(3140, 3260))
+        }
+    }
+
+    /* Follows the field from [x], [y], one step closer to the destination at a time. */
+    private fun assertWalk(field: FlowField, x: Int, y: Int) {
+        var currX = x
+        var currY = y
+        var distance = field.distance(currX, currY)
+        while (distance > 0) {
+            val direction = field.direction(currX, currY)
+            currX += when {
+                (direction and DirectionFlag.EAST) != 0 -> 1
+                (direction and DirectionFlag.WEST) != 0 -> -1
+                else -> 0
+            }
+            currY += when {
+                (direction and DirectionFlag.NORTH) != 0 -> 1
+                (direction and DirectionFlag.SOUTH) != 0 -> -1
+                else -> 0
+            }
+            Assertions.assertEquals(distance - 1, field.distance(currX, currY))
+            distance--
+        }
+        Assertions.assertEquals(0, field.direction(currX, currY))
+    }
+
+    private fun randomTile(): Int = FIELD_BASE + 1 + random.nextInt(FIELD_SIZE - 2)
+
+    private fun fillWalledFlags() {
+        map.fillRandomFlags(random, FIELD_BASE, FIELD_SIZE)
+        for (i in FIELD_BASE until FIELD_BASE + FIELD_SIZE) {
+            map[i, FIELD_BASE, 0] = CollisionFlag.OBJECT
+            map[i, FIELD_BASE + FIELD_SIZE - 1, 0] = CollisionFlag.OBJECT
+            map[FIELD_BASE, i, 0] = CollisionFlag.OBJECT
+            map[FIELD_BASE + FIELD_SIZE - 1, i, 0] = CollisionFlag.OBJECT
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.math.abs
+
+private const val WALL_X = 3300
+private const val WALL_MIN_Y = 3000
+private const val WALL_MAX_Y = 3400
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class HierarchicalPathFinderTest {
+
+    private val map = CollisionMap()
+
+    private val pf = HierarchicalPathFinder(map)
+
+    @Test
+    fun routeAroundWallPastSearchMap() {
+        buildWall(gapY = 3390)
+        val src = RouteCoordinates(3250, 3200)
+        val dest = RouteCoordinates(3350, 3200)
+        val direct = SmartPathFinder().findPath(map, 0, src.x, src.y, dest.x, dest.y)
+        Assertions.assertFalse(direct.success && !direct.alternative)
+
+        val route = pf.findPath(0, src.x, src.y, dest.x, dest.y)
+        Assertions.assertTrue(route.success)
+        Assertions.assertFalse(route.alternative)
+        Assertions.assertEquals(dest, route.last())
+        Assertions.assertTrue(route.contains(RouteCoordinates(WALL_X, 3390)))
+        assertWalkable(src, route)
+    }
+
+    @Test
+    fun updateClustersWhenFlagsChange() {
+        buildWall(gapY = 3390)
+        val src = RouteCoordinates(3250, 3200)
+        val dest = RouteCoordinates(3350, 3200)
+        Assertions.assertTrue(pf.findPath(0, src.x, src.y, dest.x, dest.y).contains(RouteCoordinates(WALL_X, 3390)))
+
+        map.add(WALL_X, 3390, 0, CollisionFlag.OBJECT)
+        map.remove(WALL_X, 3010, 0, CollisionFlag.OBJECT)
+        val route = pf.findPath(0, src.x, src.y, dest.x, dest.y)
+        Assertions.assertFalse(route.alternative)
+        Assertions.assertEquals(dest, route.last())
+        Assertions.assertTrue(route.contains(RouteCoordinates(WALL_X, 3010)))
+        assertWalkable(src, route)
+
+        map.add(WALL_X, 3010, 0, CollisionFlag.OBJECT)
+        val around = pf.findPath(0, src.x, src.y, dest.x, dest.y)
+        Assertions.assertEquals(dest, around.last())
+        Assertions.assertTrue(around.any { it.y < WALL_MIN_Y || it.y > WALL_MAX_Y })
+        assertWalkable(src, around)
+    }
+
+    @Test
+    fun searchNearbyDestinationsDirectly() {
+        buildWall(gapY = 3210)
+        val src = RouteCoordinates(3290, 3200)
+        val dest = RouteCoordinates(3310, 3200)
+        val expected = AStarPathFinder().findPath(map, 0, src.x, src.y, dest.x, dest.y)
+        val route = pf.findPath(0, src.x, src.y, dest.x, dest.y)
+        Assertions.assertEquals(expected.toList(), route.toList())
+    }
+
+    @Test
+    fun walkWaypoints() {
+        buildWall(gapY = 3390)
+        val src = RouteCoordinates(3250, 3200)
+        val dest = RouteCoordinates(3350, 3200)
+        val route = pf.findPath(0, src.x, src.y, dest.x, dest.y)
+        val waypoints = RouteBuffer(waypoints = true)
+        pf.findPath(waypoints, 0, src.x, src.y, dest.x, dest.y)
+        val steps = mutableListOf<RouteCoordinates>()
+        for (step in waypoints.steps()) {
+            steps.add(step)
+        }
+        Assertions.assertTrue(waypoints.size < route.size)
+        Assertions.assertEquals(route.toList(), steps)
+    }
+
+    private fun buildWall(gapY: Int) {
+        for (y in WALL_MIN_Y..WALL_MAX_Y) {
+            if (y != gapY) {
+                map.add(WALL_X, y, 0, CollisionFlag.OBJECT)
+            }
+        }
+    }
+
+    private fun assertWalkable(src: RouteCoordinates, route: Route) {
+        var prev = src
+        for (coords in route) {
+            Assertions.assertEquals(1, maxOf(abs(coords.x - prev.x), abs(coords.y - prev.y)))
+            Assertions.assertEquals(0, map[coords.x, coords.y, 0])
+            prev = coords
+        }
+    }
+}
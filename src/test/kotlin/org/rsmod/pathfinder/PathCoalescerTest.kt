@@ -0,0 +1,45 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.flag.CollisionFlag
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class PathCoalescerTest {
+
+    private val map = CollisionMap()
+
+    @Test
+    fun shareRoutesWithinTick() {
+        PathCoalescer(map).use { coalescer ->
+            val route = coalescer.findPath(0, 3200, 3200, 3210, 3205)
+            Assertions.assertSame(route, coalescer.findPath(0, 3200, 3200, 3210, 3205))
+            Assertions.assertNotSame(route, coalescer.findPath(0, 3200, 3200, 3210, 3205, srcSize = 2))
+            val swim = coalescer.findPath(0, 3200, 3200, 3210, 3205, collision = CollisionStrategies.Swim)
+            Assertions.assertNotSame(route, swim)
+            Assertions.assertEquals(4, coalescer.requests)
+            Assertions.assertEquals(1, coalescer.coalesced)
+            Assertions.assertEquals(0.25, coalescer.hitRate)
+
+            coalescer.nextTick()
+            val next = coalescer.findPath(0, 3200, 3200, 3210, 3205)
+            Assertions.assertNotSame(route, next)
+            Assertions.assertEquals(route, next)
+        }
+    }
+
+    @Test
+    fun searchAgainOnceFlagsChange() {
+        PathCoalescer(map).use { coalescer ->
+            val route = coalescer.findPath(0, 3200, 3200, 3203, 3200)
+            map[3202, 3200, 0] = CollisionFlag.OBJECT
+            val blocked = coalescer.findPath(0, 3200, 3200, 3203, 3200)
+            Assertions.assertNotEquals(route, blocked)
+            Assertions.assertEquals(SmartPathFinder().findPath(map, 0, 3200, 3200, 3203, 3200), blocked)
+            Assertions.assertEquals(0, coalescer.coalesced)
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.api.assertThrows
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class PathDestinationsTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(61)
+
+    @Test
+    fun matchNearestSingleSearch() {
+        map.fillRandomFlags(random)
+        val pf = SmartPathFinder()
+        val buffer = RouteBuffer()
+        val destinations = PathDestinations(capacity = 1)
+        repeat(100) {
+            val srcX = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val srcY = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val srcSize = 1 + random.nextInt(3)
+            destinations.clear()
+            repeat(1 + random.nextInt(6)) {
+                val (destWidth, destHeight, objShape) = when (random.nextInt(3)) {
+                    0 -> Triple(0, 0, -1)
+                    1 -> Triple(1 + random.nextInt(3), 1 + random.nextInt(3), 10)
+                    else -> Triple(1, 1, random.nextInt(4))
+                }
+                destinations.add(
+                    srcX - 40 + random.nextInt(80),
+                    srcY - 40 + random.nextInt(80),
+                    destWidth,
+                    destHeight,
+                    random.nextInt(4),
+                    objShape
+                )
+            }
+            val index = pf.findPath(buffer, map, 0, srcX, srcY, destinations, srcSize, AREA_SIZE * AREA_SIZE)
+            val routes = (0 until destinations.size).map { i ->
+                pf.findPath(
+                    map,
+                    0,
+                    srcX,
+                    srcY,
+                    destinations.destX[i],
+                    destinations.destY[i],
+                    srcSize = srcSize,
+                    destWidth = destinations.destWidth[i],
+                    destHeight = destinations.destHeight[i],
+                    objRot = destinations.objRot[i],
+                    objShape = destinations.objShape[i],
+                    moveNear = false,
+                    maxTurns = AREA_SIZE * AREA_SIZE
+                )
+            }
+            if (index == -1) {
+                Assertions.assertTrue(buffer.failed)
+                Assertions.assertTrue(routes.all { it.failed })
+                return@repeat
+            }
+            Assertions.assertEquals(routes[index], buffer.toRoute())
+            for (route in routes) {
+                if (route.success) {
+                    Assertions.assertTrue(route.size >= buffer.size)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun pickFirstAddedWhenReachedTogether() {
+        val pf = SmartPathFinder()
+        val buffer = RouteBuffer()
+        val destinations = PathDestinations()
+        Assertions.assertEquals(0, destinations.add(3203, 3200))
+        Assertions.assertEquals(1, destinations.add(3204, 3200, destWidth = 1, destHeight = 1, objShape = 10))
+        destinations.add(3210, 3210)
+        Assertions.assertEquals(0, pf.findPath(buffer, map, 0, 3200, 3200, destinations))
+        Assertions.assertEquals(3, buffer.size)
+        Assertions.assertEquals(RouteCoordinates(3203, 3200), buffer[2])
+
+        destinations.clear()
+        destinations.add(3204, 3200, destWidth = 1, destHeight = 1, objShape = 10)
+        destinations.add(3203, 3200)
+        Assertions.assertEquals(0, pf.findPath(buffer, map, 0, 3200, 3200, destinations))
+        Assertions.assertEquals(3, buffer.size)
+
+        map[3203, 3200, 0] = CollisionFlag.OBJECT
+        Assertions.assertEquals(0, pf.findPath(buffer, map, 0, 3200, 3200, destinations))
+        Assertions.assertEquals(4, buffer.size)
+        Assertions.assertFalse(buffer.alternative)
+
+        destinations.clear()
+        assertThrows<IllegalArgumentException> { pf.findPath(buffer, map, 0, 3200, 3200, destinations) }
+    }
+}
@@ -0,0 +1,70 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.flag.CollisionFlag
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+private const val THREAD_COUNT = 4
+private const val SEARCHES_PER_THREAD = 200
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class PathFinderPoolTest {
+
+    @Test
+    fun reuseReleasedPathFinders() {
+        val pool = PathFinderPool(stripes = 2)
+        val pf = pool.borrow()
+        pool.release(pf)
+        Assertions.assertSame(pf, pool.borrow())
+        Assertions.assertNotSame(pf, pool.borrow())
+    }
+
+    @Test
+    fun buildPathFindersOfSearchMapSize() {
+        val pool = PathFinderPool(searchMapSize = 64)
+        Assertions.assertEquals(64, pool.borrow().searchMapSize)
+        Assertions.assertThrows(IllegalArgumentException::class.java) {
+            pool.release(SmartPathFinder())
+        }
+        val mismatched = PathFinderPool(searchMapSize = 64) { SmartPathFinder() }
+        Assertions.assertThrows(IllegalArgumentException::class.java) {
+            mismatched.borrow()
+        }
+    }
+
+    @Test
+    fun neverShareBorrowedPathFinders() {
+        val pool = PathFinderPool(stripes = 2)
+        val borrowed = Collections.newSetFromMap(IdentityHashMap<SmartPathFinder, Boolean>())
+        val barrier = CyclicBarrier(THREAD_COUNT)
+        val random = Random(31)
+        val flags = IntArray(DEFAULT_SEARCH_MAP_SIZE * DEFAULT_SEARCH_MAP_SIZE) {
+            if (random.nextInt(8) == 0) CollisionFlag.OBJECT else 0
+        }
+        val expected = SmartPathFinder().findPath(flags, 3200, 3200, 3230, 3240)
+        val executor = Executors.newFixedThreadPool(THREAD_COUNT)
+        val futures = (0 until THREAD_COUNT).map {
+            executor.submit {
+                barrier.await()
+                repeat(SEARCHES_PER_THREAD) {
+                    pool.use { pf ->
+                        Assertions.assertTrue(synchronized(borrowed) { borrowed.add(pf) })
+                        val route = pf.findPath(flags, 3200, 3200, 3230, 3240)
+                        synchronized(borrowed) { borrowed.remove(pf) }
+                        Assertions.assertEquals(expected, route)
+                    }
+                }
+            }
+        }
+        futures.forEach { it.get() }
+        executor.shutdown()
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS))
+    }
+}
@@ -0,0 +1,62 @@
+package org.rsmod.pathfinder
+
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.junit.jupiter.api.extension.ExtensionContext
+import org.junit.jupiter.params.provider.Arguments
+import org.junit.jupiter.params.provider.ArgumentsProvider
+import java.util.stream.Stream
+
+internal fun loadParameters(resourceFile: String): PathParameter {
+    val mapper = ObjectMapper(JsonFactory())
+    val input = Route::class.java.getResourceAsStream(resourceFile)
+    return input.use { mapper.readValue(it, PathParameter::class.java) }
+}
+
+internal object ParameterFileNameProvider : ArgumentsProvider {
+
+    override fun provideArguments(context: ExtensionContext): Stream<out Arguments> {
+        return Stream.of(
+            Arguments.of("lumbridge.json"),
+            Arguments.of("barb-village.json"),
+            Arguments.of("gnome-maze.json") /* stops after 24 turns */
+        )
+    }
+}
+
+internal data class PathParameter(
+    val srcX: Int,
+    val srcY: Int,
+    val destX: Int,
+    val destY: Int,
+    val expectedX: Int,
+    val expectedY: Int,
+    val flags: IntArray
+) {
+
+    constructor() : this(0, 0, 0, 0, 0, 0, intArrayOf())
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+
+        other as PathParameter
+
+        if (srcX != other.srcX) return false
+        if (srcY != other.srcY) return false
+        if (destX != other.destX) return false
+        if (destY != other.destY) return false
+        if (!flags.contentEquals(other.flags)) return false
+
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = srcX
+        result = 31 * result + srcY
+        result = 31 * result + destX
+        result = 31 * result + destY
+        result = 31 * result + flags.contentHashCode()
+        return result
+    }
+}
@@ -0,0 +1,142 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategy
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+private const val SRC_X = 3200
+private const val SRC_Y = 3200
+private const val WAIT_SECONDS = 10L
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class PathServiceTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(41)
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        map.fillRandomFlags(random) { randomFlag(random, walls = 0, outOf = 8) }
+        val pf = SmartPathFinder()
+        PathService(map, threads = 2).use { service ->
+            val destinations = List(50) { Pair(SRC_X + random.nextInt(-50, 50), SRC_Y + random.nextInt(-50, 50)) }
+            val routes = destinations.map { (destX, destY) -> service.findPath(0, SRC_X, SRC_Y, destX, destY) }
+            for ((i, destination) in destinations.withIndex()) {
+                val expected = pf.findPath(map, 0, SRC_X, SRC_Y, destination.first, destination.second)
+                Assertions.assertEquals(expected, routes[i].get(WAIT_SECONDS, TimeUnit.SECONDS))
+            }
+        }
+    }
+
+    @Test
+    fun searchHigherPrioritiesFirst() {
+        val gate = GateCollision()
+        PathService(map, threads = 1, collision = gate).use { service ->
+            val blocker = block(service)
+            val order = ArrayList<PathPriority>()
+            val routes = ArrayList<CompletableFuture<*>>()
+            for (priority in listOf(PathPriority.Low, PathPriority.Normal, PathPriority.High)) {
+                repeat(3) {
+                    val route = service.findPath(0, SRC_X, SRC_Y, SRC_X + 5, SRC_Y + 5, priority = priority)
+                    routes += route.thenRun { synchronized(order) { order += priority } }
+                }
+            }
+            gate.open()
+            blocker.get(WAIT_SECONDS, TimeUnit.SECONDS)
+            routes.forEach { it.get(WAIT_SECONDS, TimeUnit.SECONDS) }
+            val expected = listOf(PathPriority.High, PathPriority.Normal, PathPriority.Low)
+            Assertions.assertEquals(expected.flatMap { priority -> List(3) { priority } }, order)
+        }
+    }
+
+    @Test
+    fun fallBackOnceTimedOut() {
+        map.fillRandomFlags(random) { randomFlag(random, walls = 0, outOf = 8) }
+        val gate = GateCollision()
+        PathService(map, threads = 1, collision = gate).use { service ->
+            val blocker = block(service)
+            val near = service.findPath(0, SRC_X, SRC_Y, SRC_X + 30, SRC_Y + 20, timeoutMillis = 1)
+            val strict = service.findPath(0, SRC_X, SRC_Y, SRC_X + 30, SRC_Y + 20, moveNear = false, timeoutMillis = 1)
+            val patient = service.findPath(0, SRC_X, SRC_Y, SRC_X + 30, SRC_Y + 20)
+            Thread.sleep(20)
+            gate.open()
+            blocker.get(WAIT_SECONDS, TimeUnit.SECONDS)
+            val expected = DumbPathFinder().findPath(map, 0, SRC_X, SRC_Y, SRC_X + 30, SRC_Y + 20)
+            Assertions.assertEquals(expected, near.get(WAIT_SECONDS, TimeUnit.SECONDS))
+            val failed = strict.get(WAIT_SECONDS, TimeUnit.SECONDS)
+            Assertions.assertTrue(failed.failed)
+            Assertions.assertTrue(failed.isEmpty())
+            val route = SmartPathFinder().findPath(map, 0, SRC_X, SRC_Y, SRC_X + 30, SRC_Y + 20)
+            Assertions.assertEquals(route, patient.get(WAIT_SECONDS, TimeUnit.SECONDS))
+        }
+    }
+
+    @Test
+    fun rejectRequestsWhenQueueIsFull() {
+        val gate = GateCollision()
+        PathService(map, threads = 1, queueCapacity = 2, collision = gate).use { service ->
+            block(service)
+            repeat(2) {
+                Assertions.assertFalse(request(service, PathPriority.Low).isDone)
+            }
+            val rejected = request(service, PathPriority.Low)
+            val error = Assertions.assertThrows(ExecutionException::class.java) { rejected.get() }
+            Assertions.assertTrue(error.cause is RejectedExecutionException)
+            Assertions.assertFalse(request(service, PathPriority.High).isDone)
+            Assertions.assertEquals(2, service.queued(PathPriority.Low))
+            gate.open()
+        }
+    }
+
+    @Test
+    fun cancelQueuedRequestsOnClose() {
+        val gate = GateCollision()
+        val service = PathService(map, threads = 1, collision = gate)
+        block(service)
+        val queued = service.findPath(0, SRC_X, SRC_Y, SRC_X + 1, SRC_Y)
+        service.close()
+        Assertions.assertTrue(queued.isCancelled)
+        val rejected = service.findPath(0, SRC_X, SRC_Y, SRC_X + 1, SRC_Y)
+        val error = Assertions.assertThrows(ExecutionException::class.java) { rejected.get() }
+        Assertions.assertTrue(error.cause is RejectedExecutionException)
+    }
+
+    private fun request(service: PathService, priority: PathPriority): CompletableFuture<Route> {
+        return service.findPath(0, SRC_X, SRC_Y, SRC_X + 1, SRC_Y, priority = priority)
+    }
+
+    /* Queues a request that keeps the only worker busy until the gate opens. */
+    private fun block(service: PathService): CompletableFuture<Route> {
+        val blocker = service.findPath(0, SRC_X, SRC_Y, SRC_X + 1, SRC_Y)
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS)
+        while (service.queued(PathPriority.Normal) > 0) {
+            Assertions.assertTrue(System.nanoTime() < deadline)
+            Thread.yield()
+        }
+        return blocker
+    }
+
+    /* Normal collision that holds up every check until it is opened. */
+    private class GateCollision : CollisionStrategy {
+
+        private val latch = CountDownLatch(1)
+
+        fun open() {
+            latch.countDown()
+        }
+
+        override fun canMove(tileFlag: Int, blockFlag: Int): Boolean {
+            latch.await()
+            return (tileFlag and blockFlag) == 0
+        }
+    }
+}
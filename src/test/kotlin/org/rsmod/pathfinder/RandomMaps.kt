@@ -0,0 +1,40 @@
+package org.rsmod.pathfinder
+
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+/* The area of the world tests fill with random flags, wide enough for searches from its middle. */
+internal const val AREA_BASE = 3100
+internal const val AREA_SIZE = 200
+
+/**
+ * Rolls a flag out of [outOf] chances: the first [objects] of them block the
+ * tile with an object, the next [walls] of them put a single random wall on
+ * it, and the rest leave it open.
+ */
+internal fun randomFlag(random: Random, objects: Int = 1, walls: Int = 1, outOf: Int = 10): Int {
+    val roll = random.nextInt(outOf)
+    return when {
+        roll < objects -> CollisionFlag.OBJECT
+        roll < objects + walls -> 1 shl random.nextInt(8)
+        else -> 0
+    }
+}
+
+/**
+ * Sets every tile of the [size] by [size] area at [base], [base] on level 0
+ * to a flag of [flag].
+ */
+internal fun CollisionMap.fillRandomFlags(
+    random: Random,
+    base: Int = AREA_BASE,
+    size: Int = AREA_SIZE,
+    flag: () -> Int = { randomFlag(random) }
+) {
+    for (x in base until base + size) {
+        for (y in base until base + size) {
+            this[x, y, 0] = flag()
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class ReachQueryTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(71)
+
+    @Test
+    fun matchRouteSize() {
+        map.fillRandomFlags(random)
+        val pf = SmartPathFinder()
+        val bitboardPf = SmartPathFinder(useBitboards = true)
+        repeat(300) {
+            val srcX = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val srcY = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val destX = srcX - 30 + random.nextInt(60)
+            val destY = srcY - 30 + random.nextInt(60)
+            val srcSize = 1 + random.nextInt(3)
+            val (destWidth, destHeight, objShape) = when (random.nextInt(3)) {
+                0 -> Triple(0, 0, -1)
+                1 -> Triple(1 + random.nextInt(3), 1 + random.nextInt(3), 10)
+                else -> Triple(1, 1, random.nextInt(4))
+            }
+            val objRot = random.nextInt(4)
+            val route = pf.findPath(
+                map,
+                0,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                srcSize = srcSize,
+                destWidth = destWidth,
+                destHeight = destHeight,
+                objRot = objRot,
+                objShape = objShape,
+                moveNear = false,
+                maxTurns = AREA_SIZE * AREA_SIZE
+            )
+            val expected = if (route.success) route.size else -1
+            for (finder in listOf(pf, bitboardPf)) {
+                val distance = finder.distanceTo(
+                    map,
+                    0,
+                    srcX,
+                    srcY,
+                    destX,
+                    destY,
+                    srcSize = srcSize,
+                    destWidth = destWidth,
+                    destHeight = destHeight,
+                    objRot = objRot,
+                    objShape = objShape
+                )
+                Assertions.assertEquals(expected, distance)
+            }
+            if (expected == -1) {
+                return@repeat
+            }
+            val within = pf.canReach(
+                map,
+                0,
+                srcX,
+                srcY,
+                destX,
+                destY,
+                srcSize,
+                destWidth,
+                destHeight,
+                objRot,
+                objShape,
+                maxDistance = expected
+            )
+            Assertions.assertTrue(within)
+            if (expected > 0) {
+                val short = pf.canReach(
+                    map,
+                    0,
+                    srcX,
+                    srcY,
+                    destX,
+                    destY,
+                    srcSize,
+                    destWidth,
+                    destHeight,
+                    objRot,
+                    objShape,
+                    maxDistance = expected - 1
+                )
+                Assertions.assertFalse(short)
+            }
+        }
+    }
+
+    @Test
+    fun stopAtMaxDistance() {
+        val pf = SmartPathFinder()
+        Assertions.assertEquals(0, pf.distanceTo(map, 0, 3200, 3200, 3200, 3200, maxDistance = 0))
+        Assertions.assertEquals(8, pf.distanceTo(map, 0, 3200, 3200, 3208, 3205, maxDistance = 8))
+        Assertions.assertEquals(-1, pf.distanceTo(map, 0, 3200, 3200, 3208, 3205, maxDistance = 7))
+        Assertions.assertTrue(pf.expandedNodes < 16 * 16)
+        Assertions.assertTrue(pf.canReach(map, 0, 3200, 3200, 3201, 3201, destWidth = 1, destHeight = 1, objShape = 10))
+
+        map[3201, 3200, 0] = CollisionFlag.WALL_WEST
+        Assertions.assertEquals(3, pf.distanceTo(map, 0, 3200, 3200, 3201, 3200))
+    }
+}
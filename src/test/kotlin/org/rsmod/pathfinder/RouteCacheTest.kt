@@ -0,0 +1,99 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.CollisionStrategies
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class RouteCacheTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(53)
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        map.fillRandomFlags(random) { randomFlag() }
+        val pf = SmartPathFinder()
+        RouteCache(map, capacity = 64).use { cache ->
+            val requests = List(40) {
+                val srcX = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+                val srcY = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+                val destX = srcX + random.nextInt(-30, 30)
+                val destY = srcY + random.nextInt(-30, 30)
+                intArrayOf(srcX, srcY, destX, destY, random.nextInt(2))
+            }
+            repeat(300) {
+                val (srcX, srcY, destX, destY, swim) = requests.random(random)
+                val collision = if (swim == 1) CollisionStrategies.Swim else CollisionStrategies.Normal
+                if (random.nextInt(10) == 0) {
+                    map[srcX + random.nextInt(-20, 20), srcY + random.nextInt(-20, 20), 0] = randomFlag()
+                }
+                val expected = pf.findPath(map, 0, srcX, srcY, destX, destY, collision = collision)
+                Assertions.assertEquals(expected, cache.findPath(0, srcX, srcY, destX, destY, collision = collision))
+            }
+            Assertions.assertEquals(300, cache.hits + cache.misses)
+            Assertions.assertTrue(cache.hits > 0)
+            Assertions.assertTrue(cache.invalidations > 0)
+        }
+    }
+
+    @Test
+    fun invalidateOnlyTouchedZones() {
+        RouteCache(map).use { cache ->
+            val route = cache.findPath(0, 3200, 3200, 3203, 3200)
+            Assertions.assertEquals(1, cache.misses)
+
+            /* within the search map, but far from any tile the search expanded */
+            map[3240, 3240, 0] = CollisionFlag.OBJECT
+            Assertions.assertEquals(route, cache.findPath(0, 3200, 3200, 3203, 3200))
+            Assertions.assertEquals(1, cache.hits)
+            Assertions.assertEquals(0, cache.invalidations)
+
+            map[3202, 3200, 0] = CollisionFlag.OBJECT
+            Assertions.assertEquals(1, cache.invalidations)
+            val expected = SmartPathFinder().findPath(map, 0, 3200, 3200, 3203, 3200)
+            Assertions.assertNotEquals(route, expected)
+            Assertions.assertEquals(expected, cache.findPath(0, 3200, 3200, 3203, 3200))
+            Assertions.assertEquals(2, cache.misses)
+        }
+    }
+
+    @Test
+    fun evictEntriesNotHitSinceLastSweep() {
+        RouteCache(map, capacity = 2).use { cache ->
+            cache.findPath(0, 3200, 3200, 3201, 3200)
+            cache.findPath(0, 3200, 3200, 3202, 3200)
+            cache.findPath(0, 3200, 3200, 3201, 3200)
+            Assertions.assertEquals(1, cache.hits)
+            cache.findPath(0, 3200, 3200, 3203, 3200)
+            Assertions.assertEquals(1, cache.evictions)
+            Assertions.assertEquals(2, cache.size)
+
+            cache.findPath(0, 3200, 3200, 3201, 3200)
+            Assertions.assertEquals(2, cache.hits)
+            cache.findPath(0, 3200, 3200, 3202, 3200)
+            Assertions.assertEquals(4, cache.misses)
+        }
+    }
+
+    @Test
+    fun keepRoutesApartByBuffer() {
+        RouteCache(map).use { cache ->
+            val steps = cache.findPath(RouteBuffer(), 0, 3200, 3200, 3210, 3205)
+            val waypoints = cache.findPath(RouteBuffer(waypoints = true), 0, 3200, 3200, 3210, 3205)
+            Assertions.assertEquals(2, cache.misses)
+            Assertions.assertEquals(10, steps.size)
+            Assertions.assertEquals(2, waypoints.size)
+        }
+    }
+
+    private fun randomFlag(): Int = when (random.nextInt(10)) {
+        0 -> CollisionFlag.FLOOR
+        else -> randomFlag(random, objects = 2, outOf = 9)
+    }
+}
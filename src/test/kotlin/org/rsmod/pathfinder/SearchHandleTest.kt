@@ -0,0 +1,71 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class SearchHandleTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(43)
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        map.fillRandomFlags(random) { randomFlag(random, objects = 2) }
+        val pf = SmartPathFinder()
+        val handle = SearchHandle()
+        repeat(150) {
+            val srcX = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+            val srcY = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+            val destX = srcX + random.nextInt(-40, 40)
+            val destY = srcY + random.nextInt(-40, 40)
+            val srcSize = 1 + random.nextInt(3)
+            val moveNear = random.nextInt(4) != 0
+            val maxNodes = 1 + random.nextInt(200)
+            handle.start(map, 0, srcX, srcY, destX, destY, srcSize = srcSize, moveNear = moveNear)
+            var expanded = 0
+            while (handle.step(maxNodes) == SearchStatus.InProgress) {
+                Assertions.assertEquals(expanded + maxNodes, handle.expandedNodes)
+                expanded = handle.expandedNodes
+            }
+            Assertions.assertTrue(handle.expandedNodes - expanded <= maxNodes)
+            val expected = pf.findPath(map, 0, srcX, srcY, destX, destY, srcSize = srcSize, moveNear = moveNear)
+            Assertions.assertEquals(expected, handle.route())
+            Assertions.assertEquals(expected.success && !expected.alternative, handle.status == SearchStatus.Found)
+        }
+    }
+
+    @Test
+    fun failUnreachableDestination() {
+        /* a closed room around the destination */
+        for (x in 3210..3214) {
+            for (y in 3210..3214) {
+                map[x, y, 0] = if (x == 3210 || x == 3214 || y == 3210 || y == 3214) CollisionFlag.OBJECT else 0
+            }
+        }
+        val handle = SearchHandle().start(map, 0, 3200, 3200, 3212, 3212)
+        var steps = 0
+        while (handle.step(1000) == SearchStatus.InProgress) {
+            steps++
+        }
+        Assertions.assertEquals(SearchStatus.Failed, handle.status)
+        Assertions.assertTrue(steps > 1)
+        val expected = SmartPathFinder().findPath(map, 0, 3200, 3200, 3212, 3212)
+        Assertions.assertTrue(expected.alternative)
+        Assertions.assertEquals(expected, handle.route())
+        Assertions.assertEquals(SearchStatus.Failed, handle.step(1))
+    }
+
+    @Test
+    fun refuseRouteWhileInProgress() {
+        val handle = SearchHandle().start(map, 0, 3200, 3200, 3240, 3200)
+        Assertions.assertEquals(SearchStatus.InProgress, handle.step(1))
+        Assertions.assertThrows(IllegalStateException::class.java) { handle.route() }
+        Assertions.assertThrows(IllegalArgumentException::class.java) { handle.step(0) }
+    }
+}
@@ -0,0 +1,107 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.api.assertThrows
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+private const val MAX_TURNS = AREA_SIZE * AREA_SIZE
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class SearchLimitsTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(67)
+
+    @Test
+    fun matchUnlimitedSearchUntilTriggered() {
+        map.fillRandomFlags(random)
+        val pf = SmartPathFinder()
+        repeat(200) {
+            val srcX = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val srcY = AREA_BASE + 50 + random.nextInt(AREA_SIZE - 100)
+            val destX = srcX - 30 + random.nextInt(60)
+            val destY = srcY - 30 + random.nextInt(60)
+            val srcSize = 1 + random.nextInt(3)
+            val route = pf.findPath(map, 0, srcX, srcY, destX, destY, srcSize, moveNear = false, maxTurns = MAX_TURNS)
+            val nodes = pf.expandedNodes
+            if (route.failed) {
+                return@repeat
+            }
+            val limits = SearchLimits(maxDistance = route.size, maxNodes = nodes)
+            Assertions.assertEquals(route, findPath(pf, srcX, srcY, destX, destY, srcSize, limits))
+            val bounds = SearchLimits(
+                minX = srcX - (pf.searchMapSize / 2),
+                minY = srcY - (pf.searchMapSize / 2),
+                maxX = srcX + (pf.searchMapSize / 2),
+                maxY = srcY + (pf.searchMapSize / 2)
+            )
+            Assertions.assertEquals(route, findPath(pf, srcX, srcY, destX, destY, srcSize, bounds))
+
+            /* routes are as short as can be, so a step less can never reach the destination */
+            if (route.size > 0) {
+                val shorter = SearchLimits(maxDistance = route.size - 1)
+                Assertions.assertTrue(findPath(pf, srcX, srcY, destX, destY, srcSize, shorter).failed)
+            }
+            if (nodes > 1) {
+                val fewer = SearchLimits(maxNodes = nodes - 1)
+                Assertions.assertTrue(findPath(pf, srcX, srcY, destX, destY, srcSize, fewer).failed)
+                Assertions.assertEquals(nodes - 1, pf.expandedNodes)
+            }
+        }
+    }
+
+    @Test
+    fun stayWithinBounds() {
+        for (y in 3195..3205) {
+            map[3205, y, 0] = CollisionFlag.OBJECT
+        }
+        val pf = SmartPathFinder()
+        val south = SearchLimits(minX = 3190, minY = 3190, maxX = 3220, maxY = 3203)
+        val around = pf.findPath(map, 0, 3200, 3200, 3210, 3200, limits = south)
+        Assertions.assertTrue(around.success)
+        Assertions.assertFalse(around.alternative)
+        Assertions.assertTrue(around.all { it.y in 3190..3203 })
+        Assertions.assertTrue(around.any { it.y < 3195 })
+
+        val enclosed = SearchLimits(minX = 3190, minY = 3196, maxX = 3220, maxY = 3203)
+        val blocked = pf.findPath(map, 0, 3200, 3200, 3210, 3200, limits = enclosed)
+        Assertions.assertTrue(blocked.alternative)
+        Assertions.assertEquals(RouteCoordinates(3204, 3200), blocked.last())
+        Assertions.assertTrue(pf.findPath(map, 0, 3200, 3200, 3210, 3200, moveNear = false, limits = enclosed).failed)
+
+        val distant = SearchLimits(maxDistance = 2)
+        val near = pf.findPath(map, 0, 3200, 3200, 3210, 3200, limits = distant)
+        Assertions.assertEquals(RouteCoordinates(3202, 3200), near.last())
+
+        assertThrows<IllegalArgumentException> { SearchLimits(maxNodes = 0) }
+        assertThrows<IllegalArgumentException> { SearchLimits(minX = 3200, maxX = 3199) }
+    }
+
+    private fun findPath(
+        pf: SmartPathFinder,
+        srcX: Int,
+        srcY: Int,
+        destX: Int,
+        destY: Int,
+        srcSize: Int,
+        limits: SearchLimits
+    ): Route {
+        return pf.findPath(
+            map,
+            0,
+            srcX,
+            srcY,
+            destX,
+            destY,
+            srcSize,
+            moveNear = false,
+            maxTurns = MAX_TURNS,
+            limits = limits
+        )
+    }
+}
@@ -0,0 +1,86 @@
+package org.rsmod.pathfinder
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.flag.CollisionFlag
+import kotlin.random.Random
+
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class SearchSchedulerTest {
+
+    private val map = CollisionMap()
+
+    private val random = Random(47)
+
+    @Test
+    fun matchSmartPathFinderRoutes() {
+        map.fillRandomFlags(random) { randomFlag(random, objects = 2) }
+        val pf = SmartPathFinder()
+        val scheduler = SearchScheduler(nodesPerTick = 2000)
+        val expected = ArrayList<Route>()
+        val routes = arrayOfNulls<Route>(100)
+        for (i in routes.indices) {
+            val srcX = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+            val srcY = AREA_BASE + 40 + random.nextInt(AREA_SIZE - 80)
+            val destX = srcX + random.nextInt(-40, 40)
+            val destY = srcY + random.nextInt(-40, 40)
+            val srcSize = 1 + random.nextInt(2)
+            expected += pf.findPath(map, 0, srcX, srcY, destX, destY, srcSize = srcSize)
+            scheduler.submit(map, 0, srcX, srcY, destX, destY, srcSize = srcSize) { routes[i] = it.toRoute() }
+        }
+        while (scheduler.pendingSearches > 0) {
+            scheduler.process()
+            Assertions.assertTrue(scheduler.lastTickNodes <= scheduler.nodesPerTick)
+        }
+        Assertions.assertEquals(expected, routes.toList())
+        Assertions.assertEquals(100, scheduler.completedSearches)
+    }
+
+    @Test
+    fun shareBudgetWithLaterSearches() {
+        enclose(3212, 3212)
+        val scheduler = SearchScheduler(nodesPerTick = 1000)
+        var unreachable: Route? = null
+        var nearby: Route? = null
+        scheduler.submit(map, 0, 3200, 3200, 3212, 3212) { unreachable = it.toRoute() }
+        scheduler.submit(map, 0, 3200, 3200, 3203, 3200) { nearby = it.toRoute() }
+        scheduler.process()
+        Assertions.assertEquals(SmartPathFinder().findPath(map, 0, 3200, 3200, 3203, 3200), nearby)
+        Assertions.assertNull(unreachable)
+        Assertions.assertEquals(1000, scheduler.lastTickNodes)
+        Assertions.assertEquals(1, scheduler.pendingSearches)
+    }
+
+    @Test
+    fun countDeferredAndStarvedSearches() {
+        enclose(3212, 3212)
+        val scheduler = SearchScheduler(nodesPerTick = 1000, starvationTicks = 5)
+        var route: Route? = null
+        scheduler.submit(map, 0, 3200, 3200, 3212, 3212) { route = it.toRoute() }
+        repeat(4) { scheduler.process() }
+        Assertions.assertEquals(0, scheduler.starvedSearches)
+        scheduler.process()
+        Assertions.assertEquals(1, scheduler.starvedSearches)
+        while (route == null) {
+            scheduler.process()
+        }
+        Assertions.assertEquals(SmartPathFinder().findPath(map, 0, 3200, 3200, 3212, 3212), route)
+        val ticks = scheduler.tick
+        Assertions.assertEquals(1, scheduler.starvedSearches)
+        Assertions.assertEquals(ticks - 1, scheduler.deferredSearches)
+        Assertions.assertEquals(ticks - 1, scheduler.completionTicks)
+        Assertions.assertEquals(ticks - 1, scheduler.maxCompletionTicks.toLong())
+        Assertions.assertTrue(scheduler.expandedNodes > (ticks - 1) * scheduler.nodesPerTick)
+    }
+
+    /* Walls in the tile at ([x], [y]) so it cannot be reached. */
+    private fun enclose(x: Int, y: Int) {
+        for (dx in -2..2) {
+            for (dy in -2..2) {
+                map[x + dx, y + dy, 0] = if (dx == -2 || dx == 2 || dy == -2 || dy == 2) CollisionFlag.OBJECT else 0
+            }
+        }
+    }
+}
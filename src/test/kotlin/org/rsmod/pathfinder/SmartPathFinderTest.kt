@@ -1,7 +1,5 @@
 package org.rsmod.pathfinder
 
-import com.fasterxml.jackson.core.JsonFactory
-import com.fasterxml.jackson.databind.ObjectMapper
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInstance
@@ -10,8 +8,11 @@ import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
 import org.junit.jupiter.params.provider.ArgumentsProvider
 import org.junit.jupiter.params.provider.ArgumentsSource
+import org.rsmod.pathfinder.collision.CollisionMap
+import org.rsmod.pathfinder.collision.OffsetFlagView
 import org.rsmod.pathfinder.flag.CollisionFlag
 import java.util.stream.Stream
+import kotlin.random.Random
 
 private const val RECT_OBJ_SHAPE = 10
 private val globalPf = SmartPathFinder(resetOnSearch = true)
@@ -102,6 +103,130 @@ class SmartPathFinderTest {
         Assertions.assertEquals(params.expectedY, route.last().y)
     }
 
+    @Test
+    fun resetBetweenSearches() {
+        val src = RouteCoordinates(3200, 3200)
+        val first = pf.findPath(flags, src.x, src.y, src.x + 5, src.y + 5)
+        pf.findPath(flags, src.x, src.y, src.x - 20, src.y + 3)
+        val second = pf.findPath(flags, src.x, src.y, src.x + 5, src.y + 5)
+        Assertions.assertEquals(first, second)
+        Assertions.assertEquals(5, second.size)
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun reachDestinationCollisionMap(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val collisionMap = CollisionMap()
+        val baseX = params.srcX - halfMap
+        val baseY = params.srcY - halfMap
+        for (y in 0 until pf.searchMapSize) {
+            for (x in 0 until pf.searchMapSize) {
+                collisionMap[baseX + x, baseY + y, 0] = params.flags[(y * pf.searchMapSize) + x]
+            }
+        }
+        val expected = pf.findPath(params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        val route = pf.findPath(collisionMap, 0, params.srcX, params.srcY, params.destX, params.destY)
+        Assertions.assertEquals(expected, route)
+    }
+
+    @Test
+    fun floodCollisionMap() {
+        val collisionMap = CollisionMap()
+        val random = Random(29)
+        val src = RouteCoordinates(3203, 3197)
+        val baseX = src.x - halfMap
+        val baseY = src.y - halfMap
+        for (y in 0 until pf.searchMapSize) {
+            for (x in 0 until pf.searchMapSize) {
+                val flag = if (random.nextInt(4) == 0) CollisionFlag.OBJECT else 0
+                collisionMap[baseX + x, baseY + y, 0] = flag
+                flags[(y * pf.searchMapSize) + x] = flag
+            }
+        }
+        /* walled off destinations flood every tile the source can reach */
+        repeat(50) {
+            val destX = baseX + random.nextInt(pf.searchMapSize)
+            val destY = baseY + random.nextInt(pf.searchMapSize)
+            val srcSize = 1 + random.nextInt(2)
+            val expected = pf.findPath(flags, src.x, src.y, destX, destY, srcSize)
+            val route = pf.findPath(collisionMap, 0, src.x, src.y, destX, destY, srcSize)
+            Assertions.assertEquals(expected, route)
+        }
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun reachDestinationOffsetFlagView(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val worldSize = pf.searchMapSize * 2
+        val worldFlags = IntArray(worldSize * worldSize)
+        val offsetX = 7
+        val offsetY = 19
+        for (y in 0 until pf.searchMapSize) {
+            for (x in 0 until pf.searchMapSize) {
+                worldFlags[((offsetY + y) * worldSize) + offsetX + x] = params.flags[(y * pf.searchMapSize) + x]
+            }
+        }
+        val flags = OffsetFlagView(worldFlags, worldSize, offsetX, offsetY)
+        val expected = pf.findPath(params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        val route = pf.findPath(flags, params.srcX, params.srcY, params.destX, params.destY)
+        Assertions.assertEquals(expected, route)
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun reachDestinationRouteBuffer(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val buffer = RouteBuffer(capacity = 1)
+        val expected = pf.findPath(params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        pf.findPath(buffer, params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        Assertions.assertEquals(expected.success, buffer.success)
+        Assertions.assertEquals(expected.alternative, buffer.alternative)
+        Assertions.assertEquals(expected.toList(), List(buffer.size) { buffer[it] })
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ParameterFileNameProvider::class)
+    fun expandWaypointsIntoRoute(resourceFile: String) {
+        val params = loadParameters(resourceFile)
+        val route = pf.findPath(RouteBuffer(), params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        val waypoints = RouteBuffer(waypoints = true)
+        pf.findPath(waypoints, params.flags, params.srcX, params.srcY, params.destX, params.destY)
+        Assertions.assertEquals(route.success, waypoints.success)
+        Assertions.assertTrue(waypoints.size < route.size)
+        Assertions.assertEquals(route[route.size - 1], waypoints[waypoints.size - 1])
+        val steps = ArrayList<RouteCoordinates>()
+        for (step in waypoints.steps()) {
+            steps.add(step)
+        }
+        Assertions.assertEquals(route.toRoute().toList(), steps)
+    }
+
+    @Test
+    fun reachWorldOrigin() {
+        val src = RouteCoordinates(2, 0)
+        val dest = RouteCoordinates(0, 0)
+        val route = pf.findPath(flags, src.x, src.y, dest.x, dest.y)
+        Assertions.assertEquals(listOf(RouteCoordinates(1, 0), dest), route.toList())
+    }
+
+    @Test
+    fun clearRouteBufferOnFailure() {
+        val src = RouteCoordinates(3200, 3200)
+        val buffer = pf.findPath(RouteBuffer(), flags, src.x, src.y, src.x + 5, src.y)
+        Assertions.assertEquals(5, buffer.size)
+        Assertions.assertTrue(buffer.success)
+
+        /* enclose the source tile so the next search fails */
+        for (dir in listOf(North, South, East, West)) {
+            flags[((halfMap + dir.offY) * pf.searchMapSize) + halfMap + dir.offX] = CollisionFlag.OBJECT
+        }
+        pf.findPath(buffer, flags, src.x, src.y, src.x + 5, src.y)
+        Assertions.assertTrue(buffer.failed)
+        Assertions.assertTrue(buffer.isEmpty)
+    }
+
     @ParameterizedTest
     @ArgumentsSource(DimensionParameterProvider::class)
     fun reachRectObjectSuccessfully(width: Int, height: Int) {
@@ -133,23 +258,6 @@ class SmartPathFinderTest {
         Assertions.assertFalse(route.alternative)
     }
 
-    private fun loadParameters(resourceFile: String): PathParameter {
-        val mapper = ObjectMapper(JsonFactory())
-        val input = Route::class.java.getResourceAsStream(resourceFile)
-        return input.use { mapper.readValue(it, PathParameter::class.java) }
-    }
-
-    private object ParameterFileNameProvider : ArgumentsProvider {
-
-        override fun provideArguments(context: ExtensionContext): Stream<out Arguments> {
-            return Stream.of(
-                Arguments.of("lumbridge.json"),
-                Arguments.of("barb-village.json"),
-                Arguments.of("gnome-maze.json") /* stops after 24 turns */
-            )
-        }
-    }
-
     private object DimensionParameterProvider : ArgumentsProvider {
 
         override fun provideArguments(context: ExtensionContext): Stream<out Arguments> {
@@ -174,41 +282,4 @@ class SmartPathFinderTest {
             )
         }
     }
-
-    private data class PathParameter(
-        val srcX: Int,
-        val srcY: Int,
-        val destX: Int,
-        val destY: Int,
-        val expectedX: Int,
-        val expectedY: Int,
-        val flags: IntArray
-    ) {
-
-        constructor() : this(0, 0, 0, 0, 0, 0, intArrayOf())
-
-        override fun equals(other: Any?): Boolean {
-            if (this === other) return true
-            if (javaClass != other?.javaClass) return false
-
-            other as PathParameter
-
-            if (srcX != other.srcX) return false
-            if (srcY != other.srcY) return false
-            if (destX != other.destX) return false
-            if (destY != other.destY) return false
-            if (!flags.contentEquals(other.flags)) return false
-
-            return true
-        }
-
-        override fun hashCode(): Int {
-            var result = srcX
-            result = 31 * result + srcY
-            result = 31 * result + destX
-            result = 31 * result + destY
-            result = 31 * result + flags.contentHashCode()
-            return result
-        }
-    }
 }
@@ -0,0 +1,103 @@
+package org.rsmod.pathfinder.collision
+
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.rsmod.pathfinder.DumbPathFinder
+import org.rsmod.pathfinder.ProjectileValidator
+import org.rsmod.pathfinder.RouteCoordinates
+import org.rsmod.pathfinder.SmartPathFinder
+import org.rsmod.pathfinder.flag.CollisionFlag
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CollisionMapTest {
+
+    private val map = CollisionMap()
+
+    @Test
+    fun unallocatedZoneHasNoFlags() {
+        Assertions.assertEquals(0, map[3200, 3200, 3])
+        Assertions.assertFalse(map.isZoneAllocated(3200, 3200, 3))
+    }
+
+    @Test
+    fun addAndRemoveFlags() {
+        map.add(3201, 3202, 1, CollisionFlag.OBJECT)
+        map.add(3201, 3202, 1, CollisionFlag.FLOOR)
+        Assertions.assertTrue(map.isZoneAllocated(3200, 3200, 1))
+        Assertions.assertEquals(CollisionFlag.OBJECT or CollisionFlag.FLOOR, map[3201, 3202, 1])
+        Assertions.assertEquals(0, map[3201, 3202, 0])
+        Assertions.assertEquals(0, map[3202, 3201, 1])
+
+        map.remove(3201, 3202, 1, CollisionFlag.OBJECT)
+        Assertions.assertEquals(CollisionFlag.FLOOR, map[3201, 3202, 1])
+
+        map.deallocateIfPresent(3201, 3202, 1)
+        Assertions.assertFalse(map.isZoneAllocated(3200, 3200, 1))
+        Assertions.assertEquals(0, map[3201, 3202, 1])
+    }
+
+    @Test
+    fun outOfBoundsTilesAreBlocked() {
+        Assertions.assertNotEquals(0, map[-1, 3200, 0])
+        Assertions.assertNotEquals(0, map[3200, CollisionMap.WORLD_LENGTH, 0])
+        Assertions.assertNotEquals(0, map[3200, 3200, CollisionMap.LEVELS])
+    }
+
+    @Test
+    fun smartPathFinderReadsMap() {
+        val pf = SmartPathFinder()
+        val src = RouteCoordinates(3200, 3200)
+        val dest = src.translateX(3)
+        map[src.x + 1, src.y, 2] = CollisionFlag.OBJECT
+
+        val route = pf.findPath(map, 2, src.x, src.y, dest.x, dest.y)
+        Assertions.assertTrue(route.success)
+        Assertions.assertEquals(dest, route.last())
+        Assertions.assertTrue(route.none { it == src.translateX(1) })
+    }
+
+    @Test
+    fun dumbPathFinderReadsMap() {
+        val pf = DumbPathFinder()
+        val src = RouteCoordinates(3300, 3300)
+        val dest = src.translateX(3)
+        map[src.x + 2, src.y, 2] = CollisionFlag.OBJECT
+
+        val route = pf.findPath(map, 2, src.x, src.y, dest.x, dest.y)
+        Assertions.assertTrue(route.failed)
+        Assertions.assertEquals(src.translateX(1), route.last())
+    }
+
+    @Test
+    fun projectileValidatorReadsMap() {
+        val validator = ProjectileValidator()
+        val src = RouteCoordinates(3400, 3400)
+        val dest = src.translateY(4)
+        Assertions.assertTrue(validator.isValid(map, 2, src.x, src.y, dest.x, dest.y))
+
+        map[src.x, src.y + 1, 2] = CollisionFlag.WALL_SOUTH_PROJECTILE_BLOCKER
+        Assertions.assertFalse(validator.isValid(map, 2, src.x, src.y, dest.x, dest.y))
+    }
+
+    @Test
+    fun notifyListenersOfChangedTiles() {
+        val changed = mutableListOf<RouteCoordinates>()
+        val listener = CollisionMapListener { x, y, level -> if (level == 3) changed.add(RouteCoordinates(x, y)) }
+        map.addListener(listener)
+
+        map.add(3500, 3500, 3, CollisionFlag.OBJECT)
+        map.add(3500, 3500, 3, CollisionFlag.OBJECT)
+        map[3501, 3500, 3] = CollisionFlag.FLOOR
+        map.remove(3501, 3501, 3, CollisionFlag.OBJECT)
+        Assertions.assertEquals(listOf(RouteCoordinates(3500, 3500), RouteCoordinates(3501, 3500)), changed)
+
+        changed.clear()
+        map.deallocateIfPresent(3500, 3500, 3)
+        Assertions.assertEquals(setOf(RouteCoordinates(3500, 3500), RouteCoordinates(3501, 3500)), changed.toSet())
+
+        map.removeListener(listener)
+        map.add(3500, 3500, 3, CollisionFlag.OBJECT)
+        Assertions.assertEquals(2, changed.size)
+    }
+}